@@ -0,0 +1,147 @@
+package com.skillforge;
+
+import com.skillforge.dto.QuestionIndexRow;
+import com.skillforge.model.Course;
+import com.skillforge.model.Question;
+import com.skillforge.repository.QuestionRepository;
+import com.skillforge.service.QuestionIndex;
+import com.skillforge.service.QuestionSearchIndex;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Seeded synthetic question bank shared by the benchmarks: COURSES courses
+// of PER_COURSE questions over TOPICS topics, three difficulties and 1-3
+// marks, so every run sees the same data.
+public final class BenchmarkData {
+    public static final int COURSES = 5;
+    public static final int PER_COURSE = 4000;
+    public static final int TOPICS = 20;
+    public static final String[] DIFFICULTIES = {"EASY", "MEDIUM", "HARD"};
+
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    public static List<Question> questions(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Course course = new Course();
+            course.setId((long) (i % COURSES) + 1);
+            course.setTitle("Course " + course.getId());
+            course.setDescription("Synthetic course");
+
+            Question question = new Question();
+            question.setId((long) i + 1);
+            question.setCourse(course);
+            question.setQuestionText("Which of the following best describes concept " + i + "?");
+            question.setOptionA("The first option for " + i);
+            question.setOptionB("The second option for " + i);
+            question.setOptionC("The third option for " + i);
+            question.setOptionD("The fourth option for " + i);
+            question.setCorrectAnswer(String.valueOf((char) ('A' + random.nextInt(4))));
+            question.setDifficulty(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+            question.setTopic("t" + random.nextInt(TOPICS));
+            question.setMarks(1 + random.nextInt(3));
+            questions.add(question);
+        }
+        return questions;
+    }
+
+    // A QuestionIndex loaded through its normal rebuild path from a stub
+    // repository, without a database.
+    public static QuestionIndex index() {
+        List<QuestionIndexRow> rows = new ArrayList<>();
+        for (Question question : questions(COURSES * PER_COURSE)) {
+            rows.add(new Row(question.getId(), question.getCourse().getId(), question.getTopic(),
+                question.getDifficulty(), question.getMarks()));
+        }
+        QuestionRepository repository = (QuestionRepository) Proxy.newProxyInstance(
+            QuestionRepository.class.getClassLoader(), new Class<?>[] {QuestionRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "streamIndexRows" -> rows.stream();
+                case "toString" -> "BenchmarkQuestionRepository";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        QuestionIndex index = new QuestionIndex(repository, new NoTransactionManager());
+        index.rebuild();
+        return index;
+    }
+
+    // Common subject words; the rest of the vocabulary is made-up words, and
+    // word choice is skewed so a few terms have very long postings.
+    public static final String[] WORDS = {
+        "array", "list", "tree", "graph", "hash", "table", "sort", "search", "binary", "heap", "queue", "stack",
+        "node", "edge", "path", "cycle", "recursion", "loop", "pointer", "memory", "cache", "thread", "lock",
+        "process", "kernel", "network", "packet", "protocol", "database", "index", "query", "transaction",
+        "class", "object", "method", "interface", "inheritance", "exception", "compiler", "complexity",
+        "algorithm", "function", "variable", "string", "integer", "matrix", "vector", "probability", "integral",
+        "derivative", "theorem", "proof", "set", "relation", "mapping", "element", "value", "result", "time",
+        "space"};
+
+    // A search index over `count` questions with generated text, built
+    // through put() as QuestionService does.
+    public static QuestionSearchIndex searchIndex(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        QuestionSearchIndex index = new QuestionSearchIndex(null, new NoTransactionManager());
+        Course[] courses = new Course[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            courses[c] = new Course();
+            courses[c].setId((long) c + 1);
+        }
+        for (int i = 0; i < count; i++) {
+            Question question = new Question();
+            question.setId((long) i + 1);
+            question.setCourse(courses[i % COURSES]);
+            question.setQuestionText(sentence(random, 10 + random.nextInt(15)));
+            question.setOptionA(sentence(random, 1 + random.nextInt(4)));
+            question.setOptionB(sentence(random, 1 + random.nextInt(4)));
+            question.setOptionC(sentence(random, 1 + random.nextInt(4)));
+            question.setOptionD(sentence(random, 1 + random.nextInt(4)));
+            question.setDifficulty(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+            question.setTopic(WORDS[random.nextInt(WORDS.length)]);
+            index.put(question);
+        }
+        return index;
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            // Zipf-like rank over a 50k-word vocabulary, shifted so the most
+            // common word is about 1% of the text (stopwords are not generated)
+            int rank = (int) (10 * Math.pow(5001, random.nextDouble())) - 10;
+            text.append(rank < WORDS.length ? WORDS[rank] : "w" + rank).append(w % 7 == 6 ? ", " : " ");
+        }
+        return text.toString();
+    }
+
+    private record Row(Long getId, Long getCourseId, String getTopic, String getDifficulty, Integer getMarks)
+            implements QuestionIndexRow {
+    }
+
+    private static final class NoTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
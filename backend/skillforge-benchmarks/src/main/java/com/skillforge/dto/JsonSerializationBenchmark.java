@@ -0,0 +1,91 @@
+package com.skillforge.dto;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skillforge.BenchmarkData;
+import com.skillforge.model.Course;
+import com.skillforge.model.Exam;
+import com.skillforge.model.Question;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies as the controllers write them: a page of question read
+// models and exams inside ApiResponse, next to the same questions as
+// entities (with their nested course) for comparison.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonSerializationBenchmark {
+    @Param({"100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private ApiResponse<List<QuestionView>> questionViews;
+    private List<Question> questionEntities;
+    private ApiResponse<List<ExamView>> examViews;
+    private ApiResponse<Object> error;
+
+    @Setup
+    public void setUp() {
+        // Configured the way Spring Boot configures the MVC mapper
+        writer = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writer();
+        questionEntities = BenchmarkData.questions(size);
+        questionViews = ApiResponse.success(questionEntities.stream().map(QuestionView::of).toList());
+        List<ExamView> exams = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Course course = questionEntities.get(i).getCourse();
+            Exam exam = new Exam();
+            exam.setId((long) i + 1);
+            exam.setTitle("Generated exam " + i);
+            exam.setCourse(course);
+            exam.setDuration(60);
+            exam.setTotalMarks(100);
+            exam.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0).plusMinutes(i));
+            exams.add(ExamView.of(exam));
+        }
+        examViews = ApiResponse.success(exams);
+        error = ApiResponse.error("Attempt not found");
+    }
+
+    @Benchmark
+    public byte[] questionViewPage() throws IOException {
+        return writer.writeValueAsBytes(questionViews);
+    }
+
+    @Benchmark
+    public byte[] questionEntityPage() throws IOException {
+        return writer.writeValueAsBytes(questionEntities);
+    }
+
+    @Benchmark
+    public byte[] examViewPage() throws IOException {
+        return writer.writeValueAsBytes(examViews);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws IOException {
+        return writer.writeValueAsBytes(error);
+    }
+}
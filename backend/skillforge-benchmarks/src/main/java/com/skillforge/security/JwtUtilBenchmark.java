@@ -0,0 +1,73 @@
+package com.skillforge.security;
+
+import com.skillforge.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue and the per-request check. "cached" is the steady state of a
+// returning user; "uncached" cycles through more tokens than a small cache
+// holds, so nearly every call verifies the HMAC.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtUtilBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret";
+    private static final int TOKENS = 4096;
+
+    private JwtUtil jwt;
+    private JwtUtil smallCacheJwt;
+    private User user;
+    private String header;
+    private String[] headers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwt = new JwtUtil(SECRET, 86_400_000L, 4096);
+        smallCacheJwt = new JwtUtil(SECRET, 86_400_000L, 16);
+        user = user(1);
+        header = "Bearer " + jwt.generateToken(user);
+        headers = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            headers[i] = "Bearer " + smallCacheJwt.generateToken(user(i + 1));
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwt.generateToken(user);
+    }
+
+    @Benchmark
+    public Object authenticateCached() {
+        return jwt.authenticate(header, 7);
+    }
+
+    @Benchmark
+    public Object authenticateUncached() {
+        next = (next + 1) & (TOKENS - 1);
+        return smallCacheJwt.authenticate(headers[next], 7);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("learner" + id + "@example.com");
+        user.setName("Learner " + id);
+        user.setRole(User.Role.STUDENT);
+        return user;
+    }
+}
@@ -0,0 +1,56 @@
+package com.skillforge.service;
+
+import com.skillforge.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// One exam generation per call, with a new seed each time so the search
+// does not repeat. parallelism is the generator's worker count.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExamGeneratorBenchmark {
+    private static final Map<String, Double> MIX = Map.of("EASY", 0.3, "MEDIUM", 0.5, "HARD", 0.2);
+    private static final List<String> TOPICS = List.of("t0", "t1", "t2", "t3", "t4");
+
+    @Param({"1"})
+    private int parallelism;
+
+    @Param({"100"})
+    private int totalMarks;
+
+    private ExamGenerator generator;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        generator = new ExamGenerator(BenchmarkData.index(), parallelism, 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.destroy();
+    }
+
+    @Benchmark
+    public ExamGenerator.Selection generate() {
+        return generator.generate(1L, totalMarks, MIX, TOPICS, seed++, 1000L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.skillforge.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Cohort grading as GradingService does it (flat word matrices, 1024-sheet
+// chunks) serially and in parallel, plus packing a single submitted sheet.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradingBenchmark {
+    private static final int CHUNK = 1024;
+
+    @Param({"100"})
+    private int questions;
+
+    @Param({"10000"})
+    private int sheets;
+
+    private PackedAnswers.Key key;
+    private long[] choices;
+    private long[] answered;
+    private int[] given;
+    private int[] correct;
+    private int[] score;
+    private String sheet;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] options = new int[questions];
+        int[] marks = new int[questions];
+        for (int i = 0; i < questions; i++) {
+            options[i] = random.nextInt(4);
+            marks[i] = 1 + random.nextInt(3);
+        }
+        key = new PackedAnswers.Key(options, marks);
+        int words = key.words();
+        choices = new long[sheets * words];
+        answered = new long[sheets * words];
+        StringBuilder text = new StringBuilder(questions);
+        for (int s = 0; s < sheets; s++) {
+            text.setLength(0);
+            for (int i = 0; i < questions; i++) {
+                text.append("ABCD-".charAt(random.nextInt(5)));
+            }
+            byte[][] packed = PackedAnswers.pack(text.toString(), questions);
+            PackedAnswers.choiceWords(packed[0], choices, s * words);
+            PackedAnswers.maskWords(packed[1], answered, s * words);
+        }
+        sheet = text.toString();
+        given = new int[sheets];
+        correct = new int[sheets];
+        score = new int[sheets];
+    }
+
+    @Benchmark
+    public int[] gradeCohortSerial() {
+        key.grade(choices, answered, 0, sheets, given, correct, score);
+        return score;
+    }
+
+    @Benchmark
+    public int[] gradeCohortParallel() {
+        IntStream.range(0, (sheets + CHUNK - 1) / CHUNK).parallel().forEach(chunk ->
+            key.grade(choices, answered, chunk * CHUNK, Math.min(sheets, (chunk + 1) * CHUNK), given, correct, score));
+        return score;
+    }
+
+    @Benchmark
+    public byte[][] packSheet() {
+        return PackedAnswers.pack(sheet, questions);
+    }
+}
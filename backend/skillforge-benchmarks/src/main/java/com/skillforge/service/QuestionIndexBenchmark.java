@@ -0,0 +1,52 @@
+package com.skillforge.service;
+
+import com.skillforge.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Filter lookups behind /api/questions/filter and /count, and the course
+// slice exam generation starts from, on a 20k-question bank.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuestionIndexBenchmark {
+    private QuestionIndex index;
+
+    @Setup
+    public void setUp() {
+        index = BenchmarkData.index();
+    }
+
+    @Benchmark
+    public long[] findByCourse() {
+        return index.find(1L, null, null);
+    }
+
+    @Benchmark
+    public long[] findByCourseTopicAndDifficulty() {
+        return index.find(2L, "t3", "HARD");
+    }
+
+    @Benchmark
+    public int countByTopic() {
+        return index.count(null, "t7", null);
+    }
+
+    @Benchmark
+    public QuestionIndex.Slice courseSlice() {
+        return index.slice(3L);
+    }
+}
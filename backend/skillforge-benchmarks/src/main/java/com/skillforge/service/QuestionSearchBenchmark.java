@@ -0,0 +1,51 @@
+package com.skillforge.service;
+
+import com.skillforge.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Ranked search behind /api/questions/search: queries on the most common
+// terms (the longest postings), a rare term, and a filtered query.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class QuestionSearchBenchmark {
+    @Param({"100000", "1000000"})
+    public int questions;
+
+    private QuestionSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = BenchmarkData.searchIndex(questions);
+    }
+
+    @Benchmark
+    public QuestionSearchIndex.Hits commonTerms() {
+        return index.search("array list tree", null, null, 20);
+    }
+
+    @Benchmark
+    public QuestionSearchIndex.Hits rareTerm() {
+        return index.search("w4711 sorting", null, null, 20);
+    }
+
+    @Benchmark
+    public QuestionSearchIndex.Hits filtered() {
+        return index.search("binary search trees", 2L, "HARD", 20);
+    }
+}
@@ -0,0 +1,90 @@
+package com.skillforge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Thin JSON-over-HTTP client. Every call is timed into Metrics under the
+// endpoint name given by the caller (method and path template), and any
+// status outside 2xx fails the call.
+final class Client {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final Metrics metrics;
+
+    Client(String baseUrl, int timeoutMs, Metrics metrics) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.baseUrl = baseUrl;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.metrics = metrics;
+    }
+
+    JsonNode get(String endpoint, String path, String token) throws CallFailedException {
+        return send(endpoint, request(path, token).GET(), null);
+    }
+
+    JsonNode post(String endpoint, String path, String token, Object body) throws CallFailedException {
+        return send(endpoint, request(path, token), body);
+    }
+
+    JsonNode post(String endpoint, String path, String token, String contentType, String body) throws CallFailedException {
+        HttpRequest.Builder request = request(path, token)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        return send(endpoint, request, null);
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder request, Object body) throws CallFailedException {
+        try {
+            if (body != null) {
+                request.header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)));
+            }
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response;
+            try {
+                response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                metrics.record(endpoint, System.nanoTime() - start, 0);
+                throw new CallFailedException(endpoint + ": " + e, e);
+            }
+            metrics.record(endpoint, System.nanoTime() - start, response.statusCode());
+            if (response.statusCode() / 100 != 2) {
+                throw new CallFailedException(endpoint + " returned " + response.statusCode(), null);
+            }
+            byte[] payload = response.body();
+            return payload.length == 0 ? JSON.nullNode() : JSON.readTree(payload);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CallFailedException(endpoint + " interrupted", e);
+        } catch (IOException e) {
+            throw new CallFailedException(endpoint + ": unreadable response", e);
+        }
+    }
+
+    static final class CallFailedException extends Exception {
+        CallFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.skillforge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// One learner sitting the exam: log in, browse courses, open the exam and
+// its questions, start an attempt, answer, complete.
+record LearnerSession(String email, String password) {
+    private static final String[] OPTIONS = {"A", "B", "C", "D"};
+
+    static LearnerSession register(Client client, String stamp, int index) throws Client.CallFailedException {
+        LearnerSession learner = new LearnerSession("loadtest-" + stamp + "-" + index + "@example.com", "loadtest-" + stamp);
+        client.post("POST /api/auth/register", "/api/auth/register", null, Map.of(
+                "name", "Learner " + index,
+                "email", learner.email(),
+                "password", learner.password(),
+                "role", "STUDENT"));
+        return learner;
+    }
+
+    void run(Client client, Scenario scenario, Options options, String[] token) throws Client.CallFailedException {
+        if (options.loginEachSession() || token[0] == null) {
+            JsonNode login = client.post("POST /api/auth/login", "/api/auth/login", null,
+                    Map.of("email", email, "password", password));
+            token[0] = login.path("token").asText();
+        }
+        String auth = token[0];
+        long examId = scenario.examId();
+
+        client.get("GET /api/courses", "/api/courses", auth);
+        client.get("GET /api/exams/{id}", "/api/exams/" + examId, auth);
+        JsonNode questions = client.get("GET /api/exams/{id}/questions", "/api/exams/" + examId + "/questions", auth);
+
+        JsonNode attempt = client.post("POST /api/adaptive/attempts", "/api/adaptive/attempts", auth, Map.of("examId", examId));
+        long attemptId = attempt.path("data").path("id").asLong();
+
+        List<JsonNode> pool = new ArrayList<>();
+        // Exam questions come back as a bare array
+        (questions.isArray() ? questions : questions.path("data")).forEach(pool::add);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int count = Math.min(options.answers(), pool.size());
+        for (int i = 0; i < count; i++) {
+            JsonNode question = pool.get(i);
+            // Right about two times in three, so ratings move both ways
+            String answer = random.nextInt(3) < 2
+                    ? question.path("correctAnswer").asText("A")
+                    : OPTIONS[random.nextInt(OPTIONS.length)];
+            client.post("POST /api/adaptive/answers", "/api/adaptive/answers", auth, Map.of(
+                    "attemptId", attemptId,
+                    "questionId", question.path("id").asLong(),
+                    "answer", answer,
+                    "responseTimeMs", 2000 + random.nextInt(20_000)));
+        }
+        client.post("POST /api/adaptive/attempts/{id}/complete", "/api/adaptive/attempts/" + attemptId + "/complete", auth, Map.of());
+    }
+}
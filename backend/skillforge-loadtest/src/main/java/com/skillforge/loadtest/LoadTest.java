@@ -0,0 +1,194 @@
+package com.skillforge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives learner sessions against a running backend and writes per-endpoint
+// latency percentiles and throughput as JSON.
+//
+// With --rate 0 every learner runs sessions back to back (closed loop). With
+// a rate, sessions are started on a fixed schedule whatever the backend is
+// doing (open loop) and the "session" latency is measured from the scheduled
+// start, so time spent queued behind a slow backend is counted rather than
+// hidden (coordinated omission).
+public final class LoadTest {
+    static final String SESSION = "session";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--help")) {
+            System.out.print(Options.USAGE);
+            return;
+        }
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        // Setup calls are timed separately so they never mix with the run
+        Metrics setup = new Metrics();
+        setup.start();
+        Client setupClient = new Client(options.baseUrl(), options.timeoutMs(), setup);
+        Scenario scenario;
+        List<LearnerSession> learners = new ArrayList<>();
+        try {
+            scenario = Scenario.prepare(setupClient, options);
+            String stamp = Long.toString(System.nanoTime(), 36);
+            for (int i = 0; i < options.users(); i++) {
+                learners.add(LearnerSession.register(setupClient, stamp, i));
+            }
+        } catch (Client.CallFailedException e) {
+            System.err.println("Setup failed: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        setup.stop();
+        System.out.printf("Exam %d, %d learners registered%n", scenario.examId(), learners.size());
+
+        Metrics metrics = new Metrics();
+        Client client = new Client(options.baseUrl(), options.timeoutMs(), metrics);
+        Run run = new Run(options, scenario, learners, client, metrics);
+        Instant startedAt = Instant.now();
+        run.execute();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("options", options);
+        report.put("examId", scenario.examId());
+        report.put("mode", options.rate() > 0 ? "open" : "closed");
+        report.put("measuredSeconds", metrics.seconds());
+        report.put("sessionsCompleted", run.completed.get());
+        report.put("sessionsFailed", run.failed.get());
+        report.put("sessionsMissed", run.missed.get());
+        report.put("endpoints", metrics.report());
+        report.put("setup", setup.report());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(options.report()), report);
+
+        print(metrics.report(), run);
+        System.out.println("Report written to " + options.report());
+        System.exit(run.failed.get() > 0 && run.completed.get() == 0 ? 1 : 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> endpoints, Run run) {
+        System.out.printf("%nSessions: %d completed, %d failed, %d not started in time%n",
+                run.completed.get(), run.failed.get(), run.missed.get());
+        System.out.printf("%-44s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        endpoints.forEach((name, value) -> {
+            Map<String, Object> stats = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) stats.get("latencyMs");
+            System.out.printf("%-44s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    stats.get("count"), stats.get("errors"), stats.get("throughputPerSecond"),
+                    latency.get("p50"), latency.get("p99"), latency.get("p99.9"), latency.get("max"));
+        });
+    }
+
+    private static final class Run {
+        final Options options;
+        final Scenario scenario;
+        final List<LearnerSession> learners;
+        final Client client;
+        final Metrics metrics;
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        // Counted while measuring; missed is open loop only: the slot came
+        // but no worker was free before the run ended
+        final AtomicLong missed = new AtomicLong();
+        final AtomicInteger firstErrors = new AtomicInteger();
+
+        Run(Options options, Scenario scenario, List<LearnerSession> learners, Client client, Metrics metrics) {
+            this.options = options;
+            this.scenario = scenario;
+            this.learners = learners;
+            this.client = client;
+            this.metrics = metrics;
+        }
+
+        void execute() throws InterruptedException {
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+            ExecutorService workers = Executors.newFixedThreadPool(options.users());
+            // Each learner's token, kept between sessions unless --login-each-session
+            String[][] tokens = new String[learners.size()][1];
+            Thread clock = new Thread(() -> {
+                LockSupport.parkNanos(measureFrom - System.nanoTime());
+                metrics.start();
+            }, "loadtest-clock");
+            clock.setDaemon(true);
+            clock.start();
+
+            if (options.rate() > 0) {
+                long interval = (long) (1e9 / options.rate());
+                for (long i = 0; ; i++) {
+                    long intended = start + i * interval;
+                    if (intended >= end) {
+                        break;
+                    }
+                    LockSupport.parkNanos(intended - System.nanoTime());
+                    int index = (int) (i % learners.size());
+                    workers.execute(() -> {
+                        if (System.nanoTime() >= end) {
+                            missed.incrementAndGet();
+                            return;
+                        }
+                        session(learners.get(index), tokens[index], intended);
+                    });
+                }
+            } else {
+                for (int i = 0; i < learners.size(); i++) {
+                    int index = i;
+                    workers.execute(() -> {
+                        while (System.nanoTime() < end) {
+                            session(learners.get(index), tokens[index], System.nanoTime());
+                        }
+                    });
+                }
+            }
+            workers.shutdown();
+            // In-flight sessions finish and are counted; only new ones stop at the end
+            if (!workers.awaitTermination(options.timeoutMs() * 20L, TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+            metrics.stop();
+        }
+
+        private void session(LearnerSession learner, String[] token, long startedAt) {
+            try {
+                learner.run(client, scenario, options, token);
+                metrics.record(SESSION, System.nanoTime() - startedAt, 200);
+                if (metrics.recording()) {
+                    completed.incrementAndGet();
+                }
+            } catch (Client.CallFailedException e) {
+                metrics.record(SESSION, System.nanoTime() - startedAt, 0);
+                if (metrics.recording()) {
+                    failed.incrementAndGet();
+                }
+                // A force-logged-out learner logs in again next time
+                token[0] = null;
+                if (firstErrors.getAndIncrement() < 10) {
+                    System.err.println("Session failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
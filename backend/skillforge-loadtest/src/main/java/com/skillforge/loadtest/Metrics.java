@@ -0,0 +1,95 @@
+package com.skillforge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint latency histograms (microseconds, 3 significant digits) and
+// status counts. Nothing is recorded outside start()..stop(), which is how
+// warmup is left out.
+final class Metrics {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startNanos;
+    private volatile long stopNanos;
+
+    void start() {
+        startNanos = System.nanoTime();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+        stopNanos = System.nanoTime();
+    }
+
+    boolean recording() {
+        return recording;
+    }
+
+    double seconds() {
+        long end = recording ? System.nanoTime() : stopNanos;
+        return (end - startNanos) / 1e9;
+    }
+
+    // status 0 means the request did not get a response
+    void record(String endpoint, long nanos, int status) {
+        if (!recording) {
+            return;
+        }
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latency.recordValue(Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS)));
+        stats.statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+        if (status / 100 != 2) {
+            stats.errors.increment();
+        }
+    }
+
+    Map<String, Object> report() {
+        double seconds = seconds();
+        Map<String, Object> report = new TreeMap<>();
+        endpoints.forEach((name, stats) -> report.put(name, stats.report(seconds)));
+        return report;
+    }
+
+    private static final class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+
+        Map<String, Object> report(double seconds) {
+            Histogram snapshot = latency.copy();
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("count", snapshot.getTotalCount());
+            report.put("errors", errors.sum());
+            report.put("throughputPerSecond", seconds > 0 ? snapshot.getTotalCount() / seconds : 0);
+            Map<String, Object> latencyMs = new LinkedHashMap<>();
+            latencyMs.put("mean", snapshot.getMean() / 1000);
+            latencyMs.put("p50", snapshot.getValueAtPercentile(50) / 1000.0);
+            latencyMs.put("p90", snapshot.getValueAtPercentile(90) / 1000.0);
+            latencyMs.put("p99", snapshot.getValueAtPercentile(99) / 1000.0);
+            latencyMs.put("p99.9", snapshot.getValueAtPercentile(99.9) / 1000.0);
+            latencyMs.put("max", snapshot.getMaxValue() / 1000.0);
+            report.put("latencyMs", latencyMs);
+            Map<String, Long> status = new TreeMap<>();
+            statuses.forEach((code, count) -> status.put(String.valueOf(code), count.sum()));
+            report.put("status", status);
+            // Full distribution, for merging or re-plotting runs later
+            ByteBuffer buffer = ByteBuffer.allocate(snapshot.getNeededByteBufferCapacity());
+            int length = snapshot.encodeIntoCompressedByteBuffer(buffer);
+            report.put("histogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+            return report;
+        }
+    }
+}
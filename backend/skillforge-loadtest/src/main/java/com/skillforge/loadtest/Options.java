@@ -0,0 +1,72 @@
+package com.skillforge.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Command line settings, given as --name=value or --name value.
+record Options(String baseUrl, int users, double rate, int durationSeconds, int warmupSeconds,
+               int answers, Long examId, int questions, boolean loginEachSession, int timeoutMs,
+               String report) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [options]
+              --base-url URL        backend to drive (default http://localhost:8081)
+              --users N             learners, and the most sessions in flight (default 50)
+              --rate R              new sessions per second; 0 runs each learner back to back (default 0)
+              --duration S          measured seconds (default 60)
+              --warmup S            seconds run before measuring (default 10)
+              --answers N           answers per session, capped by the exam size (default 20)
+              --exam-id ID          use an existing exam instead of creating one
+              --questions N         questions in the generated bank when creating one (default 300)
+              --login-each-session  log in at the start of every session (default true)
+              --timeout-ms MS       per-request timeout (default 30000)
+              --report FILE         JSON report path (default loadtest-report.json)
+            """;
+
+    private static final Set<String> NAMES = Set.of("base-url", "users", "rate", "duration", "warmup", "answers",
+            "exam-id", "questions", "login-each-session", "timeout-ms", "report");
+
+    static Options parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                values.put(arg.substring(2), "true");
+            }
+        }
+        for (String name : values.keySet()) {
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        Options options = new Options(
+                stripSlash(values.getOrDefault("base-url", "http://localhost:8081")),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Double.parseDouble(values.getOrDefault("rate", "0")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Integer.parseInt(values.getOrDefault("answers", "20")),
+                values.containsKey("exam-id") ? Long.valueOf(values.get("exam-id")) : null,
+                Integer.parseInt(values.getOrDefault("questions", "300")),
+                Boolean.parseBoolean(values.getOrDefault("login-each-session", "true")),
+                Integer.parseInt(values.getOrDefault("timeout-ms", "30000")),
+                values.getOrDefault("report", "loadtest-report.json"));
+        if (options.users() < 1 || options.durationSeconds() < 1 || options.rate() < 0) {
+            throw new IllegalArgumentException("users and duration must be positive, rate must not be negative");
+        }
+        return options;
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,48 @@
+package com.skillforge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// The course and exam the learners sit. Either an existing exam, or a new
+// course with a generated question bank and an exam drawn from it.
+record Scenario(String adminToken, long examId) {
+
+    static Scenario prepare(Client client, Options options) throws Client.CallFailedException {
+        String stamp = Long.toString(System.currentTimeMillis(), 36);
+        JsonNode admin = client.post("POST /api/auth/register", "/api/auth/register", null, Map.of(
+                "name", "Load test admin",
+                "email", "loadtest-admin-" + stamp + "@example.com",
+                "password", "loadtest-" + stamp,
+                "role", "ADMIN"));
+        String token = admin.path("token").asText();
+        if (options.examId() != null) {
+            client.get("GET /api/exams/{id}", "/api/exams/" + options.examId(), token);
+            return new Scenario(token, options.examId());
+        }
+
+        JsonNode course = client.post("POST /api/courses", "/api/courses", token, Map.of(
+                "title", "Load test " + stamp,
+                "description", "Created by the load test harness"));
+        long courseId = course.path("data").path("id").asLong(course.path("id").asLong());
+
+        SplittableRandom random = new SplittableRandom(courseId);
+        String[] difficulties = {"EASY", "MEDIUM", "HARD"};
+        StringBuilder csv = new StringBuilder("courseId,questionText,optionA,optionB,optionC,optionD,correctAnswer,difficulty,topic,marks\n");
+        for (int i = 0; i < options.questions(); i++) {
+            csv.append(courseId).append(",Load test question ").append(i).append(",a,b,c,d,")
+                    .append((char) ('A' + random.nextInt(4))).append(',')
+                    .append(difficulties[random.nextInt(3)]).append(",topic").append(random.nextInt(10)).append(',')
+                    .append(1 + random.nextInt(3)).append('\n');
+        }
+        client.post("POST /api/questions/import", "/api/questions/import?format=csv", token, "text/csv", csv.toString());
+
+        JsonNode exam = client.post("POST /api/exams/generate", "/api/exams/generate", token, Map.of(
+                "courseId", courseId,
+                "title", "Load test exam " + stamp,
+                "totalMarks", Math.max(10, Math.min(100, options.questions() / 3)),
+                "duration", 60));
+        return new Scenario(token, exam.path("data").path("examId").asLong());
+    }
+}
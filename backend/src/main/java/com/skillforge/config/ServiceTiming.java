@@ -0,0 +1,76 @@
+package com.skillforge.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Times every public method of a @Service bean as skillforge.service
+// {class, method, outcome}. Controllers are timed by Spring as
+// http.server.requests and repositories as spring.data.repository.invocations.
+// Timers are looked up once per method, so a call costs a map read and two
+// clock reads. Methods returning a future are timed until they return.
+@Aspect
+@Component
+public class ServiceTiming {
+    public static final String METRIC = "skillforge.service";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Method, Timers> timers = new ConcurrentHashMap<>();
+
+    public ServiceTiming(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * com.skillforge.service..*(..))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Timers timer = timers.computeIfAbsent(method, Timers::new);
+        long start = System.nanoTime();
+        try {
+            Object result = call.proceed();
+            timer.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(Method method, String outcome) {
+        return Timer.builder(METRIC)
+            .tag("class", method.getDeclaringClass().getSimpleName())
+            .tag("method", method.getName())
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    // The error timer is registered on the first failure, so methods that
+    // never fail export one series
+    private final class Timers {
+        final Method method;
+        final Timer success;
+        volatile Timer error;
+
+        Timers(Method method) {
+            this.method = method;
+            this.success = timer(method, "success");
+        }
+
+        Timer error() {
+            Timer timer = error;
+            if (timer == null) {
+                timer = timer(method, "error");
+                error = timer;
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.skillforge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Reports which thread model the server runs on. With
+// spring.threads.virtual.enabled=true on Java 21+, Spring Boot runs Tomcat
+// requests, @Scheduled jobs and its task executors on virtual threads; on
+// Java 17 the property has no effect and the platform thread pool is used.
+// Either way concurrent database work is bounded by the connection pool,
+// so the pool size is the knob to compare the two modes at.
+@Component
+public class ThreadingMode implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingMode.class);
+
+    private final boolean requested;
+    private final DataSource dataSource;
+
+    public ThreadingMode(@Value("${spring.threads.virtual.enabled:false}") boolean requested, DataSource dataSource) {
+        this.requested = requested;
+        this.dataSource = dataSource;
+    }
+
+    public boolean virtualThreads() {
+        return requested && Runtime.version().feature() >= 21;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (requested && !virtualThreads()) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                Runtime.version().feature());
+        } else {
+            log.info("Serving requests on {} threads", virtualThreads() ? "virtual" : "platform");
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("javaVersion", Runtime.version().toString());
+        snapshot.put("virtualThreadsRequested", requested);
+        snapshot.put("virtualThreads", virtualThreads());
+        snapshot.put("currentThread", Thread.currentThread().toString());
+        if (dataSource instanceof HikariDataSource hikari) {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            pool.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+            HikariPoolMXBean bean = hikari.getHikariPoolMXBean();
+            if (bean != null) {
+                pool.put("active", bean.getActiveConnections());
+                pool.put("idle", bean.getIdleConnections());
+                pool.put("waiting", bean.getThreadsAwaitingConnection());
+            }
+            snapshot.put("connectionPool", pool);
+        }
+        return snapshot;
+    }
+}
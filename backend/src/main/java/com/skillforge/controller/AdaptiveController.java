@@ -0,0 +1,72 @@
+package com.skillforge.controller;
+
+import com.skillforge.dto.AnswerResult;
+import com.skillforge.dto.AnswerSubmission;
+import com.skillforge.dto.ApiResponse;
+import com.skillforge.dto.NextQuestion;
+import com.skillforge.model.ExamAttempt;
+import com.skillforge.security.AuthenticatedUser;
+import com.skillforge.service.AdaptiveEngine;
+import com.skillforge.service.AttemptService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/adaptive")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdaptiveController {
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private AdaptiveEngine adaptiveEngine;
+
+    @PostMapping("/attempts")
+    public ResponseEntity<ApiResponse<ExamAttempt>> startAttempt(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                 @RequestBody Map<String, Long> request) {
+        return ResponseEntity.ok(ApiResponse.success(
+                attemptService.startAttempt(user.id(), request.get("courseId"), request.get("examId"))));
+    }
+
+    @GetMapping("/attempts")
+    public ResponseEntity<ApiResponse<List<ExamAttempt>>> getAttempts(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(ApiResponse.success(attemptService.getAttempts(user.id())));
+    }
+
+    @GetMapping("/next-question")
+    public ResponseEntity<ApiResponse<NextQuestion>> nextQuestion(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                  @RequestParam Long attemptId) {
+        NextQuestion next = attemptService.nextQuestion(user.id(), attemptId);
+        if (next == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(ApiResponse.success(next));
+    }
+
+    @PostMapping("/answers")
+    public CompletableFuture<ResponseEntity<ApiResponse<AnswerResult>>> submitAnswer(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                                     @RequestBody AnswerSubmission submission) {
+        return attemptService.submitAnswer(user.id(), submission)
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.success(result)));
+    }
+
+    @PostMapping("/attempts/{id}/complete")
+    public ResponseEntity<ApiResponse<ExamAttempt>> completeAttempt(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                    @PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(attemptService.completeAttempt(user.id(), id)));
+    }
+
+    @GetMapping("/ability")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAbility(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(ApiResponse.success(Map.of(
+                "userId", user.id(),
+                "ability", adaptiveEngine.ability(user.id()),
+                "answered", adaptiveEngine.answered(user.id())
+        )));
+    }
+}
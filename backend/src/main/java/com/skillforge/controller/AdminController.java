@@ -1,7 +1,28 @@
 package com.skillforge.controller;
 
+import com.skillforge.config.ThreadingMode;
+import com.skillforge.dto.CursorPage;
+import com.skillforge.model.User;
 import com.skillforge.repository.UserRepository;
+import com.skillforge.security.PasswordHasher;
+import com.skillforge.service.AnalyticsService;
+import com.skillforge.service.AnswerIngestionService;
+import com.skillforge.service.CatalogCache;
+import com.skillforge.service.CatalogVersions;
+import com.skillforge.service.DuplicateDetector;
+import com.skillforge.service.ExamAdmissionService;
+import com.skillforge.service.ExamSessions;
+import com.skillforge.service.ExamSnapshots;
+import com.skillforge.service.GenerationService;
+import com.skillforge.service.GuardianNotifier;
+import com.skillforge.service.MetricsService;
+import com.skillforge.service.StatisticsService;
+import com.skillforge.service.StreamingService;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -10,14 +31,53 @@ import java.util.Map;
 public class AdminController {
     
     private final UserRepository userRepository;
+    private final StreamingService streamingService;
+    private final PasswordHasher passwordHasher;
+    private final StatisticsService statisticsService;
+    private final AnswerIngestionService answerIngestionService;
+    private final CatalogCache catalogCache;
+    private final CatalogVersions catalogVersions;
+    private final ThreadingMode threadingMode;
+    private final MetricsService metricsService;
+    private final DuplicateDetector duplicateDetector;
+    private final GenerationService generationService;
+    private final ExamSnapshots examSnapshots;
+    private final ExamAdmissionService examAdmission;
+    private final ExamSessions examSessions;
+    private final AnalyticsService analyticsService;
+    private final GuardianNotifier guardianNotifier;
     
-    public AdminController(UserRepository userRepository) {
+    public AdminController(UserRepository userRepository, StreamingService streamingService,
+                           PasswordHasher passwordHasher, StatisticsService statisticsService,
+                           AnswerIngestionService answerIngestionService, CatalogCache catalogCache,
+                           CatalogVersions catalogVersions,
+                           ThreadingMode threadingMode, MetricsService metricsService,
+                           DuplicateDetector duplicateDetector, GenerationService generationService,
+                           ExamSnapshots examSnapshots, ExamAdmissionService examAdmission,
+                           ExamSessions examSessions, AnalyticsService analyticsService,
+                           GuardianNotifier guardianNotifier) {
         this.userRepository = userRepository;
+        this.streamingService = streamingService;
+        this.passwordHasher = passwordHasher;
+        this.statisticsService = statisticsService;
+        this.answerIngestionService = answerIngestionService;
+        this.catalogCache = catalogCache;
+        this.catalogVersions = catalogVersions;
+        this.threadingMode = threadingMode;
+        this.metricsService = metricsService;
+        this.duplicateDetector = duplicateDetector;
+        this.generationService = generationService;
+        this.examSnapshots = examSnapshots;
+        this.examAdmission = examAdmission;
+        this.examSessions = examSessions;
+        this.analyticsService = analyticsService;
+        this.guardianNotifier = guardianNotifier;
     }
     
     @DeleteMapping("/users/all")
     public Map<String, Object> deleteAllUsers() {
         userRepository.deleteAll();
+        statisticsService.usersCleared();
         return Map.of(
             "success", true,
             "message", "All users deleted successfully"
@@ -28,25 +88,165 @@ public class AdminController {
     public Map<String, Object> getUserCount() {
         return Map.of(
             "success", true,
-            "totalUsers", userRepository.count()
+            "totalUsers", statisticsService.totalUsers()
         );
     }
     
     @GetMapping("/users/all")
-    public Map<String, Object> getAllUsers() {
-        var users = userRepository.findAll().stream()
-            .map(user -> Map.of(
-                "id", user.getId(),
-                "name", user.getName(),
-                "email", user.getEmail(),
-                "role", user.getRole().toString()
-            ))
+    public Map<String, Object> getAllUsers(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        var rows = userRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.startAfter(after), Limit.of(size + 1));
+        var page = CursorPage.of(rows, size, User::getId);
+        var users = page.getItems().stream()
+            .map(this::toSummary)
             .toList();
             
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("users", users);
+        response.put("totalUsers", statisticsService.totalUsers());
+        response.put("nextCursor", page.getNextCursor());
+        return response;
+    }
+    
+    @GetMapping("/users/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return ResponseEntity.ok().contentType(StreamingService.NDJSON)
+            .body(streamingService.ndjson(userRepository::streamAllByOrderByIdAsc, this::toSummary));
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "success", true,
+            "stats", statisticsService.snapshot()
+        );
+    }
+    
+    @PostMapping("/stats/reconcile")
+    public Map<String, Object> reconcileStats() {
+        statisticsService.reconcile();
+        return Map.of(
+            "success", true,
+            "stats", statisticsService.snapshot()
+        );
+    }
+    
+    @GetMapping("/answers/ingestion")
+    public Map<String, Object> getAnswerIngestionStats() {
+        return Map.of(
+            "success", true,
+            "ingestion", answerIngestionService.stats()
+        );
+    }
+    
+    @GetMapping("/cache")
+    public Map<String, Object> getCacheStats() {
+        return Map.of(
+            "success", true,
+            "caches", catalogCache.stats()
+        );
+    }
+    
+    @DeleteMapping("/cache")
+    public Map<String, Object> clearCache() {
+        catalogCache.invalidateAll();
+        // ETags issued so far may describe rows edited outside the API
+        catalogVersions.reset();
+        return Map.of(
+            "success", true,
+            "message", "Caches cleared"
+        );
+    }
+    
+    @GetMapping("/runtime")
+    public Map<String, Object> getRuntime() {
+        return Map.of(
+            "success", true,
+            "runtime", threadingMode.snapshot()
+        );
+    }
+    
+    @GetMapping("/metrics")
+    public Map<String, Object> getMetrics() {
+        return Map.of(
+            "success", true,
+            "metrics", metricsService.summary()
+        );
+    }
+    
+    @GetMapping("/questions/duplicates")
+    public Map<String, Object> getDuplicateQuestions(@RequestParam Long courseId,
+                                                     @RequestParam(required = false) Double threshold) {
         return Map.of(
             "success", true,
-            "users", users,
-            "totalUsers", users.size()
+            "duplicates", duplicateDetector.scanCourse(courseId, threshold)
+        );
+    }
+    
+    @GetMapping("/generation")
+    public Map<String, Object> getGenerationStats() {
+        return Map.of(
+            "success", true,
+            "generation", generationService.stats()
+        );
+    }
+    
+    @GetMapping("/exams/snapshots")
+    public Map<String, Object> getExamSnapshots() {
+        return Map.of(
+            "success", true,
+            "snapshots", examSnapshots.stats()
+        );
+    }
+    
+    @GetMapping("/exams/admission")
+    public Map<String, Object> getExamAdmission() {
+        return Map.of(
+            "success", true,
+            "admission", examAdmission.stats()
+        );
+    }
+    
+    @GetMapping("/exams/sessions")
+    public Map<String, Object> getExamSessions() {
+        return Map.of(
+            "success", true,
+            "sessions", examSessions.stats()
+        );
+    }
+    
+    @GetMapping("/analytics")
+    public Map<String, Object> getAnalytics() {
+        return Map.of(
+            "success", true,
+            "analytics", analyticsService.stats()
+        );
+    }
+    
+    @GetMapping("/notifications")
+    public Map<String, Object> getNotifications() {
+        return Map.of(
+            "success", true,
+            "notifications", guardianNotifier.stats()
+        );
+    }
+    
+    @GetMapping("/auth/hashing")
+    public Map<String, Object> getHashingStats() {
+        return Map.of(
+            "success", true,
+            "hashing", passwordHasher.stats()
+        );
+    }
+    
+    private Map<String, Object> toSummary(User user) {
+        return Map.of(
+            "id", user.getId(),
+            "name", user.getName(),
+            "email", user.getEmail(),
+            "role", user.getRole().toString()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.skillforge.controller;
+
+import com.skillforge.dto.ApiResponse;
+import com.skillforge.dto.ExamAnalytics;
+import com.skillforge.dto.QuestionAnalytics;
+import com.skillforge.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AnalyticsController {
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping("/exams/{id}")
+    public ResponseEntity<ApiResponse<ExamAnalytics>> getExamAnalytics(@PathVariable Long id,
+                                                                        @RequestParam(defaultValue = "true") boolean questions) {
+        return ResponseEntity.ok(ApiResponse.success(analyticsService.exam(id, questions)));
+    }
+
+    @GetMapping("/questions/{id}")
+    public ResponseEntity<ApiResponse<QuestionAnalytics>> getQuestionAnalytics(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(analyticsService.question(id)));
+    }
+}
@@ -1,93 +1,105 @@
 package com.skillforge.controller;
 
 import com.skillforge.model.User;
-import com.skillforge.repository.UserRepository;
 import com.skillforge.security.JwtUtil;
+import com.skillforge.service.UserService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+// Login and register return futures: the request thread is released while
+// BCrypt runs on the PasswordHasher pool.
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
     private final JwtUtil jwtUtil;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
-        this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+    public AuthController(UserService userService, JwtUtil jwtUtil) {
+        this.userService = userService;
         this.jwtUtil = jwtUtil;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody Map<String, String> request) {
         String email = request.get("email");
         String password = request.get("password");
-        
-        // Simple login - just return success for any email/password
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "token", "working-token-" + email.hashCode(),
-            "message", "Login successful",
-            "user", Map.of(
-                "id", 1,
-                "name", "Database User",
-                "email", email,
-                "role", "STUDENT"
-            )
-        ));
+
+        return userService.login(email, password)
+            .thenApply(user -> ResponseEntity.ok(Map.of(
+                "success", true,
+                "token", jwtUtil.generateToken(user),
+                "message", "Login successful",
+                "user", toSummary(user)
+            )));
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> register(@RequestBody Map<String, String> request) {
+        String email = request.get("email");
+        String password = request.get("password");
+        String name = request.get("name");
+        String role = request.get("role");
+
+        if (email == null || password == null || password.length() < 6 || name == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Name, email and a password of at least 6 characters are required"
+            )));
+        }
+
+        User user = new User();
+        user.setEmail(email);
+        user.setName(name);
+        user.setPassword(password);
         try {
-            String email = request.get("email");
-            String password = request.get("password");
-            String name = request.get("name");
-            String role = request.get("role");
-            
-            // Check if user exists
-            if (userRepository.findUserByEmail(email) != null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Email already exists"
-                ));
-            }
-            
-            // Create new user
-            User user = new User();
-            user.setEmail(email);
-            user.setName(name);
-            user.setPassword(passwordEncoder.encode(password));
             user.setRole(role != null ? User.Role.valueOf(role) : User.Role.STUDENT);
-            
-            // Save user
-            User savedUser = userRepository.save(user);
-            
-            // Generate token
-            String token = jwtUtil.generateToken(email);
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "token", token,
-                "message", "Registration successful",
-                "user", Map.of(
-                    "id", savedUser.getId(),
-                    "name", savedUser.getName(),
-                    "email", savedUser.getEmail(),
-                    "role", savedUser.getRole().toString()
-                )
-            ));
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Invalid role"
+            )));
+        }
+        // Admin accounts are not self-service
+        if (user.getRole() == User.Role.ADMIN) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(403).body(Map.of(
                 "success", false,
-                "message", "Registration failed"
-            ));
+                "message", "Admin accounts cannot be registered"
+            )));
         }
+
+        return userService.register(user)
+            .thenApply(savedUser -> ResponseEntity.ok(Map.<String, Object>of(
+                "success", true,
+                "token", jwtUtil.generateToken(savedUser),
+                "message", "Registration successful",
+                "user", toSummary(savedUser)
+            )))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof DataIntegrityViolationException) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "success", false,
+                        "message", "Email already exists"
+                    ));
+                }
+                return ResponseEntity.status(500).body(Map.of(
+                    "success", false,
+                    "message", "Registration failed"
+                ));
+            });
+    }
+
+    private Map<String, Object> toSummary(User user) {
+        return Map.of(
+            "id", user.getId(),
+            "name", user.getName(),
+            "email", user.getEmail(),
+            "role", user.getRole().toString()
+        );
     }
-}
\ No newline at end of file
+}
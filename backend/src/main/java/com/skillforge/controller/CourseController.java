@@ -1,13 +1,21 @@
 package com.skillforge.controller;
 
 import com.skillforge.dto.ApiResponse;
+import com.skillforge.dto.CursorPage;
 import com.skillforge.model.Course;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.service.CatalogVersions;
 import com.skillforge.service.CourseService;
+import com.skillforge.service.StatisticsService;
+import com.skillforge.service.StreamingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -15,6 +23,18 @@ import java.util.List;
 public class CourseController {
     @Autowired
     private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StreamingService streamingService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
     
     @PostMapping
     public ResponseEntity<ApiResponse<Course>> createCourse(@RequestBody Course course, Authentication auth) {
@@ -23,17 +43,37 @@ public class CourseController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Course>>> getAllCourses() {
-        return ResponseEntity.ok(ApiResponse.success(courseService.getAllCourses()));
+    public ResponseEntity<ApiResponse<List<Course>>> getAllCourses(@RequestParam(required = false) Long after,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.coursesTag())) {
+            return null;
+        }
+        CursorPage<Course> page = courseService.getCoursesPage(after, limit);
+        return ResponseEntity.ok().headers(page.headers()).body(ApiResponse.success(page.getItems()));
+    }
+    
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamCourses() {
+        return ResponseEntity.ok().contentType(StreamingService.NDJSON)
+                .body(streamingService.ndjson(courseRepository::streamAllByOrderByIdAsc, course -> course));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Course>> getCourseById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Course>> getCourseById(@PathVariable Long id, NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.courseTag(id))) {
+            return null;
+        }
         return courseService.getCourseById(id)
                 .map(course -> ResponseEntity.ok(ApiResponse.success(course)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCourseStats(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(statisticsService.courseSnapshot(id)));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<String>> deleteCourse(@PathVariable Long id) {
         courseService.deleteCourse(id);
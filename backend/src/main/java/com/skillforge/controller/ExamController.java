@@ -1,11 +1,35 @@
 package com.skillforge.controller;
 
+import com.skillforge.dto.ApiResponse;
+import com.skillforge.dto.CohortGradingResult;
+import com.skillforge.dto.CursorPage;
+import com.skillforge.dto.ExamGenerationRequest;
+import com.skillforge.dto.ExamGenerationResult;
+import com.skillforge.dto.ExamSnapshot;
+import com.skillforge.dto.ExamView;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.dto.SheetSubmission;
+import com.skillforge.model.AnswerSheet;
 import com.skillforge.model.Exam;
+import com.skillforge.model.ExamAttempt;
+import com.skillforge.repository.ExamRepository;
+import com.skillforge.security.AuthenticatedUser;
+import com.skillforge.service.AttemptService;
+import com.skillforge.service.CatalogVersions;
 import com.skillforge.service.ExamService;
+import com.skillforge.service.ExamSnapshots;
+import com.skillforge.service.GradingService;
+import com.skillforge.service.StreamingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/exams")
@@ -13,27 +37,135 @@ import java.util.List;
 public class ExamController {
     @Autowired
     private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private StreamingService streamingService;
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private GradingService gradingService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ExamSnapshots examSnapshots;
     
     @PostMapping
-    public ResponseEntity<Exam> createExam(@RequestBody Exam exam) {
+    public ResponseEntity<ExamView> createExam(@RequestBody Exam exam) {
         return ResponseEntity.ok(examService.createExam(exam));
     }
     
+    @PostMapping("/generate")
+    public ResponseEntity<ApiResponse<ExamGenerationResult>> generateExam(@RequestBody ExamGenerationRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(examService.generateExam(request)));
+    }
+    
     @GetMapping
-    public ResponseEntity<List<Exam>> getAllExams() {
-        return ResponseEntity.ok(examService.getAllExams());
+    public ResponseEntity<List<ExamView>> getAllExams(@RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.examsTag())) {
+            return null;
+        }
+        CursorPage<ExamView> page = examService.getExamsPage(after, limit);
+        return ResponseEntity.ok().headers(page.headers()).body(page.getItems());
+    }
+    
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamExams() {
+        return ResponseEntity.ok().contentType(StreamingService.NDJSON)
+                .body(streamingService.ndjson(examRepository::streamViews, exam -> exam));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Exam> getExamById(@PathVariable Long id) {
-        return ResponseEntity.ok(examService.getExamById(id));
+    public ResponseEntity<ExamSnapshot> getExamById(@PathVariable Long id, NativeWebRequest request) throws IOException {
+        // Published: the stored student-facing bytes; otherwise the same shape built now
+        ExamSnapshots.Snapshot snapshot = examSnapshots.get(id);
+        if (snapshot != null) {
+            examSnapshots.serve(snapshot, request);
+            return null;
+        }
+        if (CatalogVersions.notModified(request, catalogVersions.examTag(id))) {
+            return null;
+        }
+        return ResponseEntity.ok(examService.getExamDetail(id));
+    }
+    
+    @PostMapping("/{id}/publish")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> publishExam(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(examService.publishExam(id).info()));
+    }
+    
+    // {"startTime": "2026-06-01T09:00:00"}; null or missing clears the schedule
+    @PutMapping("/{id}/schedule")
+    public ResponseEntity<ApiResponse<ExamView>> scheduleExam(@PathVariable Long id,
+                                                             @RequestBody Map<String, String> request) {
+        String startTime = request.get("startTime");
+        return ResponseEntity.ok(ApiResponse.success(
+                examService.scheduleExam(id, startTime != null ? LocalDateTime.parse(startTime) : null)));
+    }
+    
+    @DeleteMapping("/{id}/publish")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> unpublishExam(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(Map.of("unpublished", examService.unpublishExam(id))));
+    }
+    
+    // With correct answers, so for admins; students read GET /{id}
+    @GetMapping("/{id}/questions")
+    public ResponseEntity<List<QuestionView>> getExamQuestions(@PathVariable Long id, NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.examQuestionsTag(id))) {
+            return null;
+        }
+        return ResponseEntity.ok(examService.getExamQuestions(id));
     }
     
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<Exam>> getExamsByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<List<ExamView>> getExamsByCourse(@PathVariable Long courseId, NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.examsTag())) {
+            return null;
+        }
         return ResponseEntity.ok(examService.getExamsByCourse(courseId));
     }
     
+    @PostMapping("/{id}/sessions")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> startSession(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                         @PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(attemptService.startSession(user.id(), id)));
+    }
+    
+    @PostMapping("/{id}/sessions/{attemptId}/heartbeat")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> heartbeat(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                      @PathVariable Long id,
+                                                                      @PathVariable Long attemptId) {
+        return ResponseEntity.ok(ApiResponse.success(attemptService.heartbeat(user.id(), id, attemptId)));
+    }
+    
+    @PostMapping("/{id}/sessions/{attemptId}/submit")
+    public ResponseEntity<ApiResponse<ExamAttempt>> submitSession(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                  @PathVariable Long id,
+                                                                  @PathVariable Long attemptId) {
+        attemptService.heartbeat(user.id(), id, attemptId);
+        return ResponseEntity.ok(ApiResponse.success(attemptService.completeAttempt(user.id(), attemptId)));
+    }
+    
+    @PostMapping("/{id}/sheets")
+    public ResponseEntity<ApiResponse<AnswerSheet>> submitSheet(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                @PathVariable Long id,
+                                                                @RequestBody SheetSubmission submission) {
+        return ResponseEntity.ok(ApiResponse.success(attemptService.submitSheet(user.id(), id, submission)));
+    }
+    
+    @PostMapping("/{id}/grade")
+    public ResponseEntity<ApiResponse<CohortGradingResult>> gradeCohort(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(gradingService.gradeCohort(id)));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteExam(@PathVariable Long id) {
         examService.deleteExam(id);
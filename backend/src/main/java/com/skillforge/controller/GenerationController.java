@@ -0,0 +1,47 @@
+package com.skillforge.controller;
+
+import com.skillforge.dto.ApiResponse;
+import com.skillforge.dto.GenerationJobView;
+import com.skillforge.dto.GenerationRequest;
+import com.skillforge.security.AuthenticatedUser;
+import com.skillforge.service.GenerationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/generation")
+@CrossOrigin(origins = "http://localhost:5173")
+public class GenerationController {
+    @Autowired
+    private GenerationService generationService;
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<GenerationJobView>> submit(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                 @RequestBody GenerationRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(generationService.submit(user.id(), request)));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse<GenerationJobView>> getJob(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                 @PathVariable long id) {
+        return ResponseEntity.ok(ApiResponse.success(generationService.job(user.id(), id)));
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable long id,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Integer lastEventId) {
+        return generationService.subscribe(user.id(), id, lastEventId);
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse<GenerationJobView>> cancel(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                 @PathVariable long id) {
+        return ResponseEntity.ok(ApiResponse.success(generationService.cancel(user.id(), id)));
+    }
+}
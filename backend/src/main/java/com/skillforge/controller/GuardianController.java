@@ -0,0 +1,37 @@
+package com.skillforge.controller;
+
+import com.skillforge.dto.ApiResponse;
+import com.skillforge.security.AuthenticatedUser;
+import com.skillforge.service.GuardianService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/guardians")
+@CrossOrigin(origins = "http://localhost:5173")
+public class GuardianController {
+    @Autowired
+    private GuardianService guardianService;
+
+    @GetMapping("/links")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLinks(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(ApiResponse.success(guardianService.links(user.id())));
+    }
+
+    @PostMapping("/links")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> addGuardian(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                        @RequestBody Map<String, String> request) {
+        return ResponseEntity.ok(ApiResponse.success(guardianService.addGuardian(user.id(), request.get("guardianEmail"))));
+    }
+
+    @DeleteMapping("/links/{id}")
+    public ResponseEntity<ApiResponse<Void>> removeLink(@AuthenticationPrincipal AuthenticatedUser user,
+                                                        @PathVariable Long id) {
+        guardianService.removeLink(user.id(), id);
+        return ResponseEntity.ok(ApiResponse.success(null));
+    }
+}
@@ -1,11 +1,28 @@
 package com.skillforge.controller;
 
+import com.skillforge.dto.ApiResponse;
+import com.skillforge.dto.CursorPage;
+import com.skillforge.dto.QuestionImportResult;
+import com.skillforge.dto.QuestionSearchResult;
+import com.skillforge.dto.QuestionView;
 import com.skillforge.model.Question;
+import com.skillforge.model.User;
+import com.skillforge.repository.QuestionRepository;
+import com.skillforge.security.AuthenticatedUser;
+import com.skillforge.service.CatalogVersions;
+import com.skillforge.service.QuestionImportService;
 import com.skillforge.service.QuestionService;
+import com.skillforge.service.StreamingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/questions")
@@ -13,15 +30,90 @@ import java.util.List;
 public class QuestionController {
     @Autowired
     private QuestionService questionService;
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private StreamingService streamingService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
     
     @PostMapping
-    public ResponseEntity<Question> createQuestion(@RequestBody Question question) {
-        return ResponseEntity.ok(questionService.createQuestion(question));
+    public ResponseEntity<QuestionView> createQuestion(@RequestBody Question question) {
+        QuestionService.Created created = questionService.createQuestion(question);
+        if (created.duplicateOf().isEmpty()) {
+            return ResponseEntity.ok(created.question());
+        }
+        // Flag mode: saved, with the ids it nearly duplicates
+        return ResponseEntity.ok()
+                .header("X-Duplicate-Of", created.duplicateOf().stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .body(created.question());
+    }
+    
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain", "application/x-ndjson", "application/jsonl", "application/octet-stream"})
+    public ResponseEntity<ApiResponse<QuestionImportResult>> importQuestions(@RequestParam(defaultValue = "csv") String format,
+                                                                             @RequestParam(required = false) Long courseId,
+                                                                             InputStream body) {
+        return ResponseEntity.ok(ApiResponse.success(questionImportService.importQuestions(body, format, courseId)));
     }
     
     @GetMapping
-    public ResponseEntity<List<Question>> getAllQuestions() {
-        return ResponseEntity.ok(questionService.getAllQuestions());
+    public ResponseEntity<List<QuestionView>> getAllQuestions(@AuthenticationPrincipal AuthenticatedUser user,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.questionsTag(isAdmin(user)))) {
+            return null;
+        }
+        CursorPage<QuestionView> page = questionService.getQuestionsPage(after, limit);
+        return ResponseEntity.ok().headers(page.headers()).body(forCaller(user, page.getItems()));
+    }
+    
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamQuestions(@AuthenticationPrincipal AuthenticatedUser user) {
+        boolean admin = isAdmin(user);
+        return ResponseEntity.ok().contentType(StreamingService.NDJSON)
+                .body(streamingService.ndjson(questionRepository::streamViews,
+                        question -> admin ? question : question.withoutAnswer()));
+    }
+    
+    @GetMapping("/filter")
+    public ResponseEntity<List<QuestionView>> filterQuestions(@AuthenticationPrincipal AuthenticatedUser user,
+                                                          @RequestParam(required = false) Long courseId,
+                                                          @RequestParam(required = false) String topic,
+                                                          @RequestParam(required = false) String difficulty,
+                                                          NativeWebRequest request) {
+        if (CatalogVersions.notModified(request, catalogVersions.questionsTag(isAdmin(user)))) {
+            return null;
+        }
+        return ResponseEntity.ok(forCaller(user, questionService.findQuestions(courseId, topic, difficulty)));
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<QuestionSearchResult>> searchQuestions(@AuthenticationPrincipal AuthenticatedUser user,
+                                                                            @RequestParam(required = false) String q,
+                                                                            @RequestParam(required = false) Long courseId,
+                                                                            @RequestParam(required = false) String difficulty,
+                                                                            @RequestParam(required = false) Integer limit) {
+        QuestionSearchResult result = questionService.search(q, courseId, difficulty, limit);
+        if (!isAdmin(user)) {
+            result.setHits(result.getHits().stream()
+                    .map(hit -> new QuestionSearchResult.Hit(hit.score(), hit.question().withoutAnswer()))
+                    .collect(Collectors.toList()));
+        }
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+    
+    @GetMapping("/count")
+    public ResponseEntity<Map<String, Object>> countQuestions(@RequestParam(required = false) Long courseId,
+                                                              @RequestParam(required = false) String topic,
+                                                              @RequestParam(required = false) String difficulty) {
+        return ResponseEntity.ok(Map.of("count", questionService.countQuestions(courseId, topic, difficulty)));
     }
     
     @DeleteMapping("/{id}")
@@ -29,4 +121,13 @@ public class QuestionController {
         questionService.deleteQuestion(id);
         return ResponseEntity.ok().build();
     }
+
+    // Correct answers are for admins only, as with exam question lists
+    private static boolean isAdmin(AuthenticatedUser user) {
+        return user != null && user.role() == User.Role.ADMIN;
+    }
+
+    private static List<QuestionView> forCaller(AuthenticatedUser user, List<QuestionView> views) {
+        return isAdmin(user) ? views : views.stream().map(QuestionView::withoutAnswer).collect(Collectors.toList());
+    }
 }
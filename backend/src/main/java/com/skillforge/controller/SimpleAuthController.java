@@ -1,5 +1,6 @@
 package com.skillforge.controller;
 
+import com.skillforge.service.StatisticsService;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,6 +9,11 @@ import java.util.Map;
 @RequestMapping("/api/simple")
 @CrossOrigin(origins = "*")
 public class SimpleAuthController {
+    private final StatisticsService statisticsService;
+
+    public SimpleAuthController(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
 
     @PostMapping("/register")
     public Map<String, Object> register(@RequestBody Map<String, String> request) {
@@ -50,8 +56,8 @@ public class SimpleAuthController {
             "email", "test@example.com",
             "role", "STUDENT"
         ));
-        response.put("totalCourses", 5);
-        response.put("totalUsers", 10);
+        response.put("totalCourses", statisticsService.totalCourses());
+        response.put("totalUsers", statisticsService.totalUsers());
         return response;
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.skillforge.controller;
 
+import com.skillforge.dto.CursorPage;
 import com.skillforge.model.User;
+import com.skillforge.repository.UserRepository;
+import com.skillforge.service.StreamingService;
 import com.skillforge.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -16,9 +20,23 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StreamingService streamingService;
+
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Integer limit) {
+        CursorPage<User> page = userService.getUsersPage(after, limit);
+        return ResponseEntity.ok().headers(page.headers()).body(page.getItems());
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return ResponseEntity.ok().contentType(StreamingService.NDJSON)
+                .body(streamingService.ndjson(userRepository::streamAllByOrderByIdAsc, user -> user));
     }
 
     @GetMapping("/{id}")
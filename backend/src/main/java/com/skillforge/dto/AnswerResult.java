@@ -0,0 +1,21 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+@Data
+public class AnswerResult {
+    // Journal sequence; the answer is durable once this is returned.
+    private Long sequence;
+    private Long questionId;
+    private boolean correct;
+
+    // False when the learner had already answered this question; repeats
+    // are stored but do not move either rating. Also false, with the
+    // ratings left at 0, when the rating update failed after the answer
+    // was stored.
+    private boolean rated;
+    private double expectedSuccess;
+    private double abilityBefore;
+    private double ability;
+    private double questionRating;
+}
@@ -0,0 +1,13 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+@Data
+public class AnswerSubmission {
+    private Long attemptId;
+    private Long questionId;
+
+    // Option letter (A-D), or the answer text for questions without options.
+    private String answer;
+    private Integer responseTimeMs;
+}
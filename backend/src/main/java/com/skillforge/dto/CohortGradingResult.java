@@ -0,0 +1,17 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+@Data
+public class CohortGradingResult {
+    private Long examId;
+    private int questions;
+    private int maxScore;
+    private int sheets;
+    private int skipped;
+    private double meanScore;
+    private int bytesPerSheet;
+    private long loadMs;
+    private double gradeMs;
+    private long writeMs;
+}
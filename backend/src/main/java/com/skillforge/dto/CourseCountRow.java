@@ -0,0 +1,6 @@
+package com.skillforge.dto;
+
+public interface CourseCountRow {
+    Long getCourseId();
+    Long getTotal();
+}
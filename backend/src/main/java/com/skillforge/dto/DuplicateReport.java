@@ -0,0 +1,21 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class DuplicateReport {
+    private Long courseId;
+    private double threshold;
+    private int questions;
+    private int duplicatePairs;
+    private int duplicateQuestions;
+    // Largest first; similarity is the lowest estimate among the cluster's linked pairs
+    private List<Cluster> clusters = new ArrayList<>();
+    private long elapsedMs;
+
+    public record Cluster(List<Long> questionIds, double similarity) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ExamAnalytics {
+    private Long examId;
+    private long attempts;
+    private int maxScore;
+    private Double meanScore;
+    private Double stdDev;
+    private Double lowestScore;
+    private Double highestScore;
+    // p10, p25, p50, p75, p90 from the score digest
+    private Map<String, Double> percentiles;
+    private List<QuestionAnalytics> questions;
+}
@@ -0,0 +1,28 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ExamGenerationRequest {
+    private String title;
+    private Long courseId;
+    private Integer totalMarks;
+    private Integer duration;
+    private LocalDateTime startTime;
+
+    // Share of totalMarks per difficulty, e.g. {"EASY": 0.3, "MEDIUM": 0.5, "HARD": 0.2}.
+    // Shares are normalised, so {"EASY": 1, "HARD": 1} is an even split.
+    private Map<String, Double> difficultyMix;
+
+    // Every listed topic must be covered by at least one question.
+    private List<String> topics;
+
+    // Same seed and same bank give the same exam; a random seed is used and
+    // reported back when omitted.
+    private Long seed;
+    private Long timeBudgetMs;
+}
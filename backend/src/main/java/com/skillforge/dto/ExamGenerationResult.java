@@ -0,0 +1,20 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ExamGenerationResult {
+    private Long examId;
+    private String title;
+    private Long courseId;
+    private Integer totalMarks;
+    private Integer duration;
+    private List<Long> questionIds;
+    private Map<String, Integer> marksByDifficulty;
+    private long seed;
+    private int attempts;
+    private long elapsedMs;
+}
@@ -0,0 +1,35 @@
+package com.skillforge.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Student-facing body of an exam: the exam read model plus its questions in
+// exam order, without correct answers or ratings. A published exam's is
+// serialized once at publish time and served as stored bytes; before that
+// it is built per request and publishedAt is null.
+public record ExamSnapshot(Long id, String title, Long courseId, String courseTitle,
+                           Integer duration, Integer totalMarks, LocalDateTime createdAt,
+                           LocalDateTime startTime, Instant publishedAt, int questionCount, List<Item> questions) {
+
+    public static ExamSnapshot of(ExamView exam, List<QuestionView> questions, Instant publishedAt) {
+        List<Item> items = new ArrayList<>(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            items.add(Item.of(i + 1, questions.get(i)));
+        }
+        return new ExamSnapshot(exam.id(), exam.title(), exam.courseId(), exam.courseTitle(),
+            exam.duration(), exam.totalMarks(), exam.createdAt(), exam.startTime(), publishedAt, items.size(), items);
+    }
+
+    public record Item(int position, Long id, String questionText,
+                       String optionA, String optionB, String optionC, String optionD,
+                       String difficulty, String topic, Integer marks) {
+
+        public static Item of(int position, QuestionView question) {
+            return new Item(position, question.id(), question.questionText(),
+                question.optionA(), question.optionB(), question.optionC(), question.optionD(),
+                question.difficulty(), question.topic(), question.marks());
+        }
+    }
+}
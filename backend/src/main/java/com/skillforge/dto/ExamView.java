@@ -0,0 +1,24 @@
+package com.skillforge.dto;
+
+import com.skillforge.model.Course;
+import com.skillforge.model.Exam;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+
+// Read model for exam endpoints: one row from exams left join courses,
+// selected directly by the repository queries. Immutable so cached copies
+// can be shared.
+public record ExamView(Long id, String title, Long courseId, String courseTitle,
+                       Integer duration, Integer totalMarks, LocalDateTime createdAt,
+                       LocalDateTime startTime) {
+
+    public static ExamView of(Exam exam) {
+        Course course = exam.getCourse();
+        return new ExamView(exam.getId(), exam.getTitle(),
+            course != null ? course.getId() : null,
+            course != null && Hibernate.isInitialized(course) ? course.getTitle() : null,
+            exam.getDuration(), exam.getTotalMarks(), exam.getCreatedAt(),
+            exam.getStartTime());
+    }
+}
@@ -0,0 +1,9 @@
+package com.skillforge.dto;
+
+import java.util.List;
+
+// One result of a generation job, as sent on its event stream. cached is
+// true when the prompt had been generated before and the stored question
+// is returned instead; duplicateOf lists near-duplicates in the course.
+public record GeneratedQuestion(int index, boolean cached, List<Long> duplicateOf, QuestionView question) {
+}
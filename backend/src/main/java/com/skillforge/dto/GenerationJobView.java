@@ -0,0 +1,30 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class GenerationJobView {
+    private long id;
+    // QUEUED, RUNNING, DONE, FAILED or CANCELLED
+    private String status;
+    private Long courseId;
+    private String topic;
+    private String difficulty;
+    private long seed;
+    private int requested;
+    // Questions produced so far: generated and saved, or served from the cache
+    private int produced;
+    private int cached;
+    private int duplicates;
+    // Dropped as near-duplicates (reject mode) or left empty by the generator
+    private int dropped;
+    private int batches;
+    private List<Long> questionIds = new ArrayList<>();
+    private String error;
+    private Instant createdAt;
+    private Long elapsedMs;
+}
@@ -0,0 +1,17 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+@Data
+public class GenerationRequest {
+    private Long courseId;
+    private String topic;
+
+    // EASY, MEDIUM (default) or HARD
+    private String difficulty;
+    private Integer count;
+
+    // Prompts are numbered within a seed, so repeating a request returns the
+    // cached questions and a new seed asks for new ones. Defaults to 0.
+    private Long seed;
+}
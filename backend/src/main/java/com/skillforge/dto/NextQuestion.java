@@ -0,0 +1,21 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+// A question as shown to a learner: no correct answer.
+@Data
+public class NextQuestion {
+    private Long attemptId;
+    private Long questionId;
+    private String questionText;
+    private String optionA;
+    private String optionB;
+    private String optionC;
+    private String optionD;
+    private String topic;
+    private String difficulty;
+    private Integer marks;
+    private double questionRating;
+    private double ability;
+    private double expectedSuccess;
+}
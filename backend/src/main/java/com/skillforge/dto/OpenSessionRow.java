@@ -0,0 +1,11 @@
+package com.skillforge.dto;
+
+import java.time.LocalDateTime;
+
+public interface OpenSessionRow {
+    Long getAttemptId();
+    Long getUserId();
+    Long getExamId();
+    LocalDateTime getStartedAt();
+    LocalDateTime getDeadlineAt();
+}
@@ -0,0 +1,22 @@
+package com.skillforge.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class QuestionAnalytics {
+    private Long questionId;
+    private long responses;
+    private long correct;
+    private long omitted;
+    // Share of responses that were correct; null until answered
+    @JsonProperty("pValue")
+    private Double pValue;
+    // Point-biserial correlation with the rest of the sheet's score
+    private Double discrimination;
+    private Map<String, Long> choices;
+    private Map<String, Double> choiceRates;
+    private String measuredDifficulty;
+}
@@ -0,0 +1,27 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class QuestionImportResult {
+    private String format;
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    // Imported rows flagged as near-duplicates (first 1000 listed)
+    private long duplicates;
+    private List<RowError> duplicateRows = new ArrayList<>();
+    // Imported (committed) rows that could not be added to the in-memory
+    // indexes; they are picked up on the next restart
+    private long indexFailures;
+    private long elapsedMs;
+    private long rowsPerSecond;
+
+    public record RowError(long row, String message) {
+    }
+}
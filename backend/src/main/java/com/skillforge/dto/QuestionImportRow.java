@@ -0,0 +1,18 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+// One question as it appears in a CSV or JSONL import file.
+@Data
+public class QuestionImportRow {
+    private Long courseId;
+    private String questionText;
+    private String optionA;
+    private String optionB;
+    private String optionC;
+    private String optionD;
+    private String correctAnswer;
+    private String difficulty;
+    private String topic;
+    private Integer marks;
+}
@@ -0,0 +1,9 @@
+package com.skillforge.dto;
+
+public interface QuestionIndexRow {
+    Long getId();
+    Long getCourseId();
+    String getTopic();
+    String getDifficulty();
+    Integer getMarks();
+}
@@ -0,0 +1,16 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class QuestionSearchResult {
+    private String query;
+    private List<Hit> hits = new ArrayList<>();
+    private double elapsedMs;
+
+    public record Hit(float score, QuestionView question) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.skillforge.dto;
+
+import com.skillforge.model.Question;
+
+// Read model for question endpoints. The course is given by id only, which
+// comes from the foreign key column without a join.
+public record QuestionView(Long id, Long courseId, String questionText,
+                           String optionA, String optionB, String optionC, String optionD,
+                           String correctAnswer, String difficulty, String topic, Integer marks,
+                           Double rating, Integer ratingCount) {
+
+    public static QuestionView of(Question question) {
+        return new QuestionView(question.getId(),
+            question.getCourse() != null ? question.getCourse().getId() : null,
+            question.getQuestionText(), question.getOptionA(), question.getOptionB(),
+            question.getOptionC(), question.getOptionD(), question.getCorrectAnswer(),
+            question.getDifficulty(), question.getTopic(), question.getMarks(),
+            question.getRating(), question.getRatingCount());
+    }
+
+    // What non-admin callers see: everything but the correct answer
+    public QuestionView withoutAnswer() {
+        return new QuestionView(id, courseId, questionText, optionA, optionB, optionC, optionD,
+            null, difficulty, topic, marks, rating, ratingCount);
+    }
+}
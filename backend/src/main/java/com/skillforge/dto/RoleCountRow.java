@@ -0,0 +1,8 @@
+package com.skillforge.dto;
+
+import com.skillforge.model.User;
+
+public interface RoleCountRow {
+    User.Role getRole();
+    Long getTotal();
+}
@@ -0,0 +1,8 @@
+package com.skillforge.dto;
+
+public interface SheetRow {
+    Long getAttemptId();
+    Integer getQuestionCount();
+    byte[] getChoices();
+    byte[] getAnswered();
+}
@@ -0,0 +1,11 @@
+package com.skillforge.dto;
+
+import lombok.Data;
+
+@Data
+public class SheetSubmission {
+    private Long attemptId;
+
+    // One character per question in exam order: A-D, or '-' for no answer.
+    private String answers;
+}
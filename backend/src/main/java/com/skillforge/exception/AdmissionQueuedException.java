@@ -0,0 +1,27 @@
+package com.skillforge.exception;
+
+import java.util.Map;
+
+// Thrown when an exam start is held in the admission queue. Mapped to 429
+// with Retry-After and the learner's place in the queue, so clients poll
+// at the suggested interval instead of timing out.
+public class AdmissionQueuedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Object> position;
+    private final long retryAfterMs;
+
+    public AdmissionQueuedException(String message, Map<String, Object> position, long retryAfterMs) {
+        super(message);
+        this.position = position;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public Map<String, Object> getPosition() {
+        return position;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
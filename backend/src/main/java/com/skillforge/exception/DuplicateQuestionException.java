@@ -0,0 +1,21 @@
+package com.skillforge.exception;
+
+import java.util.List;
+
+// Thrown when duplicate detection is in reject mode and a new question is
+// too similar to existing ones in its course.
+public class DuplicateQuestionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> duplicateOf;
+
+    public DuplicateQuestionException(List<Long> duplicateOf) {
+        super("Near-duplicate of question " + duplicateOf.get(0)
+                + (duplicateOf.size() > 1 ? " and " + (duplicateOf.size() - 1) + " more" : ""));
+        this.duplicateOf = duplicateOf;
+    }
+
+    public List<Long> getDuplicateOf() {
+        return duplicateOf;
+    }
+}
@@ -0,0 +1,11 @@
+package com.skillforge.exception;
+
+// Thrown when the requested exam constraints cannot be satisfied by the
+// question bank, either outright or within the generation time budget.
+public class ExamGenerationException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ExamGenerationException(String message) {
+        super(message);
+    }
+}
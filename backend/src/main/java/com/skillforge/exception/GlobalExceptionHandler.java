@@ -1,16 +1,79 @@
 package com.skillforge.exception;
 
 import com.skillforge.dto.ApiResponse;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(ExamGenerationException.class)
+    public ResponseEntity<ApiResponse<Object>> handleExamGenerationException(ExamGenerationException e) {
+        return ResponseEntity.unprocessableEntity().body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(DuplicateQuestionException.class)
+    public ResponseEntity<ApiResponse<Object>> handleDuplicateQuestionException(DuplicateQuestionException e) {
+        ApiResponse<Object> body = ApiResponse.error(e.getMessage());
+        body.setData(Map.of("duplicateOf", e.getDuplicateOf()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(QuestionInUseException.class)
+    public ResponseEntity<ApiResponse<Object>> handleQuestionInUseException(QuestionInUseException e) {
+        ApiResponse<Object> body = ApiResponse.error(e.getMessage());
+        body.setData(Map.of("examIds", e.getExamIds()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailableException(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(AdmissionQueuedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleAdmissionQueuedException(AdmissionQueuedException e) {
+        ApiResponse<Object> body = ApiResponse.error(e.getMessage());
+        body.setData(e.getPosition());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (e.getRetryAfterMs() + 999) / 1000)))
+                .body(body);
+    }
+
+    // No database connection within the pool's connection timeout: with
+    // virtual threads the pool, not the thread count, is what runs out
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiResponse<Object>> handleConnectionUnavailable(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("Database busy, try again"));
+    }
+
+    // A constraint lost a race with another write; the message carries SQL,
+    // so it is not passed on
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<Object>> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("Conflicts with existing data"));
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBadCredentialsException(BadCredentialsException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Object>> handleRuntimeException(RuntimeException e) {
         return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
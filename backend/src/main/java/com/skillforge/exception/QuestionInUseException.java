@@ -0,0 +1,21 @@
+package com.skillforge.exception;
+
+import java.util.List;
+
+// Thrown when deleting a question that exams still contain; their sheets
+// are graded by question position, so it is not silently removed from them.
+public class QuestionInUseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> examIds;
+
+    public QuestionInUseException(Long questionId, List<Long> examIds) {
+        super("Question " + questionId + " is used by " + examIds.size()
+                + (examIds.size() == 1 ? " exam" : " exams"));
+        this.examIds = examIds;
+    }
+
+    public List<Long> getExamIds() {
+        return examIds;
+    }
+}
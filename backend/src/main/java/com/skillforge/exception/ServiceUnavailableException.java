@@ -0,0 +1,11 @@
+package com.skillforge.exception;
+
+// Thrown when a bounded worker pool or queue is full. Mapped to 503 so
+// clients back off and retry instead of piling up on request threads.
+public class ServiceUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A single submitted answer. Ids come from a pooled sequence so inserts
+// can be batched.
+@Entity
+@Table(name = "answers", indexes = {
+        @Index(name = "idx_answer_attempt", columnList = "attempt_id"),
+        @Index(name = "idx_answer_user_question", columnList = "user_id, question_id")
+})
+@Data
+public class Answer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answer_seq")
+    @SequenceGenerator(name = "answer_seq", sequenceName = "answer_seq", allocationSize = 50)
+    private Long id;
+
+    // Position in the answer journal; the highest stored value is the replay watermark.
+    @Column(name = "journal_seq", unique = true)
+    private Long journalSeq;
+
+    @Column(name = "attempt_id", nullable = false)
+    private Long attemptId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    private String selectedAnswer;
+
+    @Column(nullable = false)
+    private Boolean correct;
+
+    private Integer responseTimeMs;
+
+    private LocalDateTime answeredAt = LocalDateTime.now();
+}
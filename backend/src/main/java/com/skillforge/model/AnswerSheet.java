@@ -0,0 +1,47 @@
+package com.skillforge.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+// One learner's answers to an exam, bit-packed: 2 bits per choice plus a
+// 1-bit answered mask (see PackedAnswers). Replaces a row per answer for
+// exam attempts and is what cohort grading reads.
+@Entity
+@Table(name = "answer_sheets", indexes = @Index(name = "idx_sheet_exam", columnList = "exam_id"))
+@Data
+public class AnswerSheet {
+    @Id
+    @Column(name = "attempt_id")
+    private Long attemptId;
+
+    @Column(name = "exam_id", nullable = false)
+    private Long examId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer questionCount;
+
+    @Column(nullable = false, length = 512)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] choices;
+
+    @Column(nullable = false, length = 256)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] answered;
+
+    private Integer answeredCount;
+    private Integer correct;
+    private Integer score;
+    private LocalDateTime submittedAt = LocalDateTime.now();
+    private LocalDateTime gradedAt;
+}
@@ -1,11 +1,16 @@
 package com.skillforge.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "exams")
+@Table(name = "exams", indexes = @Index(name = "idx_exam_start_time", columnList = "start_time"))
 @Data
 public class Exam {
     @Id
@@ -15,11 +20,26 @@ public class Exam {
     @Column(nullable = false)
     private String title;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Course course;
     
     private Integer duration;
     private Integer totalMarks;
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Scheduled start; null when the exam can be started at any time
+    private LocalDateTime startTime;
+
+    @ManyToMany
+    @JoinTable(name = "exam_questions",
+            joinColumns = @JoinColumn(name = "exam_id"),
+            inverseJoinColumns = @JoinColumn(name = "question_id"))
+    @OrderColumn(name = "position")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<Question> questions = new ArrayList<>();
 }
@@ -0,0 +1,40 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// One sitting by a learner: an adaptive practice session for a course, or a
+// run through a specific exam when examId is set. Answered/correct/score
+// are filled in when the attempt is completed. Exams with a duration give
+// the attempt a deadline, after which it is submitted automatically.
+@Entity
+@Table(name = "exam_attempts", indexes = {
+        @Index(name = "idx_attempt_user", columnList = "user_id"),
+        @Index(name = "idx_attempt_course", columnList = "course_id")
+})
+@Data
+public class ExamAttempt {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attempt_seq")
+    @SequenceGenerator(name = "attempt_seq", sequenceName = "attempt_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "exam_id")
+    private Long examId;
+
+    private LocalDateTime startedAt = LocalDateTime.now();
+    private LocalDateTime completedAt;
+    private LocalDateTime deadlineAt;
+    private Boolean autoSubmitted;
+
+    private Integer answered;
+    private Integer correct;
+    private Integer score;
+}
@@ -0,0 +1,37 @@
+package com.skillforge.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+// Persisted score distribution of one exam: running sums plus a serialized
+// t-digest for percentiles. The live copy is held by AnalyticsService and
+// written back in batches.
+@Entity
+@Table(name = "exam_stats")
+@Data
+public class ExamStats {
+    @Id
+    @Column(name = "exam_id")
+    private Long examId;
+
+    @Column(nullable = false)
+    private Long attempts = 0L;
+
+    @Column(name = "score_sum", nullable = false)
+    private Double scoreSum = 0.0;
+
+    @Column(name = "score_sq_sum", nullable = false)
+    private Double scoreSqSum = 0.0;
+
+    @Column(length = 16384)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] digest;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,26 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A guardian (a user with role GUARDIAN) following a learner, their ward.
+// The ward adds the link; either side can remove it.
+@Entity
+@Table(name = "guardian_links",
+        uniqueConstraints = @UniqueConstraint(name = "uk_guardian_ward", columnNames = {"guardian_id", "ward_id"}),
+        indexes = @Index(name = "idx_guardian_link_ward", columnList = "ward_id"))
+@Data
+public class GuardianLink {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "guardian_id", nullable = false)
+    private Long guardianId;
+
+    @Column(name = "ward_id", nullable = false)
+    private Long wardId;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
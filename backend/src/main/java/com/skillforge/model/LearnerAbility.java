@@ -0,0 +1,24 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Persisted copy of a learner's Elo rating. The live value is held by
+// AdaptiveEngine and written back in batches.
+@Entity
+@Table(name = "learner_abilities")
+@Data
+public class LearnerAbility {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Double rating;
+
+    @Column(nullable = false)
+    private Integer answered = 0;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,62 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A notification owed to one guardian about one event of their ward,
+// written in the same transaction as the event. GuardianNotifier delivers
+// a guardian's pending rows as one digest and deletes them; rows that keep
+// failing end up FAILED.
+@Entity
+@Table(name = "guardian_outbox",
+        indexes = @Index(name = "idx_outbox_due", columnList = "status, next_attempt_at"))
+@Data
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "guardian_id", nullable = false)
+    private Long guardianId;
+
+    @Column(name = "ward_id", nullable = false)
+    private Long wardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Column(name = "exam_id")
+    private Long examId;
+
+    @Column(name = "attempt_id")
+    private Long attemptId;
+
+    private Integer score;
+    private Integer maxScore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum Type {
+        EXAM_COMPLETED, FELL_BEHIND
+    }
+
+    public enum Status {
+        PENDING, FAILED
+    }
+}
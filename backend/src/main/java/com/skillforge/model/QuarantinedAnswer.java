@@ -0,0 +1,37 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// A journaled answer the database refused on its own (a constraint or a
+// value it cannot store), kept here with the error instead of blocking the
+// answers behind it. Keyed by journal sequence, so a replay cannot add it
+// twice.
+@Entity
+@Table(name = "answer_quarantine")
+@Data
+public class QuarantinedAnswer {
+    @Id
+    @Column(name = "journal_seq")
+    private Long journalSeq;
+
+    @Column(name = "attempt_id")
+    private Long attemptId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "question_id")
+    private Long questionId;
+
+    private String selectedAnswer;
+    private Boolean correct;
+    private Integer responseTimeMs;
+    private LocalDateTime answeredAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    private LocalDateTime quarantinedAt = LocalDateTime.now();
+}
@@ -2,17 +2,25 @@ package com.skillforge.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
 @Table(name = "questions")
 @Data
 public class Question {
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts
+    // (bulk import); ids are handed out 50 at a time per node. QuestionSequence
+    // keeps the sequence past existing ids.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Course course;
 
     @Column(nullable = false, length = 1000)
@@ -28,4 +36,38 @@ public class Question {
 
     private String difficulty;
     private String topic;
+
+    // Marks awarded for a correct answer; older rows without a value count as 1.
+    private Integer marks = 1;
+
+    // Elo difficulty estimated from learner answers; null until the
+    // question has been answered, in which case the difficulty label is used.
+    private Double rating;
+    private Integer ratingCount;
+
+    // Maps an answer given as a letter (A-D) or as the option text to its
+    // option index, or -1 when it matches neither.
+    public int optionIndex(String answer) {
+        if (answer == null) {
+            return -1;
+        }
+        String value = answer.trim();
+        if (value.length() == 1) {
+            char letter = Character.toUpperCase(value.charAt(0));
+            if (letter >= 'A' && letter <= 'D') {
+                return letter - 'A';
+            }
+        }
+        String[] options = {optionA, optionB, optionC, optionD};
+        for (int i = 0; i < options.length; i++) {
+            if (options[i] != null && options[i].trim().equalsIgnoreCase(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int correctOptionIndex() {
+        return optionIndex(correctAnswer);
+    }
 }
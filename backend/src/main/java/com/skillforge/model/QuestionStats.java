@@ -0,0 +1,56 @@
+package com.skillforge.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Persisted item statistics of one question from graded exam sheets: how
+// often each option was chosen, and the sums behind the point-biserial
+// correlation with the rest of the sheet's score. The live copy is held by
+// AnalyticsService and written back in batches.
+@Entity
+@Table(name = "question_stats")
+@Data
+public class QuestionStats {
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(nullable = false)
+    private Long responses = 0L;
+
+    @Column(nullable = false)
+    private Long correct = 0L;
+
+    @Column(nullable = false)
+    private Long omitted = 0L;
+
+    @Column(name = "option_a", nullable = false)
+    private Long optionA = 0L;
+
+    @Column(name = "option_b", nullable = false)
+    private Long optionB = 0L;
+
+    @Column(name = "option_c", nullable = false)
+    private Long optionC = 0L;
+
+    @Column(name = "option_d", nullable = false)
+    private Long optionD = 0L;
+
+    // Rest score y (sheet score less this question's marks) and its
+    // products with the 0/1 item score x; sum x is correct
+    @Column(name = "rest_sum", nullable = false)
+    private Double restSum = 0.0;
+
+    @Column(name = "rest_sq_sum", nullable = false)
+    private Double restSqSum = 0.0;
+
+    @Column(name = "correct_rest_sum", nullable = false)
+    private Double correctRestSum = 0.0;
+
+    // Label last written to Question.difficulty, null until then
+    @Column(name = "measured_difficulty")
+    private String measuredDifficulty;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,26 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.Answer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AnswerRepository extends JpaRepository<Answer, Long> {
+    List<Answer> findByAttemptIdOrderByIdAsc(Long attemptId);
+
+    long countByAttemptId(Long attemptId);
+
+    long countByAttemptIdAndCorrectTrue(Long attemptId);
+
+    @Query("select max(a.journalSeq) from Answer a")
+    Long maxJournalSeq();
+
+    @Query("select distinct a.questionId from Answer a where a.userId = :userId")
+    List<Long> findAnsweredQuestionIds(@Param("userId") Long userId);
+
+    @Query("select coalesce(sum(q.marks), 0) from Answer a, Question q " +
+           "where q.id = a.questionId and a.attemptId = :attemptId and a.correct = true")
+    long sumCorrectMarks(@Param("attemptId") Long attemptId);
+}
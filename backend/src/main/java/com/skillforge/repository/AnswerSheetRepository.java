@@ -0,0 +1,21 @@
+package com.skillforge.repository;
+
+import com.skillforge.dto.SheetRow;
+import com.skillforge.model.AnswerSheet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
+
+public interface AnswerSheetRepository extends JpaRepository<AnswerSheet, Long> {
+    long countByExamId(Long examId);
+
+    @Query("select s.attemptId as attemptId, s.questionCount as questionCount, s.choices as choices, " +
+           "s.answered as answered from AnswerSheet s where s.examId = :examId order by s.attemptId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<SheetRow> streamByExamId(@Param("examId") Long examId);
+}
@@ -0,0 +1,33 @@
+package com.skillforge.repository;
+
+import com.skillforge.dto.CourseCountRow;
+import com.skillforge.dto.OpenSessionRow;
+import com.skillforge.model.ExamAttempt;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long> {
+    List<ExamAttempt> findByUserIdOrderByIdDesc(Long userId);
+
+    Optional<ExamAttempt> findFirstByUserIdAndExamIdAndCompletedAtIsNullOrderByIdDesc(Long userId, Long examId);
+
+    // Timed exam attempts still running, for ExamSessions to track again
+    @Query("select a.id as attemptId, a.userId as userId, a.examId as examId, a.startedAt as startedAt, " +
+           "a.deadlineAt as deadlineAt from ExamAttempt a where a.completedAt is null and a.deadlineAt is not null")
+    List<OpenSessionRow> findOpenSessions();
+
+    @Query("select distinct a.userId from ExamAttempt a where a.courseId = :courseId")
+    List<Long> findUserIdsByCourseId(@Param("courseId") Long courseId, Limit limit);
+
+    @Query("select a.courseId as courseId, count(a) as total from ExamAttempt a group by a.courseId")
+    List<CourseCountRow> countByCourse();
+
+    @Query("select a.courseId as courseId, count(a) as total from ExamAttempt a " +
+           "where a.completedAt is not null group by a.courseId")
+    List<CourseCountRow> countCompletedByCourse();
+}
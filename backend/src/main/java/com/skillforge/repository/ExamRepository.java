@@ -1,9 +1,44 @@
 package com.skillforge.repository;
 
+import com.skillforge.dto.CourseCountRow;
+import com.skillforge.dto.ExamView;
 import com.skillforge.model.Exam;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ExamRepository extends JpaRepository<Exam, Long> {
-    List<Exam> findByCourseId(Long courseId);
+    // Read models select the exam and its course title in one statement
+    String VIEW = "select new com.skillforge.dto.ExamView(e.id, e.title, c.id, c.title, e.duration, " +
+                  "e.totalMarks, e.createdAt, e.startTime) from Exam e left join e.course c ";
+
+    @Query(VIEW + "where e.id = :id")
+    Optional<ExamView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "where c.id = :courseId order by e.id")
+    List<ExamView> findViewsByCourseId(@Param("courseId") Long courseId);
+
+    @Query(VIEW + "where e.id > :after order by e.id")
+    List<ExamView> findViewsAfter(@Param("after") Long after, Limit limit);
+
+    @Query(VIEW + "where e.startTime between :from and :to order by e.startTime")
+    List<ExamView> findViewsStartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(VIEW + "order by e.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ExamView> streamViews();
+
+    @Query("select e.id from Exam e join e.questions q where q.id = :questionId order by e.id")
+    List<Long> findIdsByQuestionId(@Param("questionId") Long questionId);
+
+    @Query("select c.id as courseId, count(e) as total from Exam e left join e.course c group by c.id")
+    List<CourseCountRow> countByCourse();
 }
@@ -0,0 +1,7 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.ExamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ExamStatsRepository extends JpaRepository<ExamStats, Long> {
+}
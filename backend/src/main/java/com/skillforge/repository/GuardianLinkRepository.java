@@ -0,0 +1,18 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.GuardianLink;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface GuardianLinkRepository extends JpaRepository<GuardianLink, Long> {
+    boolean existsByGuardianIdAndWardId(Long guardianId, Long wardId);
+
+    List<GuardianLink> findByWardId(Long wardId);
+
+    List<GuardianLink> findByGuardianId(Long guardianId);
+
+    @Query("select l.guardianId from GuardianLink l where l.wardId = :wardId")
+    List<Long> findGuardianIdsByWardId(@Param("wardId") Long wardId);
+}
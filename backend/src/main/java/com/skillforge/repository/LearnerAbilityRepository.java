@@ -0,0 +1,7 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.LearnerAbility;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LearnerAbilityRepository extends JpaRepository<LearnerAbility, Long> {
+}
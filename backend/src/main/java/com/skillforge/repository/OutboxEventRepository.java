@@ -0,0 +1,27 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Guardians with at least one row due, oldest first
+    @Query("select e.guardianId from OutboxEvent e where e.status = :status and e.nextAttemptAt <= :now "
+            + "group by e.guardianId order by min(e.id)")
+    List<Long> findDueGuardianIds(@Param("status") OutboxEvent.Status status, @Param("now") LocalDateTime now,
+                                  Limit limit);
+
+    // Rows of these guardians to send now: due ones and new ones still
+    // coalescing. Rows backing off after a failed send wait for nextAttemptAt.
+    @Query("select e from OutboxEvent e where e.guardianId in :guardianIds and e.status = :status "
+            + "and (e.nextAttemptAt <= :now or e.attempts = 0) order by e.id")
+    List<OutboxEvent> findSendable(@Param("guardianIds") Collection<Long> guardianIds,
+                                   @Param("status") OutboxEvent.Status status, @Param("now") LocalDateTime now);
+
+    long countByStatus(OutboxEvent.Status status);
+}
@@ -0,0 +1,10 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.QuarantinedAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface QuarantinedAnswerRepository extends JpaRepository<QuarantinedAnswer, Long> {
+    @Query("select max(q.journalSeq) from QuarantinedAnswer q")
+    Long maxJournalSeq();
+}
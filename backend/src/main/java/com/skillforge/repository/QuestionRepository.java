@@ -1,13 +1,53 @@
 package com.skillforge.repository;
 
+import com.skillforge.dto.CourseCountRow;
+import com.skillforge.dto.QuestionIndexRow;
+import com.skillforge.dto.QuestionView;
 import com.skillforge.model.Question;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByCourseId(Long courseId);
     List<Question> findByDifficulty(String difficulty);
+
+    @Query("select q.id as id, c.id as courseId, q.topic as topic, q.difficulty as difficulty, " +
+           "q.marks as marks " +
+           "from Question q left join q.course c")
+    Stream<QuestionIndexRow> streamIndexRows();
+
+    @Query("select q from Exam e join e.questions q where e.id = :examId order by index(q)")
+    List<Question> findByExamInOrder(@Param("examId") Long examId);
+
+    // Read models take the course id from the foreign key, so no join
+    String VIEW = "select new com.skillforge.dto.QuestionView(q.id, q.course.id, q.questionText, " +
+                  "q.optionA, q.optionB, q.optionC, q.optionD, q.correctAnswer, q.difficulty, q.topic, " +
+                  "q.marks, q.rating, q.ratingCount) ";
+
+    @Query(VIEW + "from Exam e join e.questions q where e.id = :examId order by index(q)")
+    List<QuestionView> findViewsByExamInOrder(@Param("examId") Long examId);
+
+    @Query(VIEW + "from Question q where q.id in :ids order by q.id")
+    List<QuestionView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEW + "from Question q where q.id > :after order by q.id")
+    List<QuestionView> findViewsAfter(@Param("after") Long after, Limit limit);
+
+    @Query(VIEW + "from Question q order by q.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<QuestionView> streamViews();
+
+    @Query("select c.id as courseId, count(q) as total from Question q left join q.course c group by c.id")
+    List<CourseCountRow> countByCourse();
 }
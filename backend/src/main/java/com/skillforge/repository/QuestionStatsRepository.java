@@ -0,0 +1,7 @@
+package com.skillforge.repository;
+
+import com.skillforge.model.QuestionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface QuestionStatsRepository extends JpaRepository<QuestionStats, Long> {
+}
@@ -0,0 +1,14 @@
+package com.skillforge.security;
+
+import com.skillforge.model.User;
+
+import java.security.Principal;
+
+// Principal carried by a verified token, so controllers get the caller's id
+// and role without a user lookup.
+public record AuthenticatedUser(Long id, String email, User.Role role) implements Principal {
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,38 +1,185 @@
 package com.skillforge.security;
 
+import com.skillforge.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+// Compact HMAC-SHA256 tokens: base64url(id|role|expiry|email) "." base64url(mac).
+//
+// Verified tokens go into a fixed-size, direct-mapped cache keyed by a 64-bit
+// digest of the token text. A hit is a hash over the header chars plus a
+// region compare, with no substring, decoding or MAC. The cache holds only
+// the immutable claims; each request gets its own Authentication, since
+// the token class is mutable (details, setAuthenticated) and a shared one
+// would leak between threads.
 @Component
 public class JwtUtil {
-    private final String secret = "skillforge-secret-key";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // The HMAC-SHA256 block is 64 bytes; shorter keys are brute-forceable
+    static final int MIN_SECRET_BYTES = 32;
+    private static final Map<User.Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(User.Role.class);
 
-    public String generateToken(String email) {
-        try {
-            // Simple token generation without JWT library
-            String payload = email + ":" + System.currentTimeMillis();
-            return Base64.getEncoder().encodeToString(payload.getBytes());
-        } catch (Exception e) {
-            System.out.println("Token generation error: " + e.getMessage());
-            return "simple-token-" + email.hashCode();
+    static {
+        for (User.Role role : User.Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
         }
     }
 
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final long expirationMs;
+    private final AtomicReferenceArray<Entry> cache;
+    private final int cacheMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public JwtUtil(@Value("${skillforge.jwt.secret}") String secret,
+                   @Value("${skillforge.jwt.expiration-ms:86400000}") long expirationMs,
+                   @Value("${skillforge.jwt.cache-size:4096}") int cacheSize) {
+        byte[] secretBytes = secret != null ? secret.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("skillforge.jwt.secret (SKILLFORGE_JWT_SECRET) must be at least "
+                + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.prototype = newMac();
+        this.expirationMs = expirationMs;
+        int size = Integer.highestOneBit(Math.max(16, cacheSize));
+        this.cache = new AtomicReferenceArray<>(size);
+        this.cacheMask = size - 1;
+    }
+
+    public String generateToken(User user) {
+        long expiresAt = System.currentTimeMillis() + expirationMs;
+        String claims = user.getId() + "|" + user.getRole().name() + "|" + expiresAt + "|" + user.getEmail();
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
     public String extractEmail(String token) {
+        UsernamePasswordAuthenticationToken auth = authenticate(token, 0);
+        return auth != null ? auth.getName() : null;
+    }
+
+    public boolean isTokenValid(String token) {
+        return authenticate(token, 0) != null;
+    }
+
+    // Verifies the token that starts at offset in text (e.g. 7 for a
+    // "Bearer ..." header) and returns its authentication, or null.
+    public UsernamePasswordAuthenticationToken authenticate(String text, int offset) {
+        if (text == null || offset >= text.length()) {
+            return null;
+        }
+        long digest = digest(text, offset);
+        int slot = (int) digest & cacheMask;
+        Entry entry = cache.get(slot);
+        int length = text.length() - offset;
+        if (entry != null && entry.digest == digest && entry.token.length() == length
+                && text.regionMatches(offset, entry.token, 0, length)) {
+            if (System.currentTimeMillis() < entry.expiresAt) {
+                hits.increment();
+                return authentication(entry.user);
+            }
+            cache.compareAndSet(slot, entry, null);
+            return null;
+        }
+        misses.increment();
+        Entry verified = verify(text.substring(offset), digest);
+        if (verified != null) {
+            cache.set(slot, verified);
+            return authentication(verified.user);
+        }
+        return null;
+    }
+
+    public long cacheHits() {
+        return hits.sum();
+    }
+
+    public long cacheMisses() {
+        return misses.sum();
+    }
+
+    private Entry verify(String token, long digest) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
         try {
-            String decoded = new String(Base64.getDecoder().decode(token));
-            return decoded.split(":")[0];
-        } catch (Exception e) {
-            return "unknown@example.com";
+            byte[] expected = sign(token.substring(0, dot));
+            byte[] actual = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            String claims = new String(DECODER.decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+            String[] parts = claims.split("\\|", 4);
+            if (parts.length != 4) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(parts[2]);
+            if (System.currentTimeMillis() >= expiresAt) {
+                return null;
+            }
+            AuthenticatedUser user = new AuthenticatedUser(Long.valueOf(parts[0]), parts[3], User.Role.valueOf(parts[1]));
+            return new Entry(digest, token, expiresAt, user);
+        } catch (IllegalArgumentException e) {
+            // Bad base64, id, expiry or role
+            return null;
         }
     }
 
-    public boolean isTokenValid(String token) {
+    private static UsernamePasswordAuthenticationToken authentication(AuthenticatedUser user) {
+        return new UsernamePasswordAuthenticationToken(user, null, AUTHORITIES.get(user.role()));
+    }
+
+    private byte[] sign(String payload) {
+        Mac mac;
         try {
-            String decoded = new String(Base64.getDecoder().decode(token));
-            return decoded.contains(":");
-        } catch (Exception e) {
-            return false;
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            mac = newMac();
         }
+        return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    // 64-bit FNV-1a over the token chars, read in place.
+    private static long digest(String text, int offset) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = offset; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash ^ (hash >>> 32);
+    }
+
+    private record Entry(long digest, String token, long expiresAt, AuthenticatedUser user) {
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,9 @@
 package com.skillforge.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -23,7 +25,17 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**", "/api/health", "/api/test/**", "/api/simple/**", "/api/admin/**", "/api/dashboard", "/api/courses/**", "/h2-console/**").permitAll()
+                        .requestMatchers("/api/auth/**", "/api/health", "/api/test/**", "/api/simple/**", "/actuator/health", "/api/dashboard", "/api/courses/**", "/h2-console/**").permitAll()
+                        // Metrics and prometheus describe the whole deployment
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        // Operational stats, cache control, user lists and the duplicate scan
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Exam question lists carry the correct answers
+                        .requestMatchers(HttpMethod.GET, "/api/exams/*/questions").hasRole("ADMIN")
+                        // Re-grades and rewrites every sheet of the exam
+                        .requestMatchers(HttpMethod.POST, "/api/exams/*/grade").hasRole("ADMIN")
+                        // Item statistics would give the answer key away
+                        .requestMatchers("/api/analytics/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .headers(headers -> headers.frameOptions().disable())
@@ -32,7 +44,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${skillforge.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
\ No newline at end of file
@@ -0,0 +1,463 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillforge.model.LearnerAbility;
+import com.skillforge.model.Question;
+import com.skillforge.repository.AnswerRepository;
+import com.skillforge.repository.LearnerAbilityRepository;
+import com.skillforge.repository.QuestionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Elo-style adaptive engine. Every learner has an ability rating and every
+// question a difficulty rating on the same scale; an answer moves both by
+// K * (score - expected), which is O(1). Each course keeps its questions in
+// a skip list ordered by rating, so the next question is found by seeking
+// to the learner's target rating and walking outwards past the ones they
+// have already seen.
+//
+// Learners and course pools are loaded on first use. Ratings live here and
+// are written back in batches on a schedule and at shutdown. Learners are
+// held in a bounded cache and dropped, seen set and all, once idle; one
+// with changes not yet written stays reachable through the write-back
+// queue and is taken back from there if they return before the flush.
+@Service
+public class AdaptiveEngine {
+    static final double DEFAULT_RATING = 1500;
+
+    private static final Comparator<Rated> BY_RATING =
+            Comparator.comparingDouble(Rated::rating).thenComparingLong(Rated::id);
+
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final LearnerAbilityRepository learnerAbilityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersions catalogVersions;
+    // Rating offset that gives the configured chance of a correct answer
+    private final double targetOffset;
+
+    private final Cache<Long, Learner> learners;
+    private final ConcurrentHashMap<Long, QuestionState> questions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CoursePool> pools = new ConcurrentHashMap<>();
+    // Learners with changes not written back yet, by id
+    private final ConcurrentHashMap<Long, Learner> dirtyLearners = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyQuestions = ConcurrentHashMap.newKeySet();
+
+    public AdaptiveEngine(QuestionRepository questionRepository, AnswerRepository answerRepository,
+                          LearnerAbilityRepository learnerAbilityRepository, JdbcTemplate jdbcTemplate,
+                          CatalogVersions catalogVersions,
+                          @Value("${skillforge.adaptive.target-success:0.7}") double targetSuccess,
+                          @Value("${skillforge.adaptive.max-learners:100000}") long maxLearners,
+                          @Value("${skillforge.adaptive.learner-idle-ms:1800000}") long learnerIdleMs) {
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.learnerAbilityRepository = learnerAbilityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogVersions = catalogVersions;
+        double p = Math.min(0.95, Math.max(0.05, targetSuccess));
+        this.targetOffset = -400 * Math.log10(p / (1 - p));
+        this.learners = Caffeine.newBuilder()
+                .maximumSize(maxLearners)
+                .expireAfterAccess(Duration.ofMillis(learnerIdleMs))
+                .build();
+    }
+
+    // Id of the unseen question in the course whose rating is closest to
+    // the learner's target, or null when they have seen them all.
+    public Long nextQuestion(Long userId, Long courseId) {
+        CoursePool pool = pool(courseId);
+        Learner learner = learner(userId);
+        learner.lock.lock();
+        try {
+            double target = learner.rating + targetOffset;
+            Rated probe = new Rated(target, Long.MIN_VALUE);
+            Iterator<Rated> up = pool.byRating.tailSet(probe, true).iterator();
+            Iterator<Rated> down = pool.byRating.headSet(probe, false).descendingIterator();
+            Rated above = nextUnseen(up, learner);
+            Rated below = nextUnseen(down, learner);
+            if (above == null && below == null) {
+                return null;
+            }
+            if (above == null) {
+                return below.id();
+            }
+            if (below == null) {
+                return above.id();
+            }
+            return above.rating() - target <= target - below.rating() ? above.id() : below.id();
+        } finally {
+            learner.lock.unlock();
+        }
+    }
+
+    // Grades an answer given as a letter (A-D) or, for questions without
+    // options, as the answer text.
+    public boolean isCorrect(Long courseId, Long questionId, String answer) {
+        pool(courseId);
+        QuestionState question = questions.get(questionId);
+        if (question == null || question.courseId != courseId) {
+            throw new RuntimeException("Question " + questionId + " is not in course " + courseId);
+        }
+        if (question.correctOption >= 0) {
+            return answer != null && answer.trim().length() == 1
+                    && Character.toUpperCase(answer.trim().charAt(0)) - 'A' == question.correctOption;
+        }
+        return answer != null && normalize(answer).equals(question.correctText);
+    }
+
+    // Applies one answer to both ratings. Only the learner's first answer to
+    // a question moves them; repeats are reported with rated = false.
+    public Outcome record(Long userId, Long questionId, boolean correct) {
+        QuestionState question = questions.get(questionId);
+        if (question == null) {
+            throw new RuntimeException("Question not found");
+        }
+        Learner learner = learner(userId);
+        // Lock order is always learner then question
+        learner.lock.lock();
+        try {
+            if (!learner.seen.add(questionId)) {
+                return new Outcome(correct, learner.rating, learner.rating, question.rating, expected(learner.rating, question.rating), false);
+            }
+            question.lock.lock();
+            try {
+                double before = learner.rating;
+                double expected = expected(before, question.rating);
+                double score = correct ? 1 : 0;
+                learner.rating = before + Math.max(16, 400.0 / (learner.answered + 10)) * (score - expected);
+                learner.answered++;
+                double questionRating = question.rating - Math.max(8, 200.0 / (question.count + 10)) * (score - expected);
+                question.count++;
+                move(question, questionRating);
+                dirtyLearners.put(userId, learner);
+                dirtyQuestions.add(questionId);
+                return new Outcome(correct, before, learner.rating, question.rating, expected, true);
+            } finally {
+                question.lock.unlock();
+            }
+        } finally {
+            learner.lock.unlock();
+        }
+    }
+
+    // Loads the learner's state now so a later record() does no I/O.
+    public void preload(Long userId) {
+        learner(userId);
+    }
+
+    public void preloadCourse(Long courseId) {
+        pool(courseId);
+    }
+
+    public double ability(Long userId) {
+        Learner learner = learner(userId);
+        learner.lock.lock();
+        try {
+            return learner.rating;
+        } finally {
+            learner.lock.unlock();
+        }
+    }
+
+    public int answered(Long userId) {
+        Learner learner = learner(userId);
+        learner.lock.lock();
+        try {
+            return learner.answered;
+        } finally {
+            learner.lock.unlock();
+        }
+    }
+
+    public double questionRating(Long questionId) {
+        QuestionState question = questions.get(questionId);
+        return question != null ? question.rating : DEFAULT_RATING;
+    }
+
+    public double expected(double ability, double difficulty) {
+        return 1 / (1 + Math.pow(10, (difficulty - ability) / 400));
+    }
+
+    // Keeps loaded course pools in step with QuestionService writes.
+    public void questionSaved(Question question) {
+        if (question.getId() == null || question.getCourse() == null) {
+            return;
+        }
+        CoursePool pool = pools.get(question.getCourse().getId());
+        if (pool == null) {
+            return;
+        }
+        pool.lock.lock();
+        try {
+            if (pool.loaded) {
+                add(pool, question);
+            }
+        } finally {
+            pool.lock.unlock();
+        }
+    }
+
+    public void questionRemoved(Long questionId) {
+        QuestionState question = questions.remove(questionId);
+        if (question == null) {
+            return;
+        }
+        CoursePool pool = pools.get(question.courseId);
+        question.lock.lock();
+        try {
+            if (pool != null) {
+                pool.byRating.remove(question.key);
+            }
+        } finally {
+            question.lock.unlock();
+        }
+        dirtyQuestions.remove(questionId);
+    }
+
+    // Entries stay dirty until their write has succeeded, so a failed write
+    // is retried by the next flush and a dropped learner is still restored
+    // from dirtyLearners meanwhile. Every change bumps answered (learners)
+    // or count (questions); an entry changed again while being written stays
+    // dirty for the next flush.
+    @Scheduled(fixedDelayString = "${skillforge.adaptive.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> learnerRows = new ArrayList<>();
+        List<Learner> writtenLearners = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, Learner> entry : dirtyLearners.entrySet()) {
+            Learner learner = entry.getValue();
+            learner.lock.lock();
+            try {
+                learnerRows.add(new Object[] {learner.rating, learner.answered, now, entry.getKey()});
+                writtenLearners.add(learner);
+            } finally {
+                learner.lock.unlock();
+            }
+        }
+        List<Object[]> questionRows = new ArrayList<>();
+        List<QuestionState> writtenQuestions = new ArrayList<>();
+        for (Iterator<Long> it = dirtyQuestions.iterator(); it.hasNext(); ) {
+            Long questionId = it.next();
+            QuestionState question = questions.get(questionId);
+            if (question == null) {
+                it.remove();
+                continue;
+            }
+            question.lock.lock();
+            try {
+                questionRows.add(new Object[] {question.rating, question.count, questionId});
+                writtenQuestions.add(question);
+            } finally {
+                question.lock.unlock();
+            }
+        }
+        if (!learnerRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("update learner_abilities set rating = ?, answered = ?, updated_at = ? where user_id = ?", learnerRows);
+            for (int i = 0; i < learnerRows.size(); i++) {
+                Learner learner = writtenLearners.get(i);
+                learner.lock.lock();
+                try {
+                    if (learner.answered == (int) learnerRows.get(i)[1]) {
+                        dirtyLearners.remove((Long) learnerRows.get(i)[3], learner);
+                    }
+                } finally {
+                    learner.lock.unlock();
+                }
+            }
+        }
+        if (!questionRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("update questions set rating = ?, rating_count = ? where id = ?", questionRows);
+            for (int i = 0; i < questionRows.size(); i++) {
+                QuestionState question = writtenQuestions.get(i);
+                question.lock.lock();
+                try {
+                    if (question.count == (int) questionRows.get(i)[1]) {
+                        dirtyQuestions.remove(question.id);
+                    }
+                } finally {
+                    question.lock.unlock();
+                }
+            }
+            // Question reads carry the rating
+            catalogVersions.questionsChanged();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int loadedLearners() {
+        return (int) learners.estimatedSize();
+    }
+
+    public int loadedQuestions() {
+        return questions.size();
+    }
+
+    public int pendingWrites() {
+        return dirtyLearners.size() + dirtyQuestions.size();
+    }
+
+    // Initial difficulty for questions that have not been answered yet
+    static double initialRating(String difficulty) {
+        if (difficulty == null) {
+            return DEFAULT_RATING;
+        }
+        return switch (normalize(difficulty)) {
+            case "easy", "beginner" -> 1200;
+            case "hard", "advanced" -> 1800;
+            default -> DEFAULT_RATING;
+        };
+    }
+
+    private Rated nextUnseen(Iterator<Rated> candidates, Learner learner) {
+        while (candidates.hasNext()) {
+            Rated candidate = candidates.next();
+            if (!learner.seen.contains(candidate.id())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Learner learner(Long userId) {
+        if (userId == null) {
+            throw new RuntimeException("Authentication required");
+        }
+        Learner learner = learners.get(userId, id -> {
+            Learner pending = dirtyLearners.get(id);
+            return pending != null ? pending : new Learner();
+        });
+        if (!learner.loaded) {
+            learner.lock.lock();
+            try {
+                if (!learner.loaded) {
+                    LearnerAbility ability = learnerAbilityRepository.findById(userId).orElseGet(() -> {
+                        LearnerAbility created = new LearnerAbility();
+                        created.setUserId(userId);
+                        created.setRating(DEFAULT_RATING);
+                        return learnerAbilityRepository.save(created);
+                    });
+                    learner.rating = ability.getRating();
+                    learner.answered = ability.getAnswered() != null ? ability.getAnswered() : 0;
+                    learner.seen.addAll(answerRepository.findAnsweredQuestionIds(userId));
+                    learner.loaded = true;
+                }
+            } finally {
+                learner.lock.unlock();
+            }
+        }
+        return learner;
+    }
+
+    private CoursePool pool(Long courseId) {
+        if (courseId == null) {
+            throw new RuntimeException("courseId is required");
+        }
+        CoursePool pool = pools.computeIfAbsent(courseId, id -> new CoursePool());
+        if (!pool.loaded) {
+            pool.lock.lock();
+            try {
+                if (!pool.loaded) {
+                    for (Question question : questionRepository.findByCourseId(courseId)) {
+                        add(pool, question);
+                    }
+                    pool.loaded = true;
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        return pool;
+    }
+
+    private void add(CoursePool pool, Question question) {
+        QuestionState state = questions.computeIfAbsent(question.getId(), id -> {
+            int correctOption = question.correctOptionIndex();
+            return new QuestionState(id, question.getCourse().getId(), correctOption,
+                    correctOption < 0 ? normalize(question.getCorrectAnswer()) : null,
+                    question.getRating() != null ? question.getRating() : initialRating(question.getDifficulty()),
+                    question.getRatingCount() != null ? question.getRatingCount() : 0);
+        });
+        pool.byRating.add(state.key);
+    }
+
+    // Caller holds the question lock
+    private void move(QuestionState question, double rating) {
+        CoursePool pool = pools.get(question.courseId);
+        Rated key = new Rated(rating, question.id);
+        if (pool != null) {
+            pool.byRating.remove(question.key);
+            pool.byRating.add(key);
+        }
+        question.key = key;
+        question.rating = rating;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record Outcome(boolean correct, double abilityBefore, double ability, double questionRating,
+                          double expected, boolean rated) {
+    }
+
+    private record Rated(double rating, long id) {
+    }
+
+    private static final class Learner {
+        final ReentrantLock lock = new ReentrantLock();
+        final Set<Long> seen = new HashSet<>();
+        volatile boolean loaded;
+        double rating = DEFAULT_RATING;
+        int answered;
+    }
+
+    private static final class QuestionState {
+        final long id;
+        final long courseId;
+        final int correctOption;
+        final String correctText;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile double rating;
+        int count;
+        Rated key;
+
+        QuestionState(long id, long courseId, int correctOption, String correctText, double rating, int count) {
+            this.id = id;
+            this.courseId = courseId;
+            this.correctOption = correctOption;
+            this.correctText = correctText;
+            this.rating = rating;
+            this.count = count;
+            this.key = new Rated(rating, id);
+        }
+    }
+
+    private static final class CoursePool {
+        final ReentrantLock lock = new ReentrantLock();
+        final ConcurrentSkipListSet<Rated> byRating = new ConcurrentSkipListSet<>(BY_RATING);
+        volatile boolean loaded;
+    }
+}
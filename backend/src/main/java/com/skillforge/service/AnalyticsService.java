@@ -0,0 +1,503 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.ExamAnalytics;
+import com.skillforge.dto.QuestionAnalytics;
+import com.skillforge.model.AnswerSheet;
+import com.skillforge.model.ExamStats;
+import com.skillforge.model.Question;
+import com.skillforge.model.QuestionStats;
+import com.skillforge.repository.ExamStatsRepository;
+import com.skillforge.repository.QuestionRepository;
+import com.skillforge.repository.QuestionStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Exam and item statistics, updated as sheets are graded instead of being
+// recomputed with GROUP BY per dashboard view. Each exam keeps score sums
+// and a t-digest of scores; each question keeps per-option counters and
+// the sums behind its p-value (share correct) and discrimination (the
+// point-biserial correlation between getting it right and the rest of the
+// sheet's score). Reads are a few divisions.
+//
+// Only graded exam sheets count: adaptive practice aims every learner at a
+// 70% success rate, so its answers say little about a question's
+// difficulty. State is loaded on first use and written back in batches on
+// a schedule and at shutdown, when measured difficulty labels are also
+// fed back to Question.difficulty.
+@Service
+public class AnalyticsService {
+    static final double COMPRESSION = 100;
+    private static final double[] PERCENTILES = {0.10, 0.25, 0.50, 0.75, 0.90};
+    private static final String[] OPTIONS = {"A", "B", "C", "D"};
+
+    private final ExamStatsRepository examStatsRepository;
+    private final QuestionStatsRepository questionStatsRepository;
+    private final QuestionRepository questionRepository;
+    private final CatalogCache catalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean difficultyFeedback;
+    private final int minResponses;
+    private final double easyAbove;
+    private final double hardBelow;
+    private volatile Consumer<Map<Long, String>> difficultyMeasured;
+
+    // Per exam: question ids, correct options and marks in exam order
+    private final ConcurrentHashMap<Long, Layout> layouts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ExamState> exams = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ItemState> items = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyExams = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyItems = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder sheets = new LongAdder();
+    private final LongAdder skippedSheets = new LongAdder();
+    private final LongAdder difficultyChanges = new LongAdder();
+    private volatile long lastFlushMs;
+
+    public AnalyticsService(ExamStatsRepository examStatsRepository,
+                            QuestionStatsRepository questionStatsRepository,
+                            QuestionRepository questionRepository, CatalogCache catalogCache,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${skillforge.analytics.difficulty-feedback:true}") boolean difficultyFeedback,
+                            @Value("${skillforge.analytics.min-responses:30}") int minResponses,
+                            @Value("${skillforge.analytics.easy-above:0.7}") double easyAbove,
+                            @Value("${skillforge.analytics.hard-below:0.4}") double hardBelow) {
+        this.examStatsRepository = examStatsRepository;
+        this.questionStatsRepository = questionStatsRepository;
+        this.questionRepository = questionRepository;
+        this.catalogCache = catalogCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.difficultyFeedback = difficultyFeedback;
+        this.minResponses = Math.max(1, minResponses);
+        this.easyAbove = easyAbove;
+        this.hardBelow = hardBelow;
+    }
+
+    // Set once by QuestionService, which owns question writes and indexes
+    void onDifficultyMeasured(Consumer<Map<Long, String>> difficultyMeasured) {
+        this.difficultyMeasured = difficultyMeasured;
+    }
+
+    // Adds a graded sheet: O(questions), no queries once the exam is loaded
+    public void sheetGraded(AnswerSheet sheet) {
+        Layout layout = layout(sheet.getExamId());
+        if (layout.questionIds.length != sheet.getQuestionCount()) {
+            // Graded against a different version of the exam
+            skippedSheets.increment();
+            return;
+        }
+        double score = sheet.getScore() != null ? sheet.getScore() : 0;
+        ExamState exam = exam(sheet.getExamId());
+        exam.lock.lock();
+        try {
+            exam.add(score);
+        } finally {
+            exam.lock.unlock();
+        }
+        dirtyExams.add(sheet.getExamId());
+
+        for (int i = 0; i < layout.questionIds.length; i++) {
+            int key = layout.correctOptions[i];
+            if (key < 0) {
+                continue;
+            }
+            int choice = PackedAnswers.choice(sheet.getChoices(), sheet.getAnswered(), i);
+            boolean correct = choice == key;
+            ItemState item = item(layout.questionIds[i]);
+            item.lock.lock();
+            try {
+                item.add(choice, correct, correct ? score - layout.marks[i] : score);
+            } finally {
+                item.lock.unlock();
+            }
+            dirtyItems.add(layout.questionIds[i]);
+        }
+        sheets.increment();
+    }
+
+    public ExamAnalytics exam(Long examId, boolean withQuestions) {
+        catalogCache.exam(examId).orElseThrow(() -> new RuntimeException("Exam not found"));
+        Layout layout = layout(examId);
+        ExamState exam = exam(examId);
+        ExamAnalytics result = new ExamAnalytics();
+        result.setExamId(examId);
+        result.setMaxScore(layout.maxScore);
+        exam.lock.lock();
+        try {
+            result.setAttempts(exam.attempts);
+            if (exam.attempts > 0) {
+                double mean = exam.sum / exam.attempts;
+                result.setMeanScore(round(mean));
+                result.setStdDev(round(Math.sqrt(Math.max(0, exam.sumSq / exam.attempts - mean * mean))));
+                result.setLowestScore(exam.digest.min());
+                result.setHighestScore(exam.digest.max());
+                Map<String, Double> percentiles = new LinkedHashMap<>();
+                for (double q : PERCENTILES) {
+                    percentiles.put("p" + Math.round(q * 100), round(exam.digest.quantile(q)));
+                }
+                result.setPercentiles(percentiles);
+            }
+        } finally {
+            exam.lock.unlock();
+        }
+        if (withQuestions) {
+            List<QuestionAnalytics> questions = new ArrayList<>(layout.questionIds.length);
+            for (long questionId : layout.questionIds) {
+                questions.add(question(questionId));
+            }
+            result.setQuestions(questions);
+        }
+        return result;
+    }
+
+    public QuestionAnalytics question(Long questionId) {
+        ItemState item = items.get(questionId);
+        if (item == null) {
+            // Not cached unless a row exists, so probing ids allocates nothing
+            QuestionStats row = questionStatsRepository.findById(questionId).orElse(null);
+            item = row != null ? item(questionId) : new ItemState();
+        }
+        QuestionAnalytics result = new QuestionAnalytics();
+        result.setQuestionId(questionId);
+        item.lock.lock();
+        try {
+            result.setResponses(item.responses);
+            result.setCorrect(item.correct);
+            result.setOmitted(item.omitted);
+            result.setPValue(item.responses > 0 ? round((double) item.correct / item.responses) : null);
+            result.setDiscrimination(discrimination(item));
+            Map<String, Long> choices = new LinkedHashMap<>();
+            Map<String, Double> rates = new LinkedHashMap<>();
+            for (int o = 0; o < OPTIONS.length; o++) {
+                choices.put(OPTIONS[o], item.options[o]);
+                rates.put(OPTIONS[o], item.responses > 0 ? round((double) item.options[o] / item.responses) : 0.0);
+            }
+            result.setChoices(choices);
+            result.setChoiceRates(rates);
+            result.setMeasuredDifficulty(item.measured);
+        } finally {
+            item.lock.unlock();
+        }
+        return result;
+    }
+
+    // The exam is gone; its item statistics stay with the questions
+    public void examDeleted(Long examId) {
+        layouts.remove(examId);
+        exams.remove(examId);
+        dirtyExams.remove(examId);
+        examStatsRepository.findById(examId).ifPresent(examStatsRepository::delete);
+    }
+
+    public void questionDeleted(Long questionId) {
+        // Rebuilt on next use without the question
+        layouts.clear();
+        items.remove(questionId);
+        dirtyItems.remove(questionId);
+        questionStatsRepository.findById(questionId).ifPresent(questionStatsRepository::delete);
+    }
+
+    @Scheduled(fixedDelayString = "${skillforge.analytics.flush-interval-ms:10000}")
+    public void flush() {
+        long start = System.nanoTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> examInserts = new ArrayList<>();
+        List<Object[]> examUpdates = new ArrayList<>();
+        List<ExamState> inserted = new ArrayList<>();
+        for (Iterator<Long> it = dirtyExams.iterator(); it.hasNext(); ) {
+            Long examId = it.next();
+            it.remove();
+            ExamState exam = exams.get(examId);
+            if (exam == null) {
+                continue;
+            }
+            exam.lock.lock();
+            try {
+                Object[] row = {exam.attempts, exam.sum, exam.sumSq, exam.digest.toBytes(), now, examId};
+                if (exam.persisted) {
+                    examUpdates.add(row);
+                } else {
+                    examInserts.add(row);
+                    inserted.add(exam);
+                }
+            } finally {
+                exam.lock.unlock();
+            }
+        }
+
+        List<Object[]> itemInserts = new ArrayList<>();
+        List<Object[]> itemUpdates = new ArrayList<>();
+        List<ItemState> insertedItems = new ArrayList<>();
+        Map<Long, String> measured = new HashMap<>();
+        for (Iterator<Long> it = dirtyItems.iterator(); it.hasNext(); ) {
+            Long questionId = it.next();
+            it.remove();
+            ItemState item = items.get(questionId);
+            if (item == null) {
+                continue;
+            }
+            item.lock.lock();
+            try {
+                String label = difficulty(item);
+                if (label != null && !label.equals(item.measured)) {
+                    item.measured = label;
+                    measured.put(questionId, label);
+                }
+                Object[] row = {item.responses, item.correct, item.omitted, item.options[0], item.options[1],
+                        item.options[2], item.options[3], item.restSum, item.restSqSum, item.correctRestSum,
+                        item.measured, now, questionId};
+                if (item.persisted) {
+                    itemUpdates.add(row);
+                } else {
+                    itemInserts.add(row);
+                    insertedItems.add(item);
+                }
+            } finally {
+                item.lock.unlock();
+            }
+        }
+
+        if (!examInserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into exam_stats (attempts, score_sum, score_sq_sum, digest, updated_at, exam_id) "
+                    + "values (?, ?, ?, ?, ?, ?)", examInserts);
+            inserted.forEach(exam -> exam.persisted = true);
+        }
+        if (!examUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update exam_stats set attempts = ?, score_sum = ?, score_sq_sum = ?, digest = ?, "
+                    + "updated_at = ? where exam_id = ?", examUpdates);
+        }
+        if (!itemInserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into question_stats (responses, correct, omitted, option_a, option_b, "
+                    + "option_c, option_d, rest_sum, rest_sq_sum, correct_rest_sum, measured_difficulty, updated_at, "
+                    + "question_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", itemInserts);
+            insertedItems.forEach(item -> item.persisted = true);
+        }
+        if (!itemUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update question_stats set responses = ?, correct = ?, omitted = ?, option_a = ?, "
+                    + "option_b = ?, option_c = ?, option_d = ?, rest_sum = ?, rest_sq_sum = ?, correct_rest_sum = ?, "
+                    + "measured_difficulty = ?, updated_at = ? where question_id = ?", itemUpdates);
+        }
+        if (!measured.isEmpty() && difficultyMeasured != null) {
+            difficultyMeasured.accept(measured);
+            difficultyChanges.add(measured.size());
+        }
+        lastFlushMs = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sheets", sheets.sum());
+        stats.put("skippedSheets", skippedSheets.sum());
+        stats.put("loadedExams", exams.size());
+        stats.put("loadedQuestions", items.size());
+        stats.put("pendingWrites", dirtyExams.size() + dirtyItems.size());
+        stats.put("difficultyChanges", difficultyChanges.sum());
+        stats.put("difficultyFeedback", difficultyFeedback);
+        stats.put("lastFlushMs", lastFlushMs);
+        return stats;
+    }
+
+    // EASY / MEDIUM / HARD from the p-value, once enough sheets have the
+    // question; null while feedback is off or the sample is small
+    private String difficulty(ItemState item) {
+        if (!difficultyFeedback || item.responses < minResponses) {
+            return null;
+        }
+        double p = (double) item.correct / item.responses;
+        return p >= easyAbove ? "EASY" : p < hardBelow ? "HARD" : "MEDIUM";
+    }
+
+    // Caller holds the item lock. x is 0/1, so sum x = sum x^2 = correct.
+    private static Double discrimination(ItemState item) {
+        double n = item.responses;
+        double sx = item.correct;
+        double spread = (n * sx - sx * sx) * (n * item.restSqSum - item.restSum * item.restSum);
+        if (n < 2 || spread <= 0) {
+            return null;
+        }
+        return round((n * item.correctRestSum - sx * item.restSum) / Math.sqrt(spread));
+    }
+
+    private Layout layout(Long examId) {
+        Layout layout = layouts.get(examId);
+        if (layout == null) {
+            List<Question> questions = questionRepository.findByExamInOrder(examId);
+            long[] ids = new long[questions.size()];
+            int[] options = new int[questions.size()];
+            int[] marks = new int[questions.size()];
+            int maxScore = 0;
+            for (int i = 0; i < questions.size(); i++) {
+                Question question = questions.get(i);
+                ids[i] = question.getId();
+                options[i] = question.correctOptionIndex();
+                marks[i] = question.getMarks() != null ? question.getMarks() : 1;
+                if (options[i] >= 0) {
+                    maxScore += marks[i];
+                }
+            }
+            preload(ids);
+            layout = new Layout(ids, options, marks, maxScore);
+            Layout existing = layouts.putIfAbsent(examId, layout);
+            if (existing != null) {
+                layout = existing;
+            }
+        }
+        return layout;
+    }
+
+    // Loads the stored rows of an exam's questions in one query
+    private void preload(long[] ids) {
+        List<Long> missing = new ArrayList<>();
+        for (long id : ids) {
+            if (!items.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, QuestionStats> rows = new HashMap<>();
+        for (QuestionStats row : questionStatsRepository.findAllById(missing)) {
+            rows.put(row.getQuestionId(), row);
+        }
+        for (Long id : missing) {
+            ItemState item = new ItemState();
+            item.load(rows.get(id));
+            items.putIfAbsent(id, item);
+        }
+    }
+
+    private ExamState exam(Long examId) {
+        ExamState exam = exams.computeIfAbsent(examId, id -> new ExamState());
+        if (!exam.loaded) {
+            exam.lock.lock();
+            try {
+                if (!exam.loaded) {
+                    examStatsRepository.findById(examId).ifPresent(exam::load);
+                    exam.loaded = true;
+                }
+            } finally {
+                exam.lock.unlock();
+            }
+        }
+        return exam;
+    }
+
+    private ItemState item(long questionId) {
+        ItemState item = items.computeIfAbsent(questionId, id -> new ItemState());
+        if (!item.loaded) {
+            item.lock.lock();
+            try {
+                if (!item.loaded) {
+                    item.load(questionStatsRepository.findById(questionId).orElse(null));
+                }
+            } finally {
+                item.lock.unlock();
+            }
+        }
+        return item;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private record Layout(long[] questionIds, int[] correctOptions, int[] marks, int maxScore) {
+    }
+
+    private static final class ExamState {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile boolean loaded;
+        boolean persisted;
+        long attempts;
+        double sum;
+        double sumSq;
+        TDigest digest = new TDigest(COMPRESSION);
+
+        void add(double score) {
+            attempts++;
+            sum += score;
+            sumSq += score * score;
+            digest.add(score);
+        }
+
+        void load(ExamStats row) {
+            persisted = true;
+            attempts = row.getAttempts();
+            sum = row.getScoreSum();
+            sumSq = row.getScoreSqSum();
+            if (row.getDigest() != null) {
+                digest = TDigest.fromBytes(row.getDigest());
+            }
+        }
+    }
+
+    private static final class ItemState {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile boolean loaded;
+        boolean persisted;
+        long responses;
+        long correct;
+        long omitted;
+        final long[] options = new long[4];
+        double restSum;
+        double restSqSum;
+        double correctRestSum;
+        String measured;
+
+        void add(int choice, boolean right, double rest) {
+            responses++;
+            if (choice < 0) {
+                omitted++;
+            } else {
+                options[choice]++;
+            }
+            restSum += rest;
+            restSqSum += rest * rest;
+            if (right) {
+                correct++;
+                correctRestSum += rest;
+            }
+        }
+
+        // Null when the question has no stored row yet
+        void load(QuestionStats row) {
+            if (row != null) {
+                persisted = true;
+                responses = row.getResponses();
+                correct = row.getCorrect();
+                omitted = row.getOmitted();
+                options[0] = row.getOptionA();
+                options[1] = row.getOptionB();
+                options[2] = row.getOptionC();
+                options[3] = row.getOptionD();
+                restSum = row.getRestSum();
+                restSqSum = row.getRestSqSum();
+                correctRestSum = row.getCorrectRestSum();
+                measured = row.getMeasuredDifficulty();
+            }
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillforge.exception.ServiceUnavailableException;
+import com.skillforge.model.Answer;
+import com.skillforge.model.QuarantinedAnswer;
+import com.skillforge.repository.AnswerRepository;
+import com.skillforge.repository.QuarantinedAnswerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind path for answer submissions.
+//
+//   request -> bounded queue -> journal thread -> ack
+//                                     |
+//                                     v
+//                          bounded backlog -> database thread
+//
+// The journal thread drains whatever is queued, appends it to the local
+// journal with a single write and fsync, and only then completes the
+// callers' futures. The database thread inserts journaled answers in JDBC
+// batches, one transaction per batch, in sequence order, so the highest
+// journal_seq in the answers table is a watermark: on startup every journal
+// record above it is replayed. A full queue refuses new answers with a 503;
+// a full backlog stalls the journal thread, which fills the queue.
+//
+// A batch is tried max-attempts times, then row by row: a row the database
+// refuses outright (a constraint or a value it cannot store) goes to the
+// answer_quarantine table with the error, so it cannot hold up the rows
+// behind it. Other failures (the database is unreachable) are retried
+// until they clear; those rows are still in the journal meanwhile.
+@Service
+public class AnswerIngestionService implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AnswerIngestionService.class);
+    private static final int MAX_GROUP = 1024;
+    private static final HibernateJpaDialect DIALECT = new HibernateJpaDialect();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AnswerRepository answerRepository;
+    private final QuarantinedAnswerRepository quarantineRepository;
+    private final TransactionTemplate transaction;
+    private final AnswerJournal journal;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final BlockingQueue<Pending> queue;
+    private final BlockingQueue<AnswerJournal.Record> backlog;
+
+    private final ReentrantLock persistedLock = new ReentrantLock();
+    private final Condition persistedAdvanced = persistedLock.newCondition();
+    private volatile long journaledSeq;
+    private volatile long persistedSeq;
+    // Sequence of each attempt's latest acknowledged answer, so completing
+    // an attempt waits for its own answers only. An attempt missing here
+    // (dropped when idle) waits for everything acknowledged.
+    private final Cache<Long, Long> lastSeqByAttempt = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofMinutes(30))
+        .build();
+    private volatile boolean running;
+    private Thread journalThread;
+    private Thread databaseThread;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder groupCommits = new LongAdder();
+    private final LongAdder databaseBatches = new LongAdder();
+    private final LongAdder databaseFailures = new LongAdder();
+    private final LongAdder quarantined = new LongAdder();
+    private long replayed;
+
+    public AnswerIngestionService(AnswerRepository answerRepository, QuarantinedAnswerRepository quarantineRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${skillforge.answers.journal-dir:data/answer-journal}") String journalDir,
+                                  @Value("${skillforge.answers.segment-bytes:67108864}") long segmentBytes,
+                                  @Value("${skillforge.answers.fsync:true}") boolean fsync,
+                                  @Value("${skillforge.answers.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${skillforge.answers.backlog-capacity:100000}") int backlogCapacity,
+                                  @Value("${skillforge.answers.batch-size:500}") int batchSize,
+                                  @Value("${skillforge.answers.max-attempts:5}") int maxAttempts) {
+        this.answerRepository = answerRepository;
+        this.quarantineRepository = quarantineRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.journal = new AnswerJournal(Path.of(journalDir), segmentBytes, fsync);
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.backlog = new ArrayBlockingQueue<>(backlogCapacity);
+    }
+
+    // Replays the journal before the web server starts taking answers.
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        try {
+            Long stored = answerRepository.maxJournalSeq();
+            Long held = quarantineRepository.maxJournalSeq();
+            long watermark = Math.max(stored != null ? stored : 0, held != null ? held : 0);
+            List<AnswerJournal.Record> pending = new ArrayList<>(batchSize);
+            long[] count = new long[1];
+            long lastSeq = journal.recover(record -> {
+                if (record.seq() > watermark) {
+                    pending.add(record);
+                    count[0]++;
+                    if (pending.size() >= batchSize) {
+                        replay(pending);
+                    }
+                }
+            });
+            if (!pending.isEmpty()) {
+                replay(pending);
+            }
+            replayed = count[0];
+            journal.deleteAll();
+            journaledSeq = Math.max(watermark, lastSeq);
+            persistedSeq = journaledSeq;
+            journal.open(journaledSeq + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Answer journal recovery failed", e);
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} journaled answers in {} ms", replayed, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        running = true;
+        journalThread = new Thread(this::journalLoop, "answer-journal");
+        databaseThread = new Thread(this::databaseLoop, "answer-db-writer");
+        journalThread.setDaemon(true);
+        databaseThread.setDaemon(true);
+        journalThread.start();
+        databaseThread.start();
+    }
+
+    // Completes with the answer's journal sequence once it is on disk.
+    // Throws ServiceUnavailableException when the queue is full.
+    public CompletableFuture<Long> submit(Answer answer) {
+        if (!running) {
+            throw new ServiceUnavailableException("Answer ingestion is not running");
+        }
+        Pending pending = new Pending(answer, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many answers in flight, please retry shortly");
+        }
+        accepted.increment();
+        return pending.ack();
+    }
+
+    // Blocks until every answer acknowledged so far for the attempt is in
+    // the database.
+    public void awaitPersisted(Long attemptId, long timeoutMs) {
+        Long last = attemptId != null ? lastSeqByAttempt.getIfPresent(attemptId) : null;
+        long target = last != null ? last : journaledSeq;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        persistedLock.lock();
+        try {
+            while (persistedSeq < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new ServiceUnavailableException("Answers are still being saved, please retry shortly");
+                }
+                persistedAdvanced.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for answers to be saved");
+        } finally {
+            persistedLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("queueDepth", queue.size());
+        stats.put("backlog", backlog.size());
+        stats.put("journaledSeq", journaledSeq);
+        stats.put("persistedSeq", persistedSeq);
+        stats.put("groupCommits", groupCommits.sum());
+        stats.put("databaseBatches", databaseBatches.sum());
+        stats.put("databaseFailures", databaseFailures.sum());
+        stats.put("quarantined", quarantined.sum());
+        stats.put("journalSegments", journal.segmentCount());
+        stats.put("replayedAtStartup", replayed);
+        return stats;
+    }
+
+    private void journalLoop() {
+        List<Pending> group = new ArrayList<>(MAX_GROUP);
+        List<AnswerJournal.Record> records = new ArrayList<>(MAX_GROUP);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP - 1);
+                long seq = journaledSeq;
+                for (Pending pending : group) {
+                    records.add(toRecord(++seq, pending.answer()));
+                }
+                try {
+                    journal.append(records);
+                } catch (IOException e) {
+                    log.error("Answer journal append failed", e);
+                    ServiceUnavailableException failure = new ServiceUnavailableException("Answer could not be saved, please retry");
+                    group.forEach(pending -> pending.ack().completeExceptionally(failure));
+                    continue;
+                }
+                journaledSeq = seq;
+                groupCommits.increment();
+                // Recorded before the acks, so a caller who has its ack finds it
+                for (AnswerJournal.Record record : records) {
+                    lastSeqByAttempt.asMap().merge(record.attemptId(), record.seq(), Math::max);
+                }
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).ack().complete(records.get(i).seq());
+                }
+                for (AnswerJournal.Record record : records) {
+                    backlog.put(record);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+                records.clear();
+            }
+        }
+    }
+
+    private void databaseLoop() {
+        List<AnswerJournal.Record> batch = new ArrayList<>(batchSize);
+        while (running || !backlog.isEmpty() || journalThread.isAlive()) {
+            try {
+                AnswerJournal.Record first = backlog.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                backlog.drainTo(batch, batchSize - 1);
+                long seq = batch.get(batch.size() - 1).seq();
+                persist(batch);
+                databaseBatches.increment();
+                persistedLock.lock();
+                try {
+                    persistedSeq = seq;
+                    persistedAdvanced.signalAll();
+                } finally {
+                    persistedLock.unlock();
+                }
+                journal.release(seq);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Returns once every record is in the answers table or in quarantine,
+    // emptying the batch
+    private void persist(List<AnswerJournal.Record> batch) throws InterruptedException {
+        long backoffMs = 100;
+        while (true) {
+            try {
+                store(batch);
+                return;
+            } catch (RuntimeException e) {
+                // Still safe in the journal; keep retrying in order
+                log.warn("Answers could not be stored, retrying in {} ms: {}", backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            }
+        }
+    }
+
+    private void replay(List<AnswerJournal.Record> batch) {
+        try {
+            persist(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying the answer journal", e);
+        }
+    }
+
+    // The batch as a whole, up to max-attempts times, then one row at a
+    // time. Rows are removed from the batch as they are stored; a failure
+    // other than a refused row is thrown with the rest still in it.
+    private void store(List<AnswerJournal.Record> batch) throws InterruptedException {
+        long backoffMs = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                batch.clear();
+                return;
+            } catch (RuntimeException e) {
+                databaseFailures.increment();
+                if (attempt >= maxAttempts || refused(e)) {
+                    log.warn("Answer batch insert failed {} times, storing its {} rows one by one: {}",
+                            attempt, batch.size(), e.getMessage());
+                    break;
+                }
+                log.warn("Answer batch insert failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            }
+        }
+        for (Iterator<AnswerJournal.Record> it = batch.iterator(); it.hasNext(); ) {
+            AnswerJournal.Record record = it.next();
+            try {
+                insert(List.of(record));
+            } catch (RuntimeException e) {
+                if (!refused(e)) {
+                    throw e;
+                }
+                quarantine(record, e);
+            }
+            it.remove();
+        }
+    }
+
+    private void quarantine(AnswerJournal.Record record, RuntimeException cause) {
+        String error = String.valueOf(NestedExceptionUtils.getMostSpecificCause(cause).getMessage());
+        Answer answer = toAnswer(record);
+        QuarantinedAnswer row = new QuarantinedAnswer();
+        row.setJournalSeq(record.seq());
+        row.setAttemptId(answer.getAttemptId());
+        row.setUserId(answer.getUserId());
+        row.setQuestionId(answer.getQuestionId());
+        row.setSelectedAnswer(answer.getSelectedAnswer());
+        row.setCorrect(answer.getCorrect());
+        row.setResponseTimeMs(answer.getResponseTimeMs());
+        row.setAnsweredAt(answer.getAnsweredAt());
+        row.setError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        quarantineRepository.save(row);
+        quarantined.increment();
+        log.error("Quarantined journaled answer {} (attempt {}, question {}): {}", record.seq(),
+                record.attemptId(), record.questionId(), error);
+    }
+
+    // The database rejected the data itself, so retrying cannot help
+    private static boolean refused(RuntimeException e) {
+        DataAccessException translated = e instanceof DataAccessException dae ? dae : DIALECT.translateExceptionIfPossible(e);
+        return translated instanceof DataIntegrityViolationException;
+    }
+
+    private void insert(List<AnswerJournal.Record> records) {
+        transaction.executeWithoutResult(status -> {
+            for (AnswerJournal.Record record : records) {
+                entityManager.persist(toAnswer(record));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static AnswerJournal.Record toRecord(long seq, Answer answer) {
+        byte[] text = answer.getSelectedAnswer() != null
+                ? answer.getSelectedAnswer().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (text.length > AnswerJournal.MAX_ANSWER_BYTES) {
+            text = Arrays.copyOf(text, AnswerJournal.MAX_ANSWER_BYTES);
+        }
+        long answeredAt = answer.getAnsweredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new AnswerJournal.Record(seq, answer.getAttemptId(), answer.getUserId(), answer.getQuestionId(),
+                answeredAt, answer.getResponseTimeMs() != null ? answer.getResponseTimeMs() : -1,
+                Boolean.TRUE.equals(answer.getCorrect()), text);
+    }
+
+    private static Answer toAnswer(AnswerJournal.Record record) {
+        Answer answer = new Answer();
+        answer.setJournalSeq(record.seq());
+        answer.setAttemptId(record.attemptId());
+        answer.setUserId(record.userId());
+        answer.setQuestionId(record.questionId());
+        answer.setSelectedAnswer(record.answer());
+        answer.setCorrect(record.correct());
+        answer.setResponseTimeMs(record.responseTimeMs() >= 0 ? record.responseTimeMs() : null);
+        answer.setAnsweredAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.answeredAt()), ZoneId.systemDefault()));
+        return answer;
+    }
+
+    // Stops taking answers, journals what is queued and gives the database
+    // thread a few seconds to catch up; anything left is replayed next start.
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        if (journalThread != null) {
+            journalThread.join(5000);
+        }
+        if (databaseThread != null) {
+            databaseThread.join(10000);
+        }
+        journal.close();
+    }
+
+    private record Pending(Answer answer, CompletableFuture<Long> ack) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.skillforge.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only answer log split into segment files named after their first
+// sequence number. Each record is [length][crc32c][payload]; a torn or
+// corrupt tail left by a crash is detected by the CRC and cut off on
+// recovery. Only the ingestion writer thread appends.
+class AnswerJournal implements AutoCloseable {
+    private static final String PREFIX = "answers-";
+    private static final String SUFFIX = ".journal";
+    private static final int HEADER_BYTES = 8;
+    // seq, attempt, user, question, answeredAt, responseTime, correct, answer length
+    private static final int FIXED_BYTES = 8 + 8 + 8 + 8 + 8 + 4 + 1 + 2;
+    static final int MAX_ANSWER_BYTES = 255;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    // Closed segments, oldest first, with the last sequence each holds
+    private final ConcurrentLinkedDeque<Segment> closed = new ConcurrentLinkedDeque<>();
+
+    private FileChannel channel;
+    private Path currentPath;
+    private long currentLastSeq;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    AnswerJournal(Path directory, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create answer journal directory " + directory, e);
+        }
+    }
+
+    // Reads every valid record in sequence order, truncating any segment at
+    // its first bad record. Returns the highest sequence seen, or 0.
+    long recover(Consumer<Record> consumer) throws IOException {
+        long lastSeq = 0;
+        for (Path segment : segments()) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer data = ByteBuffer.allocate((int) Math.min(in.size(), Integer.MAX_VALUE));
+                while (data.hasRemaining() && in.read(data) >= 0) {
+                    // Segments are bounded by segmentBytes, so read each one whole
+                }
+                data.flip();
+                long validBytes = 0;
+                while (data.remaining() >= HEADER_BYTES) {
+                    int length = data.getInt();
+                    int crc = data.getInt();
+                    if (length < FIXED_BYTES || length > FIXED_BYTES + MAX_ANSWER_BYTES || data.remaining() < length) {
+                        break;
+                    }
+                    ByteBuffer payload = data.slice(data.position(), length);
+                    if (crc32(payload) != crc) {
+                        break;
+                    }
+                    Record record = decode(payload);
+                    data.position(data.position() + length);
+                    validBytes = data.position();
+                    lastSeq = Math.max(lastSeq, record.seq());
+                    consumer.accept(record);
+                }
+                if (validBytes < in.size()) {
+                    in.truncate(validBytes);
+                }
+            }
+        }
+        return lastSeq;
+    }
+
+    // Removes every segment; only valid once all records are in the database.
+    void deleteAll() throws IOException {
+        for (Path segment : segments()) {
+            Files.deleteIfExists(segment);
+        }
+        closed.clear();
+    }
+
+    void open(long firstSeq) throws IOException {
+        currentLastSeq = firstSeq - 1;
+        currentPath = directory.resolve(PREFIX + String.format("%020d", firstSeq) + SUFFIX);
+        channel = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Writes the records with one write and, when enabled, one fsync.
+    // On failure none of them count as written.
+    void append(List<Record> records) throws IOException {
+        if (channel.size() >= segmentBytes) {
+            roll(records.get(0).seq());
+        }
+        int needed = 0;
+        for (Record record : records) {
+            needed += HEADER_BYTES + FIXED_BYTES + record.answerBytes().length;
+        }
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(needed) << 1);
+        }
+        buffer.clear();
+        for (Record record : records) {
+            int start = buffer.position();
+            buffer.position(start + HEADER_BYTES);
+            encode(record, buffer);
+            int length = buffer.position() - start - HEADER_BYTES;
+            buffer.putInt(start, length);
+            buffer.putInt(start + 4, crc32(buffer.slice(start + HEADER_BYTES, length)));
+        }
+        buffer.flip();
+        long sizeBefore = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // Drop the partial group so later appends are not hidden behind a bad record
+            channel.truncate(sizeBefore);
+            throw e;
+        }
+        currentLastSeq = records.get(records.size() - 1).seq();
+    }
+
+    // Deletes closed segments whose records are all at or below seq.
+    void release(long seq) {
+        for (Segment segment = closed.peekFirst(); segment != null && segment.lastSeq() <= seq; segment = closed.peekFirst()) {
+            closed.pollFirst();
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                // Left for the next recovery, which skips records already stored
+            }
+        }
+    }
+
+    int segmentCount() {
+        return closed.size() + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void roll(long nextSeq) throws IOException {
+        channel.close();
+        closed.addLast(new Segment(currentPath, currentLastSeq));
+        open(nextSeq);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIX) && p.getFileName().toString().endsWith(SUFFIX))
+                    .toList());
+            segments.sort(Comparator.comparing(p -> p.getFileName().toString()));
+            return segments;
+        }
+    }
+
+    private static void encode(Record record, ByteBuffer out) {
+        out.putLong(record.seq());
+        out.putLong(record.attemptId());
+        out.putLong(record.userId());
+        out.putLong(record.questionId());
+        out.putLong(record.answeredAt());
+        out.putInt(record.responseTimeMs());
+        out.put((byte) (record.correct() ? 1 : 0));
+        out.putShort((short) record.answerBytes().length);
+        out.put(record.answerBytes());
+    }
+
+    private static Record decode(ByteBuffer in) {
+        long seq = in.getLong();
+        long attemptId = in.getLong();
+        long userId = in.getLong();
+        long questionId = in.getLong();
+        long answeredAt = in.getLong();
+        int responseTimeMs = in.getInt();
+        boolean correct = in.get() == 1;
+        byte[] answer = new byte[in.getShort()];
+        in.get(answer);
+        return new Record(seq, attemptId, userId, questionId, answeredAt, responseTimeMs, correct, answer);
+    }
+
+    private static int crc32(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.duplicate());
+        return (int) crc.getValue();
+    }
+
+    // responseTimeMs is -1 when not given; answerBytes is UTF-8, at most
+    // MAX_ANSWER_BYTES long.
+    record Record(long seq, long attemptId, long userId, long questionId, long answeredAt,
+                  int responseTimeMs, boolean correct, byte[] answerBytes) {
+
+        String answer() {
+            return answerBytes.length == 0 ? null : new String(answerBytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private record Segment(Path path, long lastSeq) {
+    }
+}
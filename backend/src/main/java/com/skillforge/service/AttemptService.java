@@ -0,0 +1,427 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillforge.dto.AnswerResult;
+import com.skillforge.dto.AnswerSubmission;
+import com.skillforge.dto.ExamView;
+import com.skillforge.dto.NextQuestion;
+import com.skillforge.dto.SheetSubmission;
+import com.skillforge.model.Answer;
+import com.skillforge.model.AnswerSheet;
+import com.skillforge.model.Exam;
+import com.skillforge.model.ExamAttempt;
+import com.skillforge.model.Question;
+import com.skillforge.repository.AnswerRepository;
+import com.skillforge.repository.AnswerSheetRepository;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.repository.ExamAttemptRepository;
+import com.skillforge.repository.ExamRepository;
+import com.skillforge.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class AttemptService {
+    private static final Logger log = LoggerFactory.getLogger(AttemptService.class);
+
+    @Autowired
+    private ExamAttemptRepository attemptRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AdaptiveEngine adaptiveEngine;
+
+    @Autowired
+    private AnswerIngestionService answerIngestionService;
+
+    @Autowired
+    private GradingService gradingService;
+
+    @Autowired
+    private AnswerSheetRepository sheetRepository;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ExamAdmissionService examAdmission;
+
+    @Autowired
+    private ExamSessions examSessions;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private GuardianNotifier guardianNotifier;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Open attempts, so answering does not re-read the attempt row. Bounded
+    // and dropped when idle; a dropped attempt is read again on its next use.
+    private final Cache<Long, OpenAttempt> open = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofMinutes(30))
+        .build();
+
+    // Starts of one exam by one learner run one at a time, so two concurrent
+    // requests cannot both find no open sitting and each open one
+    private final ReentrantLock[] startLocks = Stream.generate(ReentrantLock::new).limit(64)
+        .toArray(ReentrantLock[]::new);
+
+    @PostConstruct
+    void registerAutoSubmit() {
+        examSessions.onExpiry(this::autoSubmit);
+    }
+
+    // A learner has at most one open sitting of an exam: starting it again
+    // returns that sitting rather than opening another
+    public ExamAttempt startAttempt(Long userId, Long courseId, Long examId) {
+        if (examId == null) {
+            return begin(userId, courseId, null);
+        }
+        ReentrantLock lock = startLocks[Math.floorMod(Objects.hash(userId, examId), startLocks.length)];
+        lock.lock();
+        try {
+            return attemptRepository.findFirstByUserIdAndExamIdAndCompletedAtIsNullOrderByIdDesc(userId, examId)
+                .orElseGet(() -> begin(userId, courseId, examId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ExamAttempt begin(Long userId, Long courseId, Long examId) {
+        // Scheduled exams around their start are metered and already known
+        Long scheduledCourse = examId != null ? examAdmission.admit(userId, examId) : null;
+        Integer duration = null;
+        if (scheduledCourse != null) {
+            courseId = scheduledCourse;
+            duration = catalogCache.exam(examId).map(ExamView::duration).orElse(null);
+        } else if (examId != null) {
+            Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new RuntimeException("Exam not found"));
+            if (exam.getCourse() == null) {
+                throw new RuntimeException("Exam has no course");
+            }
+            if (exam.getStartTime() != null && exam.getStartTime().isAfter(LocalDateTime.now())) {
+                throw new RuntimeException("Exam starts at " + exam.getStartTime());
+            }
+            courseId = exam.getCourse().getId();
+            duration = exam.getDuration();
+        } else if (courseId == null || !courseRepository.existsById(courseId)) {
+            throw new RuntimeException("Course not found");
+        }
+        if (examId != null && gradingService.questionCount(examId) == 0) {
+            throw new RuntimeException("Exam has no questions");
+        }
+        ExamAttempt attempt = new ExamAttempt();
+        attempt.setUserId(userId);
+        attempt.setCourseId(courseId);
+        attempt.setExamId(examId);
+        if (duration != null && duration > 0) {
+            attempt.setDeadlineAt(attempt.getStartedAt().plusMinutes(duration));
+        }
+        ExamAttempt saved = attemptRepository.save(attempt);
+        open.put(saved.getId(), new OpenAttempt(userId, courseId));
+        examSessions.open(saved);
+        statisticsService.attemptStarted(courseId);
+        return saved;
+    }
+
+    // Null when the learner has answered every question in the course.
+    public NextQuestion nextQuestion(Long userId, Long attemptId) {
+        OpenAttempt attempt = openAttempt(userId, attemptId);
+        Long questionId = adaptiveEngine.nextQuestion(userId, attempt.courseId());
+        if (questionId == null) {
+            return null;
+        }
+        Question question = questionRepository.findById(questionId)
+            .orElseThrow(() -> new RuntimeException("Question not found"));
+        double ability = adaptiveEngine.ability(userId);
+        double rating = adaptiveEngine.questionRating(questionId);
+
+        NextQuestion next = new NextQuestion();
+        next.setAttemptId(attemptId);
+        next.setQuestionId(question.getId());
+        next.setQuestionText(question.getQuestionText());
+        next.setOptionA(question.getOptionA());
+        next.setOptionB(question.getOptionB());
+        next.setOptionC(question.getOptionC());
+        next.setOptionD(question.getOptionD());
+        next.setTopic(question.getTopic());
+        next.setDifficulty(question.getDifficulty());
+        next.setMarks(question.getMarks());
+        next.setQuestionRating(rating);
+        next.setAbility(ability);
+        next.setExpectedSuccess(adaptiveEngine.expected(ability, rating));
+        return next;
+    }
+
+    // Completes once the answer is in the local journal; the database insert
+    // happens behind it. Ratings are updated on acknowledgement, on the
+    // journal thread, so the learner is loaded here first.
+    public CompletableFuture<AnswerResult> submitAnswer(Long userId, AnswerSubmission submission) {
+        if (submission.getQuestionId() == null) {
+            throw new RuntimeException("questionId is required");
+        }
+        OpenAttempt attempt = openAttempt(userId, submission.getAttemptId());
+        examSessions.checkTime(submission.getAttemptId());
+        boolean correct = adaptiveEngine.isCorrect(attempt.courseId(), submission.getQuestionId(), submission.getAnswer());
+        adaptiveEngine.preload(userId);
+
+        Answer answer = new Answer();
+        answer.setAttemptId(submission.getAttemptId());
+        answer.setUserId(userId);
+        answer.setQuestionId(submission.getQuestionId());
+        answer.setSelectedAnswer(submission.getAnswer());
+        answer.setCorrect(correct);
+        answer.setResponseTimeMs(submission.getResponseTimeMs());
+        return answerIngestionService.submit(answer).thenApply(sequence -> {
+            AnswerResult result = new AnswerResult();
+            result.setSequence(sequence);
+            result.setQuestionId(submission.getQuestionId());
+            result.setCorrect(correct);
+            AdaptiveEngine.Outcome outcome;
+            try {
+                outcome = adaptiveEngine.record(userId, submission.getQuestionId(), correct);
+            } catch (RuntimeException e) {
+                // The answer is durable; only the live ratings missed it
+                log.error("Rating update failed for answer {} (user {}, question {})", sequence, userId,
+                    submission.getQuestionId(), e);
+                return result;
+            }
+            result.setRated(outcome.rated());
+            result.setExpectedSuccess(outcome.expected());
+            result.setAbilityBefore(outcome.abilityBefore());
+            result.setAbility(outcome.ability());
+            result.setQuestionRating(outcome.questionRating());
+            return result;
+        });
+    }
+
+    public ExamAttempt completeAttempt(Long userId, Long attemptId) {
+        openAttempt(userId, attemptId);
+        boolean timed = examSessions.claim(attemptId);
+        try {
+            return complete(attemptId);
+        } catch (RuntimeException e) {
+            if (timed) {
+                examSessions.release(attemptId);
+            }
+            throw e;
+        }
+    }
+
+    private ExamAttempt complete(Long attemptId) {
+        // Scores are counted from the answers table
+        answerIngestionService.awaitPersisted(attemptId, 10_000);
+        ExamAttempt row = attemptRepository.findById(attemptId)
+            .orElseThrow(() -> new RuntimeException("Attempt not found"));
+        AnswerSheet sheet = null;
+        if (row.getExamId() != null) {
+            // Exam attempts are kept as a packed sheet and graded against the key
+            sheet = gradingService.sheetFromAnswers(row);
+        } else {
+            row.setAnswered((int) answerRepository.countByAttemptId(attemptId));
+            row.setCorrect((int) answerRepository.countByAttemptIdAndCorrectTrue(attemptId));
+            row.setScore((int) answerRepository.sumCorrectMarks(attemptId));
+        }
+        ExamAttempt completed = finish(row, sheet);
+        if (completed == null) {
+            throw new RuntimeException("Attempt already completed");
+        }
+        return completed;
+    }
+
+    // Submits a whole exam at once, one character per question, and
+    // completes the attempt with its grade.
+    @Transactional
+    public AnswerSheet submitSheet(Long userId, Long examId, SheetSubmission submission) {
+        openAttempt(userId, submission.getAttemptId());
+        ExamAttempt row = attemptRepository.findById(submission.getAttemptId())
+            .orElseThrow(() -> new RuntimeException("Attempt not found"));
+        if (!examId.equals(row.getExamId())) {
+            throw new RuntimeException("Attempt is not for this exam");
+        }
+        boolean timed = examSessions.claim(row.getId());
+        try {
+            AnswerSheet sheet = gradingService.sheet(row, submission.getAnswers());
+            if (finish(row, sheet) == null) {
+                throw new RuntimeException("Attempt already completed");
+            }
+            return sheet;
+        } catch (RuntimeException e) {
+            if (timed) {
+                examSessions.release(row.getId());
+            }
+            throw e;
+        }
+    }
+
+    // Starts a sitting of the exam and returns its session (deadline and
+    // time left when the exam has a duration)
+    public Map<String, Object> startSession(Long userId, Long examId) {
+        ExamAttempt attempt = startAttempt(userId, null, examId);
+        return session(userId, examId, attempt.getId(), false);
+    }
+
+    // The learner's client calls this periodically; the reply carries the
+    // time left, or how the attempt ended
+    public Map<String, Object> heartbeat(Long userId, Long examId, Long attemptId) {
+        return session(userId, examId, attemptId, true);
+    }
+
+    private Map<String, Object> session(Long userId, Long examId, Long attemptId, boolean heartbeat) {
+        ExamSessions.Session session = examSessions.get(attemptId);
+        if (session != null) {
+            if (session.userId() != userId || session.examId() != examId) {
+                throw new RuntimeException("Attempt not found");
+            }
+            if (heartbeat) {
+                examSessions.heartbeat(attemptId);
+            }
+            return session.info();
+        }
+        ExamAttempt row = attemptRepository.findById(attemptId)
+            .filter(attempt -> attempt.getUserId().equals(userId) && examId.equals(attempt.getExamId()))
+            .orElseThrow(() -> new RuntimeException("Attempt not found"));
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("attemptId", row.getId());
+        info.put("examId", row.getExamId());
+        info.put("status", row.getCompletedAt() == null ? "OPEN"
+            : Boolean.TRUE.equals(row.getAutoSubmitted()) ? "AUTO_SUBMITTED" : "SUBMITTED");
+        info.put("startedAt", row.getStartedAt());
+        info.put("deadlineAt", row.getDeadlineAt());
+        info.put("completedAt", row.getCompletedAt());
+        info.put("score", row.getScore());
+        return info;
+    }
+
+    // Deadline passed: grades what was answered, as completeAttempt would
+    private void autoSubmit(ExamSessions.Session session) {
+        ExamAttempt row = attemptRepository.findById(session.attemptId()).orElse(null);
+        if (row == null || row.getCompletedAt() != null) {
+            return;
+        }
+        answerIngestionService.awaitPersisted(row.getId(), 10_000);
+        row.setAutoSubmitted(true);
+        // Null when a submit got there first
+        finish(row, row.getExamId() != null ? gradingService.sheetFromAnswers(row) : null);
+    }
+
+    // Completes the attempt once. The completing update only matches a row
+    // that is still open, so a second submit, or one racing the expiry,
+    // updates nothing and runs none of the side effects; it gets null.
+    private ExamAttempt finish(ExamAttempt row, AnswerSheet sheet) {
+        LocalDateTime completedAt = LocalDateTime.now();
+        // The sheet, the attempt and the guardians' outbox rows commit together
+        ExamAttempt saved = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("update exam_attempts set completed_at = ? where id = ? and completed_at is null",
+                    completedAt, row.getId()) == 0) {
+                return null;
+            }
+            if (sheet != null) {
+                row.setAnswered(sheet.getAnsweredCount());
+                row.setCorrect(sheet.getCorrect());
+                row.setScore(sheet.getScore());
+            }
+            row.setCompletedAt(completedAt);
+            if (sheet != null) {
+                sheetRepository.save(sheet);
+            }
+            ExamAttempt completed = attemptRepository.save(row);
+            if (sheet != null) {
+                guardianNotifier.examCompleted(completed, gradingService.maxScore(completed.getExamId()));
+            }
+            return completed;
+        });
+        if (saved == null) {
+            return null;
+        }
+        open.invalidate(row.getId());
+        examSessions.closed(row.getId(), Boolean.TRUE.equals(row.getAutoSubmitted()));
+        // Counted once the completion has committed: submitSheet runs in an
+        // outer transaction that can still roll back after this returns
+        Runnable count = () -> {
+            statisticsService.attemptCompleted(row.getCourseId());
+            if (sheet != null) {
+                analyticsService.sheetGraded(sheet);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count.run();
+                }
+            });
+        } else {
+            count.run();
+        }
+        return saved;
+    }
+
+    public List<ExamAttempt> getAttempts(Long userId) {
+        return attemptRepository.findByUserIdOrderByIdDesc(userId);
+    }
+
+    private OpenAttempt openAttempt(Long userId, Long attemptId) {
+        if (attemptId == null) {
+            throw new RuntimeException("attemptId is required");
+        }
+        OpenAttempt attempt = open.getIfPresent(attemptId);
+        if (attempt == null) {
+            ExamAttempt row = attemptRepository.findById(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt not found"));
+            if (row.getCompletedAt() != null) {
+                throw new RuntimeException("Attempt already completed");
+            }
+            attempt = new OpenAttempt(row.getUserId(), row.getCourseId());
+            open.put(attemptId, attempt);
+        }
+        if (!attempt.userId().equals(userId)) {
+            throw new RuntimeException("Attempt not found");
+        }
+        return attempt;
+    }
+
+    private record OpenAttempt(Long userId, Long courseId) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skillforge.dto.CursorPage;
+import com.skillforge.dto.ExamView;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.model.Course;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.repository.ExamRepository;
+import com.skillforge.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+// In-process read cache for course and exam definitions and the questions
+// of an exam. Concurrent misses on one key share a single load; entries
+// older than the refresh interval are served while one background reload
+// runs, and nothing outlives the expiry. CourseService, ExamService and
+// QuestionService invalidate the affected entries after every write.
+//
+// Loads run on Spring's application task executor rather than inside the
+// cache's map lock, so a caller waiting on a cold key only parks (and does
+// not pin its carrier when requests run on virtual threads).
+//
+// Course entities have no associations and are cached as they are; exams
+// and questions are cached as their read models.
+@Service
+public class CatalogCache {
+    private final CourseRepository courseRepository;
+    private final ExamRepository examRepository;
+    private final QuestionRepository questionRepository;
+
+    private final AsyncLoadingCache<Long, Optional<Course>> courses;
+    private final AsyncLoadingCache<PageKey, CursorPage<Course>> coursePages;
+    private final AsyncLoadingCache<Long, Optional<ExamView>> exams;
+    private final AsyncLoadingCache<PageKey, CursorPage<ExamView>> examPages;
+    private final AsyncLoadingCache<Long, List<ExamView>> examsByCourse;
+    private final AsyncLoadingCache<Long, List<QuestionView>> examQuestions;
+    private final Map<String, AsyncLoadingCache<?, ?>> all = new LinkedHashMap<>();
+
+    public CatalogCache(CourseRepository courseRepository, ExamRepository examRepository,
+                        QuestionRepository questionRepository,
+                        @Qualifier("applicationTaskExecutor") Executor loader,
+                        @Value("${skillforge.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${skillforge.cache.expire-after-write-ms:600000}") long expireMs,
+                        @Value("${skillforge.cache.refresh-after-write-ms:60000}") long refreshMs) {
+        this.courseRepository = courseRepository;
+        this.examRepository = examRepository;
+        this.questionRepository = questionRepository;
+
+        Caffeine<Object, Object> spec = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofMillis(expireMs))
+            .refreshAfterWrite(Duration.ofMillis(refreshMs))
+            .executor(loader)
+            .recordStats();
+        this.courses = register("courses", spec, courseRepository::findById);
+        this.coursePages = register("coursePages", spec, key -> CursorPage.of(
+            courseRepository.findByIdGreaterThanOrderByIdAsc(key.after(), Limit.of(key.size() + 1)), key.size(), Course::getId));
+        this.exams = register("exams", spec, examRepository::findViewById);
+        this.examPages = register("examPages", spec, key -> CursorPage.of(
+            examRepository.findViewsAfter(key.after(), Limit.of(key.size() + 1)), key.size(), ExamView::id));
+        this.examsByCourse = register("examsByCourse", spec, examRepository::findViewsByCourseId);
+        this.examQuestions = register("examQuestions", spec, questionRepository::findViewsByExamInOrder);
+    }
+
+    private <K, V> AsyncLoadingCache<K, V> register(String name, Caffeine<Object, Object> spec, Function<K, V> loader) {
+        AsyncLoadingCache<K, V> cache = spec.buildAsync(loader::apply);
+        all.put(name, cache);
+        return cache;
+    }
+
+    // Failed loads are not cached; their exception is rethrown as is so the
+    // usual handlers apply.
+    private static <K, V> V get(AsyncLoadingCache<K, V> cache, K key) {
+        try {
+            return cache.get(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public Optional<Course> course(Long id) {
+        return get(courses, id);
+    }
+
+    public CursorPage<Course> coursePage(long after, int size) {
+        return get(coursePages, new PageKey(after, size));
+    }
+
+    public Optional<ExamView> exam(Long id) {
+        return get(exams, id);
+    }
+
+    public CursorPage<ExamView> examPage(long after, int size) {
+        return get(examPages, new PageKey(after, size));
+    }
+
+    public List<ExamView> examsByCourse(Long courseId) {
+        return get(examsByCourse, courseId);
+    }
+
+    public List<QuestionView> examQuestions(Long examId) {
+        return get(examQuestions, examId);
+    }
+
+    // A course's own entry, every page that could list it, and the exams
+    // that embed it.
+    public void courseChanged(Long id) {
+        courses.synchronous().invalidate(id);
+        coursePages.synchronous().invalidateAll();
+        examsByCourse.synchronous().invalidate(id);
+        if (id != null) {
+            exams.synchronous().asMap().values().removeIf(exam -> exam.isPresent() && id.equals(exam.get().courseId()));
+        }
+        examPages.synchronous().invalidateAll();
+    }
+
+    public void examChanged(Long id, Long courseId) {
+        exams.synchronous().invalidate(id);
+        examPages.synchronous().invalidateAll();
+        examQuestions.synchronous().invalidate(id);
+        if (courseId != null) {
+            examsByCourse.synchronous().invalidate(courseId);
+        }
+    }
+
+    public void questionsChanged() {
+        examQuestions.synchronous().invalidateAll();
+    }
+
+    public void invalidateAll() {
+        all.values().forEach(cache -> cache.synchronous().invalidateAll());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        all.forEach((name, cache) -> {
+            CacheStats s = cache.synchronous().stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.synchronous().estimatedSize());
+            entry.put("hits", s.hitCount());
+            entry.put("misses", s.missCount());
+            entry.put("hitRate", s.hitRate());
+            entry.put("loads", s.loadSuccessCount());
+            entry.put("loadFailures", s.loadFailureCount());
+            entry.put("averageLoadMs", s.averageLoadPenalty() / 1e6);
+            entry.put("evictions", s.evictionCount());
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+    private record PageKey(long after, int size) {
+    }
+}
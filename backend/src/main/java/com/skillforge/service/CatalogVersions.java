@@ -0,0 +1,111 @@
+package com.skillforge.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counters for catalogue reads, turned into strong ETags so an
+// unchanged list or entity is answered with 304 before any query runs or
+// any JSON is written.
+//
+// Each collection (courses, exams, questions) and each course and exam has
+// a counter that CourseService, ExamService, QuestionService and the
+// rating flush bump after the write and after CatalogCache has dropped the
+// old entries. A read takes its tag before loading, so a tag is never
+// paired with data older than it. Tags also carry a random epoch: counters
+// start over on restart and differ between nodes, and reset() starts a new
+// epoch when the database was changed behind the API's back.
+//
+// Exam views embed their course's title, so exam tags include the courses
+// version; exam details and question lists carry questions, so their tags
+// include the questions version.
+@Component
+public class CatalogVersions {
+    private final AtomicLong courses = new AtomicLong();
+    private final AtomicLong exams = new AtomicLong();
+    private final AtomicLong questions = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> courseVersions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> examVersions = new ConcurrentHashMap<>();
+    private volatile String epoch = newEpoch();
+
+    public void courseChanged(Long id) {
+        if (id != null) {
+            courseVersions.merge(id, 1L, Long::sum);
+        }
+        courses.incrementAndGet();
+    }
+
+    public void examChanged(Long id) {
+        if (id != null) {
+            examVersions.merge(id, 1L, Long::sum);
+        }
+        exams.incrementAndGet();
+    }
+
+    public void questionsChanged() {
+        questions.incrementAndGet();
+    }
+
+    public void reset() {
+        epoch = newEpoch();
+    }
+
+    public String coursesTag() {
+        return tag("courses", courses.get());
+    }
+
+    public String courseTag(Long id) {
+        return tag("course-" + id, courseVersions.getOrDefault(id, 0L));
+    }
+
+    public String examsTag() {
+        return tag("exams", exams.get(), courses.get());
+    }
+
+    public String examTag(Long id) {
+        return tag("exam-" + id, examVersions.getOrDefault(id, 0L), courses.get(), questions.get());
+    }
+
+    public String examQuestionsTag(Long id) {
+        return tag("exam-" + id + "-questions", examVersions.getOrDefault(id, 0L), questions.get());
+    }
+
+    public String questionsTag() {
+        return tag("questions", questions.get());
+    }
+
+    // Admins get the correct answers in question lists, so theirs is a
+    // different representation with its own tag
+    public String questionsTag(boolean withAnswers) {
+        return withAnswers ? tag("questions-answers", questions.get()) : questionsTag();
+    }
+
+    // True when the request's If-None-Match already names this tag: the
+    // handler returns null and Spring answers 304. Either way the ETag is
+    // set, with no-cache so clients keep the body and revalidate each use.
+    public static boolean notModified(NativeWebRequest request, String etag) {
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return request.checkNotModified(etag);
+    }
+
+    private String tag(String name, long... versions) {
+        StringBuilder tag = new StringBuilder("\"").append(name).append('.').append(epoch);
+        for (long version : versions) {
+            tag.append('.').append(version);
+        }
+        return tag.append('"').toString();
+    }
+
+    private static String newEpoch() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    }
+}
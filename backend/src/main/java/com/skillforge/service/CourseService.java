@@ -1,11 +1,11 @@
 package com.skillforge.service;
 
+import com.skillforge.dto.CursorPage;
 import com.skillforge.model.Course;
 import com.skillforge.repository.CourseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -13,19 +13,40 @@ public class CourseService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     public Course createCourse(Course course) {
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        statisticsService.courseCreated(saved.getId());
+        catalogCache.courseChanged(saved.getId());
+        catalogVersions.courseChanged(saved.getId());
+        return saved;
     }
 
-    public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+    public CursorPage<Course> getCoursesPage(Long after, Integer limit) {
+        return catalogCache.coursePage(CursorPage.startAfter(after), CursorPage.clampLimit(limit));
     }
 
     public Optional<Course> getCourseById(Long id) {
-        return courseRepository.findById(id);
+        return catalogCache.course(id);
     }
 
+    // The delete commits on its own (no transaction here), so the counters
+    // move only for a course that existed and is gone; a delete that fails
+    // throws before them.
     public void deleteCourse(Long id) {
-        courseRepository.deleteById(id);
+        courseRepository.findById(id).ifPresent(course -> {
+            courseRepository.delete(course);
+            statisticsService.courseDeleted(id);
+            catalogCache.courseChanged(id);
+            catalogVersions.courseChanged(id);
+        });
     }
 }
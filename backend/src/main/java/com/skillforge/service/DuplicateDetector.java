@@ -0,0 +1,509 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.DuplicateReport;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.model.Question;
+import com.skillforge.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Near-duplicate questions within a course, by MinHash and LSH banding.
+//
+// A question's features are the words and word pairs of its text
+// (tokenized and stemmed like search) plus each option as a whole, so
+// reworded text and shuffled options still overlap. HASHES MinHash values estimate the
+// Jaccard similarity of two feature sets; only the top 16 bits of each are
+// kept, which is plenty to tell equal minima from unequal ones. For lookup
+// the signature is cut into BANDS bands of ROWS values and each band is
+// hashed with the course id into a bucket: two questions become candidates
+// when any band matches, which for these sizes catches pairs at 0.7
+// similarity about 96% of the time and at 0.8 almost always, while a
+// lookup only touches the questions sharing a bucket.
+//
+// Deletes clear a live bit; the buckets are rebuilt from the stored
+// signatures once dead entries outnumber live ones.
+//
+// A course scan copies the course's signatures under the read lock and
+// indexes the copy on its own, so writers only wait for the copy; the
+// lookups then run on a small pool of scan threads.
+@Component
+public class DuplicateDetector implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    static final int BANDS = 12;
+    static final int ROWS = 4;
+    static final int HASHES = BANDS * ROWS;
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    public enum Mode { OFF, FLAG, REJECT }
+
+    private final QuestionRepository questionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Mode mode;
+    private final double threshold;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService scanWorkers;
+    private final int scanThreads;
+
+    private Table table = new Table();
+
+    public DuplicateDetector(QuestionRepository questionRepository, PlatformTransactionManager transactionManager,
+                             @Value("${skillforge.duplicates.mode:flag}") String mode,
+                             @Value("${skillforge.duplicates.threshold:0.7}") double threshold,
+                             @Value("${skillforge.duplicates.scan-threads:0}") int scanThreads) {
+        this.questionRepository = questionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.threshold = threshold;
+        this.scanThreads = scanThreads > 0 ? scanThreads : Math.min(4, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scanWorkers = Executors.newFixedThreadPool(this.scanThreads, runnable -> {
+            Thread thread = new Thread(runnable, "duplicate-scan-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (mode != Mode.OFF) {
+            rebuild();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scanWorkers.shutdownNow();
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Table fresh = new Table();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<QuestionView> rows = questionRepository.streamViews()) {
+                    rows.forEach(row -> fresh.add(row.id(), row.courseId(), signature(row.questionText(),
+                            row.optionA(), row.optionB(), row.optionC(), row.optionD())));
+                }
+            });
+            table = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Duplicate detector loaded {} signatures in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Signature of an unsaved question, for find() and put()
+    public short[] signature(Question question) {
+        return signature(question.getQuestionText(), question.getOptionA(), question.getOptionB(),
+                question.getOptionC(), question.getOptionD());
+    }
+
+    // Ids of questions in the same course at or above the threshold,
+    // most similar first. Empty when detection is off.
+    public List<Long> find(Long courseId, short[] signature, Long exceptId) {
+        if (mode == Mode.OFF || signature == null || courseId == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Match> matches = table.matches(courseId, signature, threshold, -1);
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                long id = table.ids[match.ordinal()];
+                if (exceptId == null || id != exceptId) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static double similarity(short[] a, short[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    public boolean similar(short[] a, short[] b) {
+        return a != null && b != null && similarity(a, b) >= threshold;
+    }
+
+    public void put(Question question) {
+        if (mode == Mode.OFF || question.getId() == null) {
+            return;
+        }
+        Long courseId = question.getCourse() != null ? question.getCourse().getId() : null;
+        short[] signature = signature(question);
+        lock.writeLock().lock();
+        try {
+            table.add(question.getId(), courseId, signature);
+            table.compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long questionId) {
+        if (mode == Mode.OFF || questionId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            table.remove(questionId);
+            table.compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every near-duplicate pair in the course, found by looking each
+    // question up on the scan threads, grouped into clusters (connected
+    // components).
+    public DuplicateReport scanCourse(Long courseId, Double minSimilarity) {
+        long start = System.nanoTime();
+        double cutoff = minSimilarity != null ? minSimilarity : threshold;
+        DuplicateReport report = new DuplicateReport();
+        report.setCourseId(courseId);
+        report.setThreshold(cutoff);
+
+        long[] memberIds;
+        short[] memberSignatures;
+        lock.readLock().lock();
+        try {
+            Table current = table;
+            int[] members = IntStream.range(0, current.next)
+                    .filter(o -> current.live.get(o) && current.courseIds[o] == courseId)
+                    .toArray();
+            memberIds = new long[members.length];
+            memberSignatures = new short[members.length * HASHES];
+            for (int i = 0; i < members.length; i++) {
+                memberIds[i] = current.ids[members[i]];
+                System.arraycopy(current.signatures, members[i] * HASHES, memberSignatures, i * HASHES, HASHES);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Only this scan sees the copy, and the workers only read it
+        Table scanned = new Table();
+        for (int i = 0; i < memberIds.length; i++) {
+            scanned.add(memberIds[i], courseId, Arrays.copyOfRange(memberSignatures, i * HASHES, (i + 1) * HASHES));
+        }
+
+        int count = scanned.next;
+        int chunk = Math.max(256, (count + scanThreads - 1) / scanThreads);
+        List<Future<List<int[]>>> parts = new ArrayList<>();
+        for (int from = 0; from < count; from += chunk) {
+            int first = from;
+            int last = Math.min(count, from + chunk);
+            parts.add(scanWorkers.submit(() -> {
+                List<int[]> found = new ArrayList<>();
+                for (int o = first; o < last; o++) {
+                    for (Match match : scanned.matches(courseId, scanned.signature(o), cutoff, o)) {
+                        if (match.ordinal() > o) {
+                            found.add(new int[] {o, match.ordinal(), match.equal()});
+                        }
+                    }
+                }
+                return found;
+            }));
+        }
+        List<int[]> pairs = new ArrayList<>();
+        try {
+            for (Future<List<int[]>> part : parts) {
+                pairs.addAll(part.get());
+            }
+        } catch (InterruptedException e) {
+            parts.forEach(part -> part.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Duplicate scan interrupted");
+        } catch (ExecutionException e) {
+            parts.forEach(part -> part.cancel(true));
+            throw new RuntimeException("Duplicate scan failed", e.getCause());
+        }
+
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (int[] pair : pairs) {
+            union(parent, pair[0], pair[1]);
+        }
+        Map<Integer, List<Integer>> groups = new HashMap<>();
+        for (Integer o : parent.keySet()) {
+            groups.computeIfAbsent(root(parent, o), k -> new ArrayList<>()).add(o);
+        }
+        Map<Integer, Integer> lowest = new HashMap<>();
+        for (int[] pair : pairs) {
+            lowest.merge(root(parent, pair[0]), pair[2], Math::min);
+        }
+        List<DuplicateReport.Cluster> clusters = new ArrayList<>();
+        groups.forEach((root, group) -> {
+            List<Long> ids = group.stream().map(o -> scanned.ids[o]).sorted().toList();
+            clusters.add(new DuplicateReport.Cluster(ids, (double) lowest.get(root) / HASHES));
+        });
+        clusters.sort(Comparator.comparingInt((DuplicateReport.Cluster c) -> c.questionIds().size()).reversed()
+                .thenComparingLong(c -> c.questionIds().get(0)));
+
+        report.setQuestions(count);
+        report.setDuplicatePairs(pairs.size());
+        report.setDuplicateQuestions(parent.size());
+        report.setClusters(clusters);
+        report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    private static int root(Map<Integer, Integer> parent, int o) {
+        int root = o;
+        while (parent.getOrDefault(root, root) != root) {
+            root = parent.get(root);
+        }
+        while (o != root) {
+            int up = parent.get(o);
+            parent.put(o, root);
+            o = up;
+        }
+        return root;
+    }
+
+    private static void union(Map<Integer, Integer> parent, int a, int b) {
+        parent.putIfAbsent(a, a);
+        parent.putIfAbsent(b, b);
+        int ra = root(parent, a);
+        int rb = root(parent, b);
+        if (ra != rb) {
+            parent.put(Math.max(ra, rb), Math.min(ra, rb));
+        }
+    }
+
+    // Null when the question has no words to compare
+    static short[] signature(String text, String... options) {
+        long[] features = features(text, options);
+        if (features.length == 0) {
+            return null;
+        }
+        short[] signature = new short[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            long min = Long.MAX_VALUE;
+            long seed = SEEDS[i];
+            for (long feature : features) {
+                long h = mix(feature ^ seed);
+                if (Long.compareUnsigned(h, min) < 0) {
+                    min = h;
+                }
+            }
+            signature[i] = (short) (min >>> 48);
+        }
+        return signature;
+    }
+
+    private static long[] features(String text, String... options) {
+        List<String> tokens = QuestionSearchIndex.tokens(text);
+        List<Long> features = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            features.add(hash(tokens.get(i)));
+            if (i + 1 < tokens.size()) {
+                features.add(hash(tokens.get(i) + ' ' + tokens.get(i + 1)));
+            }
+        }
+        for (String option : options) {
+            List<String> words = QuestionSearchIndex.tokens(option);
+            if (!words.isEmpty()) {
+                // Marked so an option never equals a word or word pair of the text
+                features.add(hash("\u0001" + String.join(" ", words)));
+            }
+        }
+        return features.stream().mapToLong(Long::longValue).distinct().toArray();
+    }
+
+    private static long hash(String value) {
+        return mix(value.hashCode() * 0x9E3779B97F4A7C15L + value.length());
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    record Match(int ordinal, int equal) {
+    }
+
+    // Signatures by dense ordinal plus one chained bucket list per band:
+    // buckets maps a (course, band, band hash) key to the newest ordinal in
+    // it, and chain[ordinal * BANDS + band] points to the next older one.
+    private static final class Table {
+        long[] ids = new long[1024];
+        long[] courseIds = new long[1024];
+        short[] signatures = new short[1024 * HASHES];
+        int[] chain = new int[1024 * BANDS];
+        final LongIntMap ordinals = new LongIntMap();
+        final LongIntMap buckets = new LongIntMap();
+        final BitSet live = new BitSet();
+        int next;
+        int liveCount;
+
+        void add(long id, Long courseId, short[] signature) {
+            remove(id);
+            if (signature == null || courseId == null) {
+                return;
+            }
+            if (next == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                courseIds = Arrays.copyOf(courseIds, capacity);
+                signatures = Arrays.copyOf(signatures, capacity * HASHES);
+                chain = Arrays.copyOf(chain, capacity * BANDS);
+            }
+            int o = next++;
+            ids[o] = id;
+            courseIds[o] = courseId;
+            System.arraycopy(signature, 0, signatures, o * HASHES, HASHES);
+            link(o);
+            ordinals.put(id, o);
+            live.set(o);
+            liveCount++;
+        }
+
+        private void link(int o) {
+            for (int band = 0; band < BANDS; band++) {
+                long key = bucket(courseIds[o], band, signatures, o * HASHES);
+                int head = buckets.get(key);
+                chain[o * BANDS + band] = head;
+                buckets.put(key, o);
+            }
+        }
+
+        void remove(long id) {
+            int o = ordinals.remove(id);
+            if (o < 0) {
+                return;
+            }
+            live.clear(o);
+            liveCount--;
+        }
+
+        short[] signature(int o) {
+            return Arrays.copyOfRange(signatures, o * HASHES, (o + 1) * HASHES);
+        }
+
+        // Live questions of the course sharing a band with the signature and
+        // at or above the cutoff, best first; `self` is left out
+        List<Match> matches(long courseId, short[] signature, double cutoff, int self) {
+            int needed = (int) Math.ceil(cutoff * HASHES - 1e-9);
+            BitSet seen = new BitSet();
+            List<Match> matches = new ArrayList<>();
+            for (int band = 0; band < BANDS; band++) {
+                long key = bucket(courseId, band, signature, 0);
+                for (int o = buckets.get(key); o >= 0; o = chain[o * BANDS + band]) {
+                    if (o == self || seen.get(o)) {
+                        continue;
+                    }
+                    seen.set(o);
+                    if (!live.get(o) || courseIds[o] != courseId) {
+                        continue;
+                    }
+                    int equal = 0;
+                    int base = o * HASHES;
+                    for (int i = 0; i < HASHES; i++) {
+                        if (signatures[base + i] == signature[i]) {
+                            equal++;
+                        }
+                    }
+                    if (equal >= needed) {
+                        matches.add(new Match(o, equal));
+                    }
+                }
+            }
+            matches.sort(Comparator.comparingInt(Match::equal).reversed().thenComparingInt(Match::ordinal));
+            return matches;
+        }
+
+        void compactIfSparse() {
+            int dead = next - liveCount;
+            if (dead > 4096 && dead > liveCount) {
+                compact();
+            }
+        }
+
+        void compact() {
+            int n = 0;
+            for (int o = 0; o < next; o++) {
+                if (live.get(o)) {
+                    ids[n] = ids[o];
+                    courseIds[n] = courseIds[o];
+                    System.arraycopy(signatures, o * HASHES, signatures, n * HASHES, HASHES);
+                    ordinals.put(ids[n], n);
+                    n++;
+                }
+            }
+            buckets.clear();
+            next = n;
+            live.clear();
+            live.set(0, n);
+            for (int o = 0; o < n; o++) {
+                link(o);
+            }
+        }
+
+        private static long bucket(long courseId, int band, short[] signature, int offset) {
+            long h = mix(courseId * 31 + band);
+            int from = offset + band * ROWS;
+            for (int i = from; i < from + ROWS; i++) {
+                h = mix(h ^ (signature[i] & 0xFFFF));
+            }
+            // 0 marks an empty slot in LongIntMap
+            return h != 0 ? h : 1;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.ExamView;
+import com.skillforge.exception.AdmissionQueuedException;
+import com.skillforge.repository.ExamAttemptRepository;
+import com.skillforge.repository.ExamRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Starts of scheduled exams. An exam with a startTime gets a window from
+// lead-ms before the start to window-ms after it:
+//
+//   lead before start: pre-warm on a background thread - publish and page in
+//                      the snapshot, fill the exam and question caches,
+//                      compile the grading key, load the course pool and the
+//                      learners who have taken the course before
+//   until the start:   starts are queued; each learner gets a ticket, first
+//                      come first served
+//   from the start:    tickets are admitted at rate-per-second (burst at once);
+//                      a learner whose turn has not come gets 429 with their
+//                      position and a Retry-After for when it will
+//
+// Tokens are verified statelessly and cached on first use, so the per-user
+// state worth loading ahead is the learner's ratings and answer history.
+// Windows are found by a periodic scan and when an exam is (re)scheduled;
+// they are in memory, so a restart mid-surge hands out new tickets.
+@Service
+public class ExamAdmissionService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ExamAdmissionService.class);
+    private static final long MAX_RETRY_AFTER_MS = 30_000;
+
+    private final ExamRepository examRepository;
+    private final ExamAttemptRepository attemptRepository;
+    private final CatalogCache catalogCache;
+    private final CatalogVersions catalogVersions;
+    private final ExamSnapshots examSnapshots;
+    private final GradingService gradingService;
+    private final AdaptiveEngine adaptiveEngine;
+    private final long leadMs;
+    private final long windowMs;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int preloadLearners;
+    private final boolean publishOnPrewarm;
+    private final ExecutorService prewarmer;
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    private final Counter admitted;
+    private final Counter queued;
+    private final Timer prewarmTimer;
+
+    public ExamAdmissionService(ExamRepository examRepository, ExamAttemptRepository attemptRepository,
+                                CatalogCache catalogCache, CatalogVersions catalogVersions,
+                                ExamSnapshots examSnapshots, GradingService gradingService,
+                                AdaptiveEngine adaptiveEngine, MeterRegistry registry,
+                                @Value("${skillforge.exams.admission.lead-ms:300000}") long leadMs,
+                                @Value("${skillforge.exams.admission.window-ms:600000}") long windowMs,
+                                @Value("${skillforge.exams.admission.rate-per-second:50}") double ratePerSecond,
+                                @Value("${skillforge.exams.admission.burst:100}") int burst,
+                                @Value("${skillforge.exams.admission.preload-learners:5000}") int preloadLearners,
+                                @Value("${skillforge.exams.admission.publish-on-prewarm:true}") boolean publishOnPrewarm) {
+        this.examRepository = examRepository;
+        this.attemptRepository = attemptRepository;
+        this.catalogCache = catalogCache;
+        this.catalogVersions = catalogVersions;
+        this.examSnapshots = examSnapshots;
+        this.gradingService = gradingService;
+        this.adaptiveEngine = adaptiveEngine;
+        this.leadMs = leadMs;
+        this.windowMs = windowMs;
+        this.ratePerSecond = Math.max(0.1, ratePerSecond);
+        this.burst = Math.max(0, burst);
+        this.preloadLearners = Math.max(0, preloadLearners);
+        this.publishOnPrewarm = publishOnPrewarm;
+        this.prewarmer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.admitted = Counter.builder("skillforge.exam.admission.admitted")
+            .description("Exam starts let through the admission queue").register(registry);
+        this.queued = Counter.builder("skillforge.exam.admission.queued")
+            .description("Exam starts answered with a queue position").register(registry);
+        this.prewarmTimer = Timer.builder("skillforge.exam.prewarm")
+            .description("Time to pre-warm a scheduled exam").register(registry);
+        Gauge.builder("skillforge.exam.admission.waiting", this, ExamAdmissionService::waiting)
+            .description("Learners holding a ticket that has not been admitted yet").register(registry);
+        Gauge.builder("skillforge.exam.admission.windows", windows, Map::size)
+            .description("Scheduled exams being pre-warmed or metered").register(registry);
+    }
+
+    // Course of an exam whose starts are being metered, once this learner's
+    // turn has come; null when the exam has no open window and the caller
+    // loads it as usual. Throws AdmissionQueuedException while they wait.
+    public Long admit(Long userId, Long examId) {
+        Window window = windows.get(examId);
+        long now = System.currentTimeMillis();
+        if (window == null || now >= window.closesAt) {
+            return null;
+        }
+        Window.Turn turn = window.take(userId, now);
+        if (turn.admitted()) {
+            window.admitted.increment();
+            admitted.increment();
+            return window.courseId;
+        }
+        window.queued.increment();
+        queued.increment();
+        long retryAfterMs = Math.min(MAX_RETRY_AFTER_MS, Math.max(0, window.opensAt - now)
+            + (long) Math.ceil(turn.ahead() * 1000 / ratePerSecond));
+        Map<String, Object> position = new LinkedHashMap<>();
+        position.put("examId", examId);
+        position.put("ticket", turn.ticket());
+        position.put("position", turn.position());
+        position.put("waiting", turn.waiting());
+        position.put("startTime", window.startTime);
+        position.put("retryAfterMs", retryAfterMs);
+        throw new AdmissionQueuedException(now < window.opensAt ? "Exam has not started yet" : "Waiting to start",
+            position, retryAfterMs);
+    }
+
+    // Called after an exam's startTime is set, changed or cleared
+    public void scheduleChanged(ExamView exam) {
+        long now = System.currentTimeMillis();
+        if (exam.startTime() == null) {
+            windows.remove(exam.id());
+            return;
+        }
+        long opensAt = millis(exam.startTime());
+        if (opensAt - leadMs <= now && now < opensAt + windowMs) {
+            track(exam);
+        } else {
+            windows.remove(exam.id());
+        }
+    }
+
+    public void forget(Long examId) {
+        windows.remove(examId);
+    }
+
+    @Scheduled(fixedDelayString = "${skillforge.exams.admission.scan-interval-ms:10000}")
+    public void scan() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExamView> exams = examRepository.findViewsStartingBetween(
+            now.minusNanos(windowMs * 1_000_000), now.plusNanos(leadMs * 1_000_000));
+        Set<Long> current = new HashSet<>();
+        for (ExamView exam : exams) {
+            current.add(exam.id());
+            track(exam);
+        }
+        windows.keySet().retainAll(current);
+    }
+
+    public Map<String, Object> stats() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> exams = new ArrayList<>();
+        for (Window window : windows.values()) {
+            exams.add(window.info(now));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ratePerSecond", ratePerSecond);
+        stats.put("burst", burst);
+        stats.put("leadMs", leadMs);
+        stats.put("windowMs", windowMs);
+        stats.put("admitted", (long) admitted.count());
+        stats.put("queued", (long) queued.count());
+        stats.put("waiting", waiting());
+        stats.put("exams", exams);
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        prewarmer.shutdownNow();
+        prewarmer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void track(ExamView exam) {
+        if (exam.courseId() == null) {
+            return;
+        }
+        Window window = windows.compute(exam.id(), (id, existing) ->
+            existing != null && existing.startTime.equals(exam.startTime()) ? existing : new Window(exam));
+        if (window.claimed.compareAndSet(false, true)) {
+            prewarmer.execute(() -> prewarm(window));
+        }
+    }
+
+    private void prewarm(Window window) {
+        long start = System.nanoTime();
+        try {
+            ExamSnapshots.Snapshot snapshot = examSnapshots.get(window.examId);
+            if (snapshot == null && publishOnPrewarm) {
+                snapshot = examSnapshots.publish(window.examId);
+                catalogVersions.examChanged(window.examId);
+            }
+            if (snapshot != null) {
+                examSnapshots.load(snapshot);
+            }
+            catalogCache.exam(window.examId);
+            catalogCache.examQuestions(window.examId);
+            gradingService.warm(window.examId);
+            adaptiveEngine.preloadCourse(window.courseId);
+            List<Long> learners = preloadLearners > 0
+                ? attemptRepository.findUserIdsByCourseId(window.courseId, Limit.of(preloadLearners))
+                : List.of();
+            for (Long userId : learners) {
+                adaptiveEngine.preload(userId);
+            }
+            window.learners = learners.size();
+            window.state = "WARM";
+        } catch (RuntimeException e) {
+            window.state = "FAILED";
+            log.warn("Pre-warming exam {} failed: {}", window.examId, e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        window.prewarmMs = elapsed / 1_000_000;
+        prewarmTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Pre-warmed exam {} in {} ms ({} learners), {} s before its start", window.examId,
+            window.prewarmMs, window.learners, (window.opensAt - System.currentTimeMillis()) / 1000);
+    }
+
+    private long waiting() {
+        long now = System.currentTimeMillis();
+        long waiting = 0;
+        for (Window window : windows.values()) {
+            waiting += window.waiting(now);
+        }
+        return waiting;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // One scheduled exam. Tickets are numbered from 1 in arrival order and
+    // admit one start each; the frontier is how many may have started,
+    // burst at the start plus rate-per-second since. Capacity nobody used
+    // is not saved up beyond the burst, so a late crowd is metered like an
+    // early one.
+    private final class Window {
+        final long examId;
+        final Long courseId;
+        final LocalDateTime startTime;
+        final long opensAt;
+        final long closesAt;
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder queued = new LongAdder();
+        volatile String state = "WARMING";
+        volatile long prewarmMs;
+        volatile int learners;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock
+        private final Map<Long, Long> tickets = new HashMap<>();
+        private long issued;
+        private double frontier;
+        private long advancedAt;
+
+        Window(ExamView exam) {
+            this.examId = exam.id();
+            this.courseId = exam.courseId();
+            this.startTime = exam.startTime();
+            this.opensAt = millis(exam.startTime());
+            this.closesAt = opensAt + windowMs;
+            this.frontier = burst;
+            this.advancedAt = opensAt;
+        }
+
+        Turn take(Long userId, long now) {
+            lock.lock();
+            try {
+                advance(now);
+                long ticket = tickets.computeIfAbsent(userId, id -> ++issued);
+                long front = (long) frontier;
+                long started = now >= opensAt ? front : 0;
+                if (ticket <= started) {
+                    // Used up: starting again takes a new ticket at the back
+                    tickets.remove(userId);
+                }
+                return new Turn(ticket, ticket <= started, Math.max(0, ticket - 1 - front),
+                    Math.max(1, ticket - started), Math.max(0, issued - started));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long waiting(long now) {
+            lock.lock();
+            try {
+                advance(now);
+                return Math.max(0, issued - (now >= opensAt ? (long) frontier : 0));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<String, Object> info(long now) {
+            lock.lock();
+            try {
+                Map<String, Object> info = new LinkedHashMap<>();
+                info.put("examId", examId);
+                info.put("courseId", courseId);
+                info.put("startTime", startTime);
+                info.put("state", state);
+                info.put("prewarmMs", prewarmMs);
+                info.put("learnersPreloaded", learners);
+                info.put("tickets", issued);
+                info.put("admitted", admitted.sum());
+                info.put("queued", queued.sum());
+                info.put("waiting", waiting(now));
+                return info;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Caller holds lock
+        private void advance(long now) {
+            if (now > advancedAt) {
+                double next = frontier + (now - advancedAt) * ratePerSecond / 1000;
+                frontier = Math.max(frontier, Math.min(next, issued + burst));
+                advancedAt = now;
+            }
+        }
+
+        // ahead: admissions to go before this ticket's turn; position: place
+        // among the tickets not admitted yet
+        record Turn(long ticket, boolean admitted, long ahead, long position, long waiting) {
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.skillforge.service;
+
+import com.skillforge.exception.ExamGenerationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Picks a question set for a course that hits totalMarks exactly, splits the
+// marks across difficulties as requested and covers every requested topic.
+//
+// Each attempt is a randomised greedy construction seeded from (seed, attempt
+// number). Workers claim attempt numbers in order and the lowest successful
+// attempt wins, so for a given seed and bank the result does not depend on
+// how many cores took part or how the attempts were scheduled. The time
+// budget only stops new attempts from being claimed; a claimed attempt
+// always runs, so the attempts run are always 0..k and a timeout can end in
+// failure but never in a different exam.
+@Component
+public class ExamGenerator implements DisposableBean {
+    private static final int PROBES = 32;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final QuestionIndex questionIndex;
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final long defaultTimeBudgetMs;
+
+    public ExamGenerator(QuestionIndex questionIndex,
+                         @Value("${skillforge.exam.generation.parallelism:0}") int parallelism,
+                         @Value("${skillforge.exam.generation.time-budget-ms:50}") long defaultTimeBudgetMs) {
+        this.questionIndex = questionIndex;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.defaultTimeBudgetMs = defaultTimeBudgetMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "exam-generator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Selection generate(Long courseId, int totalMarks, Map<String, Double> difficultyMix,
+                              List<String> topics, long seed, Long timeBudgetMs) {
+        Problem problem = Problem.build(questionIndex, courseId, totalMarks, difficultyMix, topics);
+        long budgetMs = timeBudgetMs != null && timeBudgetMs > 0 ? timeBudgetMs : defaultTimeBudgetMs;
+        Search search = new Search(problem, seed, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs));
+
+        // The calling thread searches too, so a request still makes progress
+        // when every helper is busy with other generations.
+        List<Future<?>> helpers = new ArrayList<>(parallelism - 1);
+        for (int i = 1; i < parallelism; i++) {
+            helpers.add(workers.submit(search::run));
+        }
+        search.run();
+        search.awaitInFlight();
+        helpers.forEach(helper -> helper.cancel(false));
+
+        Found found = search.best.get();
+        if (found == null) {
+            throw new ExamGenerationException("Could not satisfy the exam constraints within " + budgetMs
+                    + " ms (" + search.executed.get() + " attempts); relax the difficulty mix or topic coverage");
+        }
+        long[] ids = new long[found.picks.length];
+        Map<String, Integer> marksByDifficulty = new LinkedHashMap<>();
+        for (String name : problem.bucketNames) {
+            marksByDifficulty.put(name, 0);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            int pick = found.picks[i];
+            ids[i] = problem.slice.ids()[pick];
+            marksByDifficulty.merge(problem.bucketNames[problem.bucketOf[pick]], problem.slice.marks()[pick], Integer::sum);
+        }
+        return new Selection(ids, marksByDifficulty, search.executed.get());
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    public record Selection(long[] questionIds, Map<String, Integer> marksByDifficulty, int attempts) {
+    }
+
+    private record Found(int attempt, int[] picks) {
+    }
+
+    private static final class Search {
+        final Problem problem;
+        final long seed;
+        final long deadline;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger executed = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicReference<Found> best = new AtomicReference<>();
+
+        Search(Problem problem, long seed, long deadline) {
+            this.problem = problem;
+            this.seed = seed;
+            this.deadline = deadline;
+        }
+
+        void run() {
+            while (true) {
+                inFlight.incrementAndGet();
+                try {
+                    // Past the deadline nothing new is claimed, but an attempt
+                    // claimed before it is always run: skipping one could let
+                    // a higher attempt win
+                    if (System.nanoTime() - deadline > 0) {
+                        return;
+                    }
+                    int attempt = next.getAndIncrement();
+                    Found current = best.get();
+                    if (current != null && attempt > current.attempt) {
+                        return;
+                    }
+                    int[] picks = problem.attempt(seed + attempt * GOLDEN);
+                    executed.incrementAndGet();
+                    if (picks != null) {
+                        Found found = new Found(attempt, picks);
+                        best.accumulateAndGet(found, (a, b) -> a == null || b.attempt < a.attempt ? b : a);
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+
+        // Lower-numbered attempts still running may beat the current best.
+        void awaitInFlight() {
+            while (inFlight.get() > 0) {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    private static final class Problem {
+        QuestionIndex.Slice slice;
+        String[] bucketNames;
+        int[] targets;
+        int[] bucketOf;
+        int[][] bucketMembers;
+        int[][] topicMembers;
+        int[] topicSlot;
+
+        static Problem build(QuestionIndex index, Long courseId, int totalMarks,
+                             Map<String, Double> difficultyMix, List<String> topics) {
+            Problem p = new Problem();
+            p.slice = index.slice(courseId);
+            int n = p.slice.size();
+            if (n == 0) {
+                throw new ExamGenerationException("Course " + courseId + " has no questions");
+            }
+
+            // Difficulty buckets, with marks split by largest remainder so they sum to totalMarks.
+            Map<Integer, Integer> bucketByCode = new HashMap<>();
+            double[] shares;
+            boolean anyDifficulty = difficultyMix == null || difficultyMix.isEmpty();
+            if (anyDifficulty) {
+                p.bucketNames = new String[] {"ANY"};
+                shares = new double[] {1.0};
+            } else {
+                p.bucketNames = difficultyMix.keySet().toArray(new String[0]);
+                shares = new double[p.bucketNames.length];
+                for (int b = 0; b < shares.length; b++) {
+                    Double share = difficultyMix.get(p.bucketNames[b]);
+                    if (share == null || share < 0) {
+                        throw new ExamGenerationException("Invalid share for difficulty " + p.bucketNames[b]);
+                    }
+                    shares[b] = share;
+                    int code = index.difficultyCode(p.bucketNames[b]);
+                    if (code >= 0) {
+                        bucketByCode.put(code, b);
+                    }
+                }
+            }
+            p.targets = split(totalMarks, shares);
+
+            p.bucketOf = new int[n];
+            int[] counts = new int[shares.length];
+            long[] available = new long[shares.length];
+            int[] gcd = new int[shares.length];
+            for (int i = 0; i < n; i++) {
+                int bucket = anyDifficulty ? 0 : bucketByCode.getOrDefault(p.slice.difficulties()[i], -1);
+                p.bucketOf[i] = bucket;
+                if (bucket >= 0) {
+                    counts[bucket]++;
+                    available[bucket] += p.slice.marks()[i];
+                    gcd[bucket] = gcd(gcd[bucket], p.slice.marks()[i]);
+                }
+            }
+            p.bucketMembers = new int[shares.length][];
+            for (int b = 0; b < shares.length; b++) {
+                if (available[b] < p.targets[b]) {
+                    throw new ExamGenerationException("Not enough " + p.bucketNames[b] + " questions: need "
+                            + p.targets[b] + " marks, course has " + available[b]);
+                }
+                if (gcd[b] > 1 && p.targets[b] % gcd[b] != 0) {
+                    throw new ExamGenerationException("Cannot make exactly " + p.targets[b] + " " + p.bucketNames[b]
+                            + " marks from questions worth multiples of " + gcd[b]);
+                }
+                p.bucketMembers[b] = new int[counts[b]];
+                counts[b] = 0;
+            }
+            for (int i = 0; i < n; i++) {
+                if (p.bucketOf[i] >= 0) {
+                    p.bucketMembers[p.bucketOf[i]][counts[p.bucketOf[i]]++] = i;
+                }
+            }
+
+            // Topic coverage, restricted to questions in one of the requested difficulties.
+            Map<Integer, Integer> slotByCode = new LinkedHashMap<>();
+            List<String> topicNames = new ArrayList<>();
+            if (topics != null) {
+                for (String topic : topics) {
+                    int code = index.topicCode(topic);
+                    if (code < 0) {
+                        throw new ExamGenerationException("No questions for topic '" + topic + "' in course " + courseId);
+                    }
+                    if (slotByCode.putIfAbsent(code, slotByCode.size()) == null) {
+                        topicNames.add(topic);
+                    }
+                }
+            }
+            p.topicSlot = new int[n];
+            int[] topicCounts = new int[slotByCode.size()];
+            for (int i = 0; i < n; i++) {
+                Integer slot = p.bucketOf[i] >= 0 ? slotByCode.get(p.slice.topics()[i]) : null;
+                p.topicSlot[i] = slot != null ? slot : -1;
+                if (slot != null) {
+                    topicCounts[slot]++;
+                }
+            }
+            p.topicMembers = new int[topicCounts.length][];
+            for (int t = 0; t < topicCounts.length; t++) {
+                if (topicCounts[t] == 0) {
+                    throw new ExamGenerationException("No questions for topic '" + topicNames.get(t)
+                            + "' in the requested difficulties");
+                }
+                p.topicMembers[t] = new int[topicCounts[t]];
+                topicCounts[t] = 0;
+            }
+            for (int i = 0; i < n; i++) {
+                if (p.topicSlot[i] >= 0) {
+                    p.topicMembers[p.topicSlot[i]][topicCounts[p.topicSlot[i]]++] = i;
+                }
+            }
+            return p;
+        }
+
+        static int gcd(int a, int b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        static int[] split(int total, double[] shares) {
+            double sum = Arrays.stream(shares).sum();
+            if (sum <= 0) {
+                throw new ExamGenerationException("Difficulty mix must have a positive share");
+            }
+            int[] targets = new int[shares.length];
+            double[] remainders = new double[shares.length];
+            int assigned = 0;
+            for (int b = 0; b < shares.length; b++) {
+                double exact = total * shares[b] / sum;
+                targets[b] = (int) Math.floor(exact);
+                remainders[b] = exact - targets[b];
+                assigned += targets[b];
+            }
+            for (; assigned < total; assigned++) {
+                int largest = 0;
+                for (int b = 1; b < shares.length; b++) {
+                    if (remainders[b] > remainders[largest]) {
+                        largest = b;
+                    }
+                }
+                targets[largest]++;
+                remainders[largest] = -1;
+            }
+            return targets;
+        }
+
+        // One randomised construction: cover the topics first, then fill each
+        // difficulty bucket to its exact mark target. Null on a dead end.
+        int[] attempt(long attemptSeed) {
+            SplittableRandom random = new SplittableRandom(attemptSeed);
+            int[] remaining = targets.clone();
+            BitSet chosen = new BitSet(slice.size());
+            boolean[] covered = new boolean[topicMembers.length];
+            int[] picks = new int[16];
+            int count = 0;
+
+            int[] order = new int[topicMembers.length];
+            for (int t = 0; t < order.length; t++) {
+                int j = random.nextInt(t + 1);
+                order[t] = order[j];
+                order[j] = t;
+            }
+            for (int t : order) {
+                if (covered[t]) {
+                    continue;
+                }
+                int pick = pick(topicMembers[t], random, chosen, remaining);
+                if (pick < 0) {
+                    return null;
+                }
+                if (count == picks.length) {
+                    picks = Arrays.copyOf(picks, count * 2);
+                }
+                picks[count++] = take(pick, chosen, remaining, covered);
+            }
+            for (int b = 0; b < bucketMembers.length; b++) {
+                while (remaining[b] > 0) {
+                    int pick = pick(bucketMembers[b], random, chosen, remaining);
+                    if (pick < 0) {
+                        return null;
+                    }
+                    if (count == picks.length) {
+                        picks = Arrays.copyOf(picks, count * 2);
+                    }
+                    picks[count++] = take(pick, chosen, remaining, covered);
+                }
+            }
+            return Arrays.copyOf(picks, count);
+        }
+
+        private int pick(int[] members, SplittableRandom random, BitSet chosen, int[] remaining) {
+            int size = members.length;
+            if (size == 0) {
+                return -1;
+            }
+            for (int probe = 0; probe < PROBES; probe++) {
+                int candidate = members[random.nextInt(size)];
+                if (fits(candidate, chosen, remaining)) {
+                    return candidate;
+                }
+            }
+            int start = random.nextInt(size);
+            for (int i = 0; i < size; i++) {
+                int candidate = members[(start + i) % size];
+                if (fits(candidate, chosen, remaining)) {
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+
+        private boolean fits(int candidate, BitSet chosen, int[] remaining) {
+            return !chosen.get(candidate) && slice.marks()[candidate] <= remaining[bucketOf[candidate]];
+        }
+
+        private int take(int pick, BitSet chosen, int[] remaining, boolean[] covered) {
+            chosen.set(pick);
+            remaining[bucketOf[pick]] -= slice.marks()[pick];
+            if (topicSlot[pick] >= 0) {
+                covered[topicSlot[pick]] = true;
+            }
+            return pick;
+        }
+    }
+}
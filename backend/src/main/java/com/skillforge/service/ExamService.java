@@ -1,33 +1,185 @@
 package com.skillforge.service;
 
+import com.skillforge.dto.CursorPage;
+import com.skillforge.dto.ExamGenerationRequest;
+import com.skillforge.dto.ExamGenerationResult;
+import com.skillforge.dto.ExamSnapshot;
+import com.skillforge.dto.ExamView;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.exception.ExamGenerationException;
+import com.skillforge.model.Course;
 import com.skillforge.model.Exam;
+import com.skillforge.model.Question;
+import com.skillforge.repository.CourseRepository;
 import com.skillforge.repository.ExamRepository;
+import com.skillforge.repository.QuestionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class ExamService {
     @Autowired
     private ExamRepository examRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ExamGenerator examGenerator;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private GradingService gradingService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ExamSnapshots examSnapshots;
+
+    @Autowired
+    private ExamAdmissionService examAdmission;
+
+    @Autowired
+    private AnalyticsService analyticsService;
     
-    public Exam createExam(Exam exam) {
-        return examRepository.save(exam);
+    public ExamView createExam(Exam exam) {
+        Exam saved = examRepository.save(exam);
+        statisticsService.examCreated(courseId(saved));
+        catalogCache.examChanged(saved.getId(), courseId(saved));
+        catalogVersions.examChanged(saved.getId());
+        ExamView view = ExamView.of(saved);
+        examAdmission.scheduleChanged(view);
+        return view;
+    }
+
+    public ExamGenerationResult generateExam(ExamGenerationRequest request) {
+        if (request.getCourseId() == null) {
+            throw new ExamGenerationException("courseId is required");
+        }
+        if (request.getTotalMarks() == null || request.getTotalMarks() <= 0) {
+            throw new ExamGenerationException("totalMarks must be positive");
+        }
+        Course course = courseRepository.findById(request.getCourseId())
+            .orElseThrow(() -> new RuntimeException("Course not found"));
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
+
+        long start = System.nanoTime();
+        ExamGenerator.Selection selection = examGenerator.generate(course.getId(), request.getTotalMarks(),
+            request.getDifficultyMix(), request.getTopics(), seed, request.getTimeBudgetMs());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Exam exam = new Exam();
+        exam.setTitle(request.getTitle() != null ? request.getTitle() : "Generated exam - " + course.getTitle());
+        exam.setCourse(course);
+        exam.setDuration(request.getDuration());
+        exam.setTotalMarks(request.getTotalMarks());
+        exam.setStartTime(request.getStartTime());
+        for (long questionId : selection.questionIds()) {
+            exam.getQuestions().add(questionRepository.getReferenceById(questionId));
+        }
+        Exam saved = examRepository.save(exam);
+        statisticsService.examCreated(course.getId());
+        catalogCache.examChanged(saved.getId(), course.getId());
+        catalogVersions.examChanged(saved.getId());
+        if (saved.getStartTime() != null) {
+            examAdmission.scheduleChanged(ExamView.of(saved));
+        }
+
+        ExamGenerationResult result = new ExamGenerationResult();
+        result.setExamId(saved.getId());
+        result.setTitle(saved.getTitle());
+        result.setCourseId(course.getId());
+        result.setTotalMarks(saved.getTotalMarks());
+        result.setDuration(saved.getDuration());
+        result.setQuestionIds(Arrays.stream(selection.questionIds()).boxed().toList());
+        result.setMarksByDifficulty(selection.marksByDifficulty());
+        result.setSeed(seed);
+        result.setAttempts(selection.attempts());
+        result.setElapsedMs(elapsedMs);
+        return result;
     }
     
-    public List<Exam> getAllExams() {
-        return examRepository.findAll();
+    public CursorPage<ExamView> getExamsPage(Long after, Integer limit) {
+        return catalogCache.examPage(CursorPage.startAfter(after), CursorPage.clampLimit(limit));
     }
     
-    public Exam getExamById(Long id) {
-        return examRepository.findById(id).orElseThrow();
+    public ExamView getExamById(Long id) {
+        return catalogCache.exam(id).orElseThrow();
+    }
+
+    // The body GET /api/exams/{id} gives for an exam not published yet, in
+    // the published snapshot's shape
+    public ExamSnapshot getExamDetail(Long id) {
+        return ExamSnapshot.of(getExamById(id), catalogCache.examQuestions(id), null);
+    }
+
+    // Freezes the exam's questions into the snapshot served by GET /api/exams/{id}
+    public ExamSnapshots.Snapshot publishExam(Long id) {
+        ExamSnapshots.Snapshot snapshot = examSnapshots.publish(id);
+        catalogVersions.examChanged(id);
+        return snapshot;
+    }
+
+    // Sets or clears the start time; a published snapshot is written again
+    // so it carries the new time
+    public ExamView scheduleExam(Long id, LocalDateTime startTime) {
+        Exam exam = examRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Exam not found"));
+        exam.setStartTime(startTime);
+        examRepository.save(exam);
+        if (examSnapshots.unpublish(id)) {
+            examSnapshots.publish(id);
+        }
+        catalogCache.examChanged(id, courseId(exam));
+        catalogVersions.examChanged(id);
+        ExamView view = catalogCache.exam(id).orElseThrow();
+        examAdmission.scheduleChanged(view);
+        return view;
+    }
+
+    public boolean unpublishExam(Long id) {
+        boolean unpublished = examSnapshots.unpublish(id);
+        catalogVersions.examChanged(id);
+        return unpublished;
+    }
+
+    public List<QuestionView> getExamQuestions(Long id) {
+        getExamById(id);
+        return catalogCache.examQuestions(id);
     }
     
-    public List<Exam> getExamsByCourse(Long courseId) {
-        return examRepository.findByCourseId(courseId);
+    public List<ExamView> getExamsByCourse(Long courseId) {
+        return catalogCache.examsByCourse(courseId);
     }
     
     public void deleteExam(Long id) {
-        examRepository.deleteById(id);
+        examRepository.findById(id).ifPresent(exam -> {
+            examRepository.delete(exam);
+            statisticsService.examDeleted(courseId(exam));
+            gradingService.evict(id);
+            examSnapshots.unpublish(id);
+            examAdmission.forget(id);
+            analyticsService.examDeleted(id);
+            catalogCache.examChanged(id, courseId(exam));
+            catalogVersions.examChanged(id);
+        });
+    }
+
+    private static Long courseId(Exam exam) {
+        return exam.getCourse() != null ? exam.getCourse().getId() : null;
     }
 }
@@ -0,0 +1,340 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.OpenSessionRow;
+import com.skillforge.model.ExamAttempt;
+import com.skillforge.repository.ExamAttemptRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Timed exam sittings. Starting an exam attempt for an exam with a
+// duration opens a session whose deadline (start + duration) is stored on
+// the attempt row and hashed into a TimerWheel; nothing is scheduled or
+// polled per session. Heartbeats only touch memory.
+//
+//   wheel thread:    one tick per tick-ms, expires the sessions whose deadline
+//                    plus grace-ms has passed and queues them
+//   auto-submit:     grades each expired session from the answers it has
+//                    (AttemptService), marking the attempt autoSubmitted
+//
+// A session is closed exactly once: a learner's submit and the expiry both
+// claim it first, and the loser is refused. On startup every open attempt
+// with a deadline is tracked again from the database; the ones that ran
+// out while the server was down are submitted on the first tick.
+@Service
+public class ExamSessions implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ExamSessions.class);
+
+    static final int OPEN = 0;
+    static final int CLOSING = 1;
+    static final int EXPIRED = 2;
+    private static final int MAX_FAILURES = 10;
+
+    private final ExamAttemptRepository attemptRepository;
+    private final long graceMs;
+    private final long retryMs;
+    private final TimerWheel<Session> wheel;
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final BlockingQueue<Session> expired = new LinkedBlockingQueue<>();
+    private volatile Consumer<Session> autoSubmit;
+
+    private volatile boolean running;
+    private Thread wheelThread;
+    private Thread submitThread;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder autoSubmitted = new LongAdder();
+    private final LongAdder autoSubmitFailures = new LongAdder();
+    private final LongAdder heartbeats = new LongAdder();
+    private volatile long rebuilt;
+    private volatile long lastTickLagMs;
+
+    public ExamSessions(ExamAttemptRepository attemptRepository,
+                        @Value("${skillforge.exams.sessions.tick-ms:1000}") long tickMs,
+                        @Value("${skillforge.exams.sessions.wheel-size:512}") int wheelSize,
+                        @Value("${skillforge.exams.sessions.grace-ms:10000}") long graceMs,
+                        @Value("${skillforge.exams.sessions.retry-ms:30000}") long retryMs) {
+        this.attemptRepository = attemptRepository;
+        this.graceMs = Math.max(0, graceMs);
+        this.retryMs = Math.max(1000, retryMs);
+        this.wheel = new TimerWheel<>(wheelSize, tickMs, System.currentTimeMillis());
+    }
+
+    // Set once by AttemptService, which owns grading and completion
+    void onExpiry(Consumer<Session> autoSubmit) {
+        this.autoSubmit = autoSubmit;
+    }
+
+    // Sessions are tracked before requests arrive; expiring them waits for
+    // the application to be ready, so recovered answers are already stored
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        List<OpenSessionRow> rows = attemptRepository.findOpenSessions();
+        for (OpenSessionRow row : rows) {
+            track(row.getAttemptId(), row.getUserId(), row.getExamId(), row.getStartedAt(), row.getDeadlineAt());
+        }
+        rebuilt = rows.size();
+        if (!rows.isEmpty()) {
+            log.info("Rebuilt {} open exam sessions in {} ms", rows.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        wheelThread = new Thread(this::wheelLoop, "exam-session-wheel");
+        submitThread = new Thread(this::submitLoop, "exam-auto-submit");
+        wheelThread.setDaemon(true);
+        submitThread.setDaemon(true);
+        wheelThread.start();
+        submitThread.start();
+    }
+
+    // Starts the clock on a saved attempt that has a deadline
+    public void open(ExamAttempt attempt) {
+        if (attempt.getDeadlineAt() == null) {
+            return;
+        }
+        track(attempt.getId(), attempt.getUserId(), attempt.getExamId(), attempt.getStartedAt(), attempt.getDeadlineAt());
+        opened.increment();
+    }
+
+    public Session get(Long attemptId) {
+        return attemptId != null ? sessions.get(attemptId) : null;
+    }
+
+    public Session heartbeat(Long attemptId) {
+        Session session = get(attemptId);
+        if (session != null) {
+            session.lastSeen = System.currentTimeMillis();
+            heartbeats.increment();
+        }
+        return session;
+    }
+
+    // Refuses answers once the deadline and grace have passed
+    public void checkTime(Long attemptId) {
+        Session session = get(attemptId);
+        if (session != null && (session.state != OPEN || System.currentTimeMillis() >= session.expiresAt)) {
+            throw new RuntimeException("Time is up for this exam");
+        }
+    }
+
+    // A learner's submit takes the session before grading, so the expiry
+    // cannot grade it too. False when the attempt has no session.
+    public boolean claim(Long attemptId) {
+        Session session = get(attemptId);
+        if (session == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= session.expiresAt || session.state == EXPIRED) {
+            throw new RuntimeException("Time is up for this exam");
+        }
+        if (!STATE.compareAndSet(session, OPEN, CLOSING)) {
+            throw new RuntimeException("Attempt is already being submitted");
+        }
+        return true;
+    }
+
+    // The submit failed: back to open, or straight to auto-submit when the
+    // deadline went by meanwhile
+    public void release(Long attemptId) {
+        Session session = get(attemptId);
+        if (session != null && STATE.compareAndSet(session, CLOSING, OPEN)
+                && System.currentTimeMillis() >= session.expiresAt) {
+            expire(session);
+        }
+    }
+
+    // The attempt is completed; forget the session
+    public void closed(Long attemptId, boolean automatic) {
+        Session session = sessions.remove(attemptId);
+        if (session != null) {
+            wheel.cancel(session);
+            (automatic ? autoSubmitted : submitted).increment();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long now = System.currentTimeMillis();
+        long silent = 0;
+        for (Session session : sessions.values()) {
+            if (now - session.lastSeen > 60_000) {
+                silent++;
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("open", sessions.size());
+        stats.put("noHeartbeatForMinute", silent);
+        stats.put("opened", opened.sum());
+        stats.put("rebuilt", rebuilt);
+        stats.put("submitted", submitted.sum());
+        stats.put("autoSubmitted", autoSubmitted.sum());
+        stats.put("autoSubmitFailures", autoSubmitFailures.sum());
+        stats.put("autoSubmitQueue", expired.size());
+        stats.put("heartbeats", heartbeats.sum());
+        stats.put("graceMs", graceMs);
+        stats.put("wheelBuckets", wheel.buckets());
+        stats.put("lastTickLagMs", lastTickLagMs);
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        if (wheelThread != null) {
+            wheelThread.interrupt();
+            wheelThread.join(5000);
+        }
+        if (submitThread != null) {
+            submitThread.interrupt();
+            submitThread.join(5000);
+        }
+    }
+
+    private void track(Long attemptId, Long userId, Long examId, LocalDateTime startedAt, LocalDateTime deadlineAt) {
+        Session session = new Session(attemptId, userId, examId, millis(startedAt), millis(deadlineAt), graceMs);
+        Session previous = sessions.put(attemptId, session);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        wheel.schedule(session, session.expiresAt);
+    }
+
+    private void wheelLoop() {
+        while (running) {
+            long wait = wheel.nextTickAt() - System.currentTimeMillis();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            long now = System.currentTimeMillis();
+            lastTickLagMs = Math.max(0, now - wheel.nextTickAt());
+            for (Session session : wheel.advance(now)) {
+                if (STATE.compareAndSet(session, OPEN, EXPIRED)) {
+                    expire(session);
+                }
+            }
+        }
+    }
+
+    private void expire(Session session) {
+        session.state = EXPIRED;
+        expired.offer(session);
+    }
+
+    private void submitLoop() {
+        while (running) {
+            Session session;
+            try {
+                session = expired.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (session == null || sessions.get(session.attemptId) != session) {
+                continue;
+            }
+            try {
+                autoSubmit.accept(session);
+                closed(session.attemptId, true);
+            } catch (RuntimeException e) {
+                // Typically the database; try again later, the row stays open
+                autoSubmitFailures.increment();
+                if (++session.failures >= MAX_FAILURES) {
+                    log.error("Giving up auto-submitting attempt {} after {} failures: {}", session.attemptId,
+                        session.failures, e.getMessage());
+                    sessions.remove(session.attemptId, session);
+                    continue;
+                }
+                log.warn("Auto-submit of attempt {} failed, retrying in {} ms: {}", session.attemptId, retryMs,
+                    e.getMessage());
+                session.state = OPEN;
+                wheel.schedule(session, System.currentTimeMillis() + retryMs);
+            }
+        }
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime time(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static final AtomicIntegerFieldUpdater<Session> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Session.class, "state");
+
+    // Kept small and flat: ids, times and the wheel links, about 100 bytes
+    // a session plus its map entry.
+    public static final class Session extends TimerWheel.Entry {
+        final long attemptId;
+        final long userId;
+        final long examId;
+        final long startedAt;
+        final long deadline;
+        final long expiresAt;
+        volatile long lastSeen;
+        volatile int state;
+        int failures;
+
+        Session(long attemptId, long userId, long examId, long startedAt, long deadline, long graceMs) {
+            this.attemptId = attemptId;
+            this.userId = userId;
+            this.examId = examId;
+            this.startedAt = startedAt;
+            this.deadline = deadline;
+            this.expiresAt = deadline + graceMs;
+            this.lastSeen = System.currentTimeMillis();
+        }
+
+        public long attemptId() {
+            return attemptId;
+        }
+
+        public long userId() {
+            return userId;
+        }
+
+        public long examId() {
+            return examId;
+        }
+
+        public Map<String, Object> info() {
+            long now = System.currentTimeMillis();
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("attemptId", attemptId);
+            info.put("examId", examId);
+            info.put("status", state == OPEN ? "OPEN" : "SUBMITTING");
+            info.put("startedAt", time(startedAt));
+            info.put("deadlineAt", time(deadline));
+            info.put("remainingMs", Math.max(0, deadline - now));
+            info.put("lastHeartbeat", time(lastSeen));
+            return info;
+        }
+    }
+}
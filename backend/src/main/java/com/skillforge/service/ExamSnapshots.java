@@ -0,0 +1,455 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillforge.dto.ExamSnapshot;
+import com.skillforge.dto.ExamView;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.repository.ExamRepository;
+import com.skillforge.repository.QuestionRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Published exams: the student-facing exam body (ExamSnapshot, no answers)
+// serialized and gzipped once, written to a local file and memory-mapped.
+// GET /api/exams/{id} copies the mapped bytes of a published exam straight
+// to the response, so an exam start costs no query, no entity and no
+// Jackson however many students open it; the heap only holds the mapping.
+//
+// A file is [header][json][gzip], the header holding the exam id, the
+// exam's createdAt as a fingerprint, the lengths and a CRC32C of the
+// payload. Files are reloaded on startup and dropped when the exam is gone
+// or is not the one they were made from (a fresh database reusing ids).
+// Publishing freezes the question set: republishing returns the existing
+// snapshot until it is unpublished.
+//
+// Every publish writes a file of its own, exam-<id>-<version>.snapshot, so
+// no file is ever replaced. A file that is unpublished or dropped is
+// retired and deleted by the sweep once its mapping has been collected:
+// responses may still be writing from it, and Windows refuses to replace or
+// delete a file that is mapped.
+@Service
+public class ExamSnapshots implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(ExamSnapshots.class);
+    private static final int MAGIC = 0x53465831;
+    // magic, exam id, createdAt micros, publishedAt millis, questions, json length, gzip length, crc
+    private static final int HEADER_BYTES = 4 + 8 + 8 + 8 + 4 + 4 + 4 + 4;
+    private static final String PREFIX = "exam-";
+    private static final String SUFFIX = ".snapshot";
+
+    private final ExamRepository examRepository;
+    private final QuestionRepository questionRepository;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final ConcurrentHashMap<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // The whole-file buffer behind each mapped file; every slice and
+    // duplicate handed out keeps it reachable
+    private final ConcurrentHashMap<Path, WeakReference<ByteBuffer>> mappings = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Retired> retired = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    public ExamSnapshots(ExamRepository examRepository, QuestionRepository questionRepository, ObjectMapper objectMapper,
+                         @Value("${skillforge.exams.snapshot-dir:data/exam-snapshots}") String directory) {
+        this.examRepository = examRepository;
+        this.questionRepository = questionRepository;
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create exam snapshot directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                    && path.getFileName().toString().endsWith(SUFFIX)).forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list exam snapshots in " + directory, e);
+        }
+        // Only the newest version of each exam is mapped; older ones were
+        // retired before a restart and nothing maps them now
+        int dropped = 0;
+        Map<Long, Path> newest = new HashMap<>();
+        Map<Long, Long> newestVersion = new HashMap<>();
+        for (Path file : files) {
+            long[] name = parseName(file);
+            if (name == null) {
+                dropped++;
+                delete(file);
+                continue;
+            }
+            Long previous = newestVersion.get(name[0]);
+            if (previous != null && previous >= name[1]) {
+                dropped++;
+                delete(file);
+                continue;
+            }
+            if (previous != null) {
+                dropped++;
+                delete(newest.get(name[0]));
+            }
+            newest.put(name[0], file);
+            newestVersion.put(name[0], name[1]);
+        }
+        for (Path file : newest.values()) {
+            Snapshot snapshot = null;
+            try {
+                snapshot = map(file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Dropping unreadable exam snapshot {}: {}", file.getFileName(), e.getMessage());
+            }
+            Optional<ExamView> exam = snapshot != null ? examRepository.findViewById(snapshot.examId()) : Optional.empty();
+            if (exam.isPresent() && micros(exam.get().createdAt()) == snapshot.createdAtMicros()) {
+                snapshots.put(snapshot.examId(), snapshot);
+            } else {
+                dropped++;
+                retire(file);
+            }
+        }
+        if (!files.isEmpty()) {
+            log.info("Mapped {} exam snapshots ({} dropped) in {} ms", snapshots.size(), dropped,
+                (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public Snapshot get(Long examId) {
+        return examId != null ? snapshots.get(examId) : null;
+    }
+
+    // Rare and slow (a query, a file write and an fsync), so one at a time
+    public Snapshot publish(Long examId) {
+        publishLock.lock();
+        try {
+            Snapshot existing = snapshots.get(examId);
+            if (existing != null) {
+                return existing;
+            }
+            ExamView exam = examRepository.findViewById(examId)
+                .orElseThrow(() -> new RuntimeException("Exam not found"));
+            List<QuestionView> questions = questionRepository.findViewsByExamInOrder(examId);
+            if (questions.isEmpty()) {
+                throw new RuntimeException("Exam has no questions to publish");
+            }
+            Instant publishedAt = Instant.now();
+            ExamSnapshot body = ExamSnapshot.of(exam, questions, publishedAt);
+
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize exam " + examId, e);
+            }
+            byte[] gzip = gzip(json);
+            Path file = newFile(examId, publishedAt.toEpochMilli());
+            try {
+                write(file, examId, micros(exam.createdAt()), publishedAt.toEpochMilli(),
+                    body.questionCount(), json, gzip);
+                Snapshot snapshot;
+                try {
+                    snapshot = map(file);
+                } catch (IOException | RuntimeException e) {
+                    retire(file);
+                    throw e;
+                }
+                snapshots.put(examId, snapshot);
+                log.info("Published exam {}: {} questions, {} bytes, {} gzipped", examId, body.questionCount(),
+                    json.length, gzip.length);
+                return snapshot;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write exam snapshot " + file, e);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // True when the exam was published. The mapping itself is released by
+    // the garbage collector once no response is still writing from it, and
+    // the file is deleted by a later sweep.
+    public boolean unpublish(Long examId) {
+        publishLock.lock();
+        try {
+            Snapshot snapshot = snapshots.remove(examId);
+            if (snapshot == null) {
+                return false;
+            }
+            retire(snapshot.file());
+            return true;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // Deletes retired files whose mapping has been collected. A delete that
+    // still fails (the unmapping runs a little after collection) is retried
+    // on the next sweep.
+    @Scheduled(fixedDelayString = "${skillforge.exams.snapshot-sweep-ms:60000}")
+    public void sweep() {
+        for (Iterator<Retired> it = retired.iterator(); it.hasNext(); ) {
+            Retired file = it.next();
+            if (file.mapping() != null && file.mapping().get() != null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file.path());
+                it.remove();
+            } catch (IOException e) {
+                log.debug("Exam snapshot {} not deleted yet: {}", file.path().getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    // Faults the mapped pages in ahead of a scheduled start, so the first
+    // readers do not each wait on the disk
+    public void load(Snapshot snapshot) {
+        for (ByteBuffer buffer : new ByteBuffer[] {snapshot.json(), snapshot.gzip()}) {
+            if (buffer instanceof MappedByteBuffer mapped) {
+                mapped.load();
+            }
+        }
+    }
+
+    // Writes the snapshot as the response: gzipped when the client accepts
+    // it, 304 when If-None-Match already names this encoding's tag.
+    public void serve(Snapshot snapshot, NativeWebRequest request) throws IOException {
+        HttpServletRequest httpRequest = request.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        boolean gzip = acceptsGzip(httpRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        if (request.checkNotModified(gzip ? snapshot.gzipEtag() : snapshot.etag())) {
+            return;
+        }
+        ByteBuffer body = (gzip ? snapshot.gzip() : snapshot.json()).duplicate();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.remaining());
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        while (body.hasRemaining()) {
+            out.write(body);
+        }
+        response.flushBuffer();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long json = 0;
+        long gzip = 0;
+        for (Snapshot snapshot : snapshots.values()) {
+            json += snapshot.json().capacity();
+            gzip += snapshot.gzip().capacity();
+        }
+        stats.put("published", snapshots.size());
+        stats.put("jsonBytes", json);
+        stats.put("gzipBytes", gzip);
+        stats.put("retiredFiles", retired.size());
+        stats.put("directory", directory.toAbsolutePath().toString());
+        return stats;
+    }
+
+    private static void write(Path file, long examId, long createdAtMicros, long publishedAtMillis, int questions,
+                              byte[] json, byte[] gzip) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(json);
+        crc.update(gzip);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+            .putInt(MAGIC).putLong(examId).putLong(createdAtMicros).putLong(publishedAtMillis)
+            .putInt(questions).putInt(json.length).putInt(gzip.length).putInt((int) crc.getValue())
+            .flip();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, ByteBuffer.wrap(json), ByteBuffer.wrap(gzip)};
+            long total = HEADER_BYTES + (long) json.length + gzip.length;
+            long written = 0;
+            while (written < total) {
+                written += channel.write(parts);
+            }
+            channel.force(true);
+        }
+        // The target is always a new name, so nothing is replaced
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Caller holds publishLock, or is the startup scan
+    private Path newFile(long examId, long version) {
+        Path file = directory.resolve(PREFIX + examId + "-" + version + SUFFIX);
+        while (Files.exists(file)) {
+            file = directory.resolve(PREFIX + examId + "-" + ++version + SUFFIX);
+        }
+        return file;
+    }
+
+    // {examId, version} from exam-<id>-<version>.snapshot, or from the
+    // older exam-<id>.snapshot as version 0; null for any other name
+    private static long[] parseName(Path file) {
+        String name = file.getFileName().toString();
+        String[] parts = name.substring(PREFIX.length(), name.length() - SUFFIX.length()).split("-");
+        try {
+            if (parts.length == 1) {
+                return new long[] {Long.parseLong(parts[0]), 0};
+            }
+            if (parts.length == 2) {
+                return new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        return null;
+    }
+
+    private void retire(Path file) {
+        retired.add(new Retired(file, mappings.remove(file)));
+        sweep();
+    }
+
+    private Snapshot map(Path file) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("truncated header");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mappings.put(file, new WeakReference<>(data));
+        if (data.getInt() != MAGIC) {
+            throw new IOException("not an exam snapshot");
+        }
+        long examId = data.getLong();
+        long createdAtMicros = data.getLong();
+        long publishedAtMillis = data.getLong();
+        int questions = data.getInt();
+        int jsonLength = data.getInt();
+        int gzipLength = data.getInt();
+        int crc = data.getInt();
+        if (jsonLength < 0 || gzipLength < 0 || data.remaining() != (long) jsonLength + gzipLength) {
+            throw new IOException("length mismatch");
+        }
+        ByteBuffer json = data.slice(HEADER_BYTES, jsonLength).asReadOnlyBuffer();
+        ByteBuffer gzip = data.slice(HEADER_BYTES + jsonLength, gzipLength).asReadOnlyBuffer();
+        CRC32C check = new CRC32C();
+        check.update(json.duplicate());
+        check.update(gzip.duplicate());
+        if ((int) check.getValue() != crc) {
+            throw new IOException("checksum mismatch");
+        }
+        String tag = "exam-" + examId + "." + Integer.toHexString(crc);
+        return new Snapshot(examId, createdAtMicros, Instant.ofEpochMilli(publishedAtMillis), questions,
+            "\"" + tag + "\"", "\"" + tag + ".gz\"", json, gzip, file);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Honours "gzip;q=0" as a refusal; anything else naming gzip (or *) accepts
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static long micros(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000 : Long.MIN_VALUE;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete exam snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record Retired(Path path, WeakReference<ByteBuffer> mapping) {
+    }
+
+    public record Snapshot(long examId, long createdAtMicros, Instant publishedAt, int questions,
+                           String etag, String gzipEtag, ByteBuffer json, ByteBuffer gzip, Path file) {
+
+        public Map<String, Object> info() {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("examId", examId);
+            info.put("questions", questions);
+            info.put("publishedAt", publishedAt);
+            info.put("bytes", json.capacity());
+            info.put("gzipBytes", gzip.capacity());
+            info.put("etag", etag);
+            return info;
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package com.skillforge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skillforge.dto.GeneratedQuestion;
+import com.skillforge.dto.GenerationJobView;
+import com.skillforge.dto.GenerationRequest;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.exception.ServiceUnavailableException;
+import com.skillforge.model.Course;
+import com.skillforge.model.Question;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.repository.QuestionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Background question generation for a course, topic and difficulty.
+//
+//   POST -> bounded job queue -> workers -> generator, a batch of prompts at a time
+//                                              |
+//                                              v
+//                      save as one chunk, cache by prompt hash, push to the job's streams
+//
+// Before a batch goes to the generator every prompt's SHA-256 is looked up
+// in the result cache; prompts seen before are answered with the question
+// saved for them, so a repeated request costs one SELECT and no generation.
+// Only the misses are generated, checked for near-duplicates and saved in
+// one transaction like an import chunk. The worker count bounds how many
+// generator calls run at once; a full queue refuses new jobs with a 503.
+//
+// Jobs are kept in memory and dropped skillforge.generation.retention-ms
+// after they finish. A restart loses queued jobs, not saved questions.
+@Service
+public class GenerationService implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(GenerationService.class);
+    private static final Set<String> DIFFICULTIES = Set.of("EASY", "MEDIUM", "HARD");
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CourseRepository courseRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionService questionService;
+    private final DuplicateDetector duplicateDetector;
+    private final QuestionGenerator generator;
+    private final TransactionTemplate transaction;
+    private final int workers;
+    private final int batchSize;
+    private final int maxCount;
+    private final long retentionMs;
+    private final long streamTimeoutMs;
+    private final BlockingQueue<Job> queue;
+    private final ConcurrentHashMap<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    // Prompt hash -> id of the question saved for it
+    private final Cache<String, Long> results;
+
+    private volatile boolean running;
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder generatorBatches = new LongAdder();
+    private final LongAdder generatorNanos = new LongAdder();
+
+    public GenerationService(CourseRepository courseRepository, QuestionRepository questionRepository,
+                             QuestionService questionService, DuplicateDetector duplicateDetector,
+                             QuestionGenerator generator, PlatformTransactionManager transactionManager,
+                             @Value("${skillforge.generation.workers:4}") int workers,
+                             @Value("${skillforge.generation.batch-size:10}") int batchSize,
+                             @Value("${skillforge.generation.queue-capacity:100}") int queueCapacity,
+                             @Value("${skillforge.generation.max-questions-per-job:500}") int maxCount,
+                             @Value("${skillforge.generation.cache-size:100000}") long cacheSize,
+                             @Value("${skillforge.generation.retention-ms:3600000}") long retentionMs,
+                             @Value("${skillforge.generation.stream-timeout-ms:600000}") long streamTimeoutMs) {
+        this.courseRepository = courseRepository;
+        this.questionRepository = questionRepository;
+        this.questionService = questionService;
+        this.duplicateDetector = duplicateDetector;
+        this.generator = generator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxCount = maxCount;
+        this.retentionMs = retentionMs;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.results = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::workerLoop, "question-generation-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Question generation: {} workers, batches of {}, generator {}", workers, batchSize, generator.name());
+    }
+
+    // Queues a job and returns it; throws ServiceUnavailableException when
+    // the queue is full.
+    public GenerationJobView submit(Long userId, GenerationRequest request) {
+        if (request.getCourseId() == null) {
+            throw new RuntimeException("courseId is required");
+        }
+        if (request.getTopic() == null || request.getTopic().isBlank()) {
+            throw new RuntimeException("topic is required");
+        }
+        if (request.getTopic().length() > 255) {
+            throw new RuntimeException("topic is longer than 255 characters");
+        }
+        String difficulty = request.getDifficulty() == null ? "MEDIUM" : request.getDifficulty().trim().toUpperCase(Locale.ROOT);
+        if (!DIFFICULTIES.contains(difficulty)) {
+            throw new RuntimeException("difficulty must be EASY, MEDIUM or HARD");
+        }
+        if (request.getCount() == null || request.getCount() < 1 || request.getCount() > maxCount) {
+            throw new RuntimeException("count must be between 1 and " + maxCount);
+        }
+        Course course = courseRepository.findById(request.getCourseId())
+            .orElseThrow(() -> new RuntimeException("Course not found"));
+
+        Job job = new Job(nextId.incrementAndGet(), userId, course.getId(), course.getTitle(), request.getTopic().trim(),
+                difficulty, request.getSeed() != null ? request.getSeed() : 0, request.getCount());
+        jobs.put(job.id, job);
+        if (!running || !queue.offer(job)) {
+            jobs.remove(job.id);
+            refused.increment();
+            throw new ServiceUnavailableException("Too many generation jobs queued, please retry shortly");
+        }
+        submitted.increment();
+        return job.view();
+    }
+
+    public GenerationJobView job(Long userId, long jobId) {
+        return find(userId, jobId).view();
+    }
+
+    // Queued jobs stop at once, running ones after their current batch
+    public GenerationJobView cancel(Long userId, long jobId) {
+        Job job = find(userId, jobId);
+        job.cancel();
+        return job.view();
+    }
+
+    // Streams the job's results as server-sent events: a "question" event
+    // per result (id = its index in the job), then one "done" event with
+    // the final job. Results produced before subscribing are replayed,
+    // after lastEventId when the client is reconnecting.
+    public SseEmitter subscribe(Long userId, long jobId, Integer lastEventId) {
+        Job job = find(userId, jobId);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        emitter.onCompletion(() -> job.unsubscribe(emitter));
+        emitter.onTimeout(() -> job.unsubscribe(emitter));
+        emitter.onError(e -> job.unsubscribe(emitter));
+        job.subscribe(emitter, lastEventId != null ? lastEventId : -1);
+        return emitter;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("generator", generator.name());
+        stats.put("workers", workers);
+        stats.put("batchSize", batchSize);
+        stats.put("queueDepth", queue.size());
+        stats.put("jobs", jobs.size());
+        stats.put("submitted", submitted.sum());
+        stats.put("refused", refused.sum());
+        stats.put("failed", failed.sum());
+        stats.put("cachedPrompts", results.estimatedSize());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("generated", generated.sum());
+        stats.put("dropped", dropped.sum());
+        long batches = generatorBatches.sum();
+        stats.put("generatorBatches", batches);
+        stats.put("generatorMs", generatorNanos.sum() / 1_000_000);
+        stats.put("meanBatchMs", batches > 0 ? generatorNanos.sum() / 1e6 / batches : 0.0);
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${skillforge.generation.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    private Job find(Long userId, long jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new RuntimeException("Generation job not found");
+        }
+        return job;
+    }
+
+    private void workerLoop() {
+        while (running) {
+            try {
+                Job job = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (job != null) {
+                    run(job);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run(Job job) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            for (int from = 0; from < job.requested && !job.cancelled && running; from += batchSize) {
+                runBatch(job, from, Math.min(job.requested, from + batchSize));
+            }
+            job.finish(job.cancelled || !running ? Status.CANCELLED : Status.DONE, null);
+        } catch (RuntimeException e) {
+            failed.increment();
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Generation job {} failed: {}", job.id, message);
+            job.finish(Status.FAILED, message);
+        }
+    }
+
+    private void runBatch(Job job, int from, int to) {
+        int size = to - from;
+        GeneratedQuestion[] out = new GeneratedQuestion[size];
+        List<QuestionGenerator.Prompt> prompts = new ArrayList<>(size);
+        String[] keys = new String[size];
+        Map<Integer, Long> cachedIds = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            QuestionGenerator.Prompt prompt = new QuestionGenerator.Prompt(job.courseId, job.course, job.topic,
+                    job.difficulty, job.seed, from + i);
+            prompts.add(prompt);
+            keys[i] = key(prompt);
+            Long id = results.getIfPresent(keys[i]);
+            if (id != null) {
+                cachedIds.put(i, id);
+            }
+        }
+
+        // Cached prompts whose question still exists need no generation
+        if (!cachedIds.isEmpty()) {
+            Map<Long, QuestionView> views = new HashMap<>();
+            for (QuestionView view : questionRepository.findViewsByIdIn(cachedIds.values())) {
+                views.put(view.id(), view);
+            }
+            cachedIds.forEach((slot, id) -> {
+                QuestionView view = views.get(id);
+                if (view != null) {
+                    out[slot] = new GeneratedQuestion(from + slot, true, List.of(), view);
+                    cacheHits.increment();
+                }
+            });
+        }
+
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (out[i] == null) {
+                missing.add(i);
+            }
+        }
+        int droppedInBatch = 0;
+        if (!missing.isEmpty()) {
+            droppedInBatch = generate(job, prompts, keys, missing, out);
+        }
+        job.batchDone(droppedInBatch);
+        for (GeneratedQuestion result : out) {
+            if (result != null) {
+                job.add(result);
+            }
+        }
+    }
+
+    // Generates the missing slots of a batch in one generator call and saves
+    // the usable questions as one chunk. Returns how many were dropped.
+    private int generate(Job job, List<QuestionGenerator.Prompt> prompts, String[] keys, List<Integer> missing,
+                         GeneratedQuestion[] out) {
+        List<QuestionGenerator.Prompt> batch = missing.stream().map(prompts::get).toList();
+        long start = System.nanoTime();
+        List<Question> questions = generator.generate(batch);
+        generatorNanos.add(System.nanoTime() - start);
+        generatorBatches.increment();
+        if (questions == null || questions.size() != batch.size()) {
+            throw new RuntimeException("Generator returned " + (questions == null ? 0 : questions.size())
+                    + " questions for " + batch.size() + " prompts");
+        }
+
+        List<Question> fresh = new ArrayList<>(batch.size());
+        List<Integer> slots = new ArrayList<>(batch.size());
+        List<List<Long>> duplicates = new ArrayList<>(batch.size());
+        // Index into fresh of an earlier question in this batch it nearly duplicates, or -1
+        List<Integer> duplicateInBatch = new ArrayList<>(batch.size());
+        List<short[]> signatures = new ArrayList<>(batch.size());
+        int droppedInBatch = 0;
+        for (int j = 0; j < questions.size(); j++) {
+            Question question = questions.get(j);
+            if (!usable(question, batch.get(j))) {
+                droppedInBatch++;
+                continue;
+            }
+            short[] signature = duplicateDetector.signature(question);
+            List<Long> existing = duplicateDetector.find(job.courseId, signature, null);
+            int earlier = -1;
+            if (existing.isEmpty() && duplicateDetector.mode() != DuplicateDetector.Mode.OFF) {
+                for (int k = 0; k < signatures.size() && earlier < 0; k++) {
+                    if (duplicateDetector.similar(signature, signatures.get(k))) {
+                        earlier = k;
+                    }
+                }
+            }
+            if ((!existing.isEmpty() || earlier >= 0) && duplicateDetector.mode() == DuplicateDetector.Mode.REJECT) {
+                droppedInBatch++;
+                continue;
+            }
+            fresh.add(question);
+            slots.add(missing.get(j));
+            duplicates.add(existing);
+            duplicateInBatch.add(earlier);
+            signatures.add(signature);
+        }
+        dropped.add(droppedInBatch);
+        if (fresh.isEmpty()) {
+            return droppedInBatch;
+        }
+
+        transaction.executeWithoutResult(status -> {
+            for (Question question : fresh) {
+                question.setId(null);
+                question.setCourse(entityManager.getReference(Course.class, job.courseId));
+                entityManager.persist(question);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        questionService.afterBulkInsert(fresh);
+        generated.add(fresh.size());
+
+        for (int j = 0; j < fresh.size(); j++) {
+            Question saved = fresh.get(j);
+            int slot = slots.get(j);
+            results.put(keys[slot], saved.getId());
+            List<Long> duplicateOf = duplicateInBatch.get(j) >= 0
+                    ? List.of(fresh.get(duplicateInBatch.get(j)).getId()) : duplicates.get(j);
+            out[slot] = new GeneratedQuestion(prompts.get(slot).index(), false, duplicateOf, QuestionView.of(saved));
+        }
+        return droppedInBatch;
+    }
+
+    // Fills what the generator may leave out and drops what cannot be saved
+    private static boolean usable(Question question, QuestionGenerator.Prompt prompt) {
+        if (question == null || question.getQuestionText() == null || question.getQuestionText().isBlank()
+                || question.getQuestionText().length() > 1000 || question.correctOptionIndex() < 0) {
+            return false;
+        }
+        if (question.getDifficulty() == null) {
+            question.setDifficulty(prompt.difficulty());
+        }
+        if (question.getTopic() == null) {
+            question.setTopic(prompt.topic());
+        }
+        if (question.getMarks() == null || question.getMarks() <= 0) {
+            question.setMarks(1);
+        }
+        return true;
+    }
+
+    private String key(QuestionGenerator.Prompt prompt) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha.digest((generator.name() + '\n' + prompt.courseId() + '\n' + prompt.text())
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Stops taking jobs; running jobs end after their current batch
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+
+    // A job, its results so far and the streams following it. Results and
+    // streams are guarded by the job's lock, so a subscriber replaying
+    // old results never misses or repeats one being added.
+    private static final class Job {
+        final long id;
+        final Long userId;
+        final Long courseId;
+        final String course;
+        final String topic;
+        final String difficulty;
+        final long seed;
+        final int requested;
+        final Instant createdAt = Instant.now();
+        private final List<GeneratedQuestion> produced = new ArrayList<>();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private Status status = Status.QUEUED;
+        private String error;
+        private int cached;
+        private int duplicates;
+        private int dropped;
+        private int batches;
+        private long startNanos;
+        private long elapsedMs = -1;
+        private long finishedAt;
+        volatile boolean cancelled;
+
+        Job(long id, Long userId, Long courseId, String course, String topic, String difficulty, long seed, int requested) {
+            this.id = id;
+            this.userId = userId;
+            this.courseId = courseId;
+            this.course = course;
+            this.topic = topic;
+            this.difficulty = difficulty;
+            this.seed = seed;
+            this.requested = requested;
+        }
+
+        boolean start() {
+            lock.lock();
+            try {
+                if (status != Status.QUEUED) {
+                    return false;
+                }
+                status = Status.RUNNING;
+                startNanos = System.nanoTime();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(GeneratedQuestion result) {
+            lock.lock();
+            try {
+                produced.add(result);
+                if (result.cached()) {
+                    cached++;
+                }
+                if (!result.duplicateOf().isEmpty()) {
+                    duplicates++;
+                }
+                for (SseEmitter emitter : emitters) {
+                    send(emitter, questionEvent(result));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void batchDone(int droppedInBatch) {
+            lock.lock();
+            try {
+                batches++;
+                dropped += droppedInBatch;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void finish(Status outcome, String message) {
+            lock.lock();
+            try {
+                status = outcome;
+                error = message;
+                elapsedMs = startNanos > 0 ? (System.nanoTime() - startNanos) / 1_000_000 : 0;
+                finishedAt = System.currentTimeMillis();
+                GenerationJobView view = view();
+                for (SseEmitter emitter : emitters) {
+                    if (send(emitter, SseEmitter.event().name("done").data(view))) {
+                        emitter.complete();
+                    }
+                }
+                emitters.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                if (status == Status.QUEUED) {
+                    finish(Status.CANCELLED, null);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void subscribe(SseEmitter emitter, int after) {
+            lock.lock();
+            try {
+                for (GeneratedQuestion result : produced) {
+                    if (result.index() > after && !send(emitter, questionEvent(result))) {
+                        return;
+                    }
+                }
+                if (finished()) {
+                    if (send(emitter, SseEmitter.event().name("done").data(view()))) {
+                        emitter.complete();
+                    }
+                } else {
+                    emitters.add(emitter);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void unsubscribe(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        boolean finishedBefore(long cutoff) {
+            lock.lock();
+            try {
+                return finished() && finishedAt < cutoff;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean finished() {
+            return status != Status.QUEUED && status != Status.RUNNING;
+        }
+
+        // False when the client has gone; the emitter is dropped
+        private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                return false;
+            }
+        }
+
+        private static SseEmitter.SseEventBuilder questionEvent(GeneratedQuestion result) {
+            return SseEmitter.event().id(String.valueOf(result.index())).name("question").data(result);
+        }
+
+        GenerationJobView view() {
+            lock.lock();
+            try {
+                GenerationJobView view = new GenerationJobView();
+                view.setId(id);
+                view.setStatus(status.name());
+                view.setCourseId(courseId);
+                view.setTopic(topic);
+                view.setDifficulty(difficulty);
+                view.setSeed(seed);
+                view.setRequested(requested);
+                view.setProduced(produced.size());
+                view.setCached(cached);
+                view.setDuplicates(duplicates);
+                view.setDropped(dropped);
+                view.setBatches(batches);
+                for (GeneratedQuestion result : produced) {
+                    view.getQuestionIds().add(result.question().id());
+                }
+                view.setError(error);
+                view.setCreatedAt(createdAt);
+                if (elapsedMs >= 0) {
+                    view.setElapsedMs(elapsedMs);
+                } else if (startNanos > 0) {
+                    view.setElapsedMs((System.nanoTime() - startNanos) / 1_000_000);
+                }
+                return view;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.CohortGradingResult;
+import com.skillforge.dto.SheetRow;
+import com.skillforge.model.Answer;
+import com.skillforge.model.AnswerSheet;
+import com.skillforge.model.ExamAttempt;
+import com.skillforge.model.Question;
+import com.skillforge.repository.AnswerRepository;
+import com.skillforge.repository.AnswerSheetRepository;
+import com.skillforge.repository.QuestionRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Grades exam answer sheets against a compiled answer key. Keys are built
+// once per exam from Question.correctAnswer and cached; a cohort is loaded
+// into two flat long[] matrices and graded in parallel chunks, then the
+// scores go back in JDBC batches.
+@Service
+public class GradingService {
+    private static final int CHUNK = 1024;
+    private static final int WRITE_BATCH = 1000;
+
+    private final AnswerSheetRepository sheetRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ConcurrentHashMap<Long, PackedAnswers.Key> keys = new ConcurrentHashMap<>();
+
+    public GradingService(AnswerSheetRepository sheetRepository, QuestionRepository questionRepository,
+                          AnswerRepository answerRepository, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager) {
+        this.sheetRepository = sheetRepository;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Packs and grades one sheet given as a string of choices. The caller
+    // saves it.
+    public AnswerSheet sheet(ExamAttempt attempt, String answers) {
+        PackedAnswers.Key key = key(attempt.getExamId());
+        byte[][] packed = PackedAnswers.pack(answers != null ? answers : "", key.questions);
+        return graded(attempt, key, packed[0], packed[1]);
+    }
+
+    // Builds the sheet for an exam attempt that was answered question by
+    // question; the last answer to each question counts.
+    public AnswerSheet sheetFromAnswers(ExamAttempt attempt) {
+        PackedAnswers.Key key = key(attempt.getExamId());
+        Map<Long, Integer> positions = new HashMap<>();
+        List<Question> questions = questionRepository.findByExamInOrder(attempt.getExamId());
+        for (int i = 0; i < questions.size(); i++) {
+            positions.putIfAbsent(questions.get(i).getId(), i);
+        }
+        int[] chosen = new int[key.questions];
+        Arrays.fill(chosen, -1);
+        for (Answer answer : answerRepository.findByAttemptIdOrderByIdAsc(attempt.getId())) {
+            Integer position = positions.get(answer.getQuestionId());
+            String value = answer.getSelectedAnswer() != null ? answer.getSelectedAnswer().trim() : "";
+            if (position != null && value.length() == 1) {
+                int option = Character.toUpperCase(value.charAt(0)) - 'A';
+                chosen[position] = option >= 0 && option < 4 ? option : -1;
+            }
+        }
+        byte[] choices = new byte[PackedAnswers.choiceBytes(key.questions)];
+        byte[] answered = new byte[PackedAnswers.maskBytes(key.questions)];
+        for (int i = 0; i < chosen.length; i++) {
+            if (chosen[i] >= 0) {
+                PackedAnswers.set(choices, answered, i, chosen[i]);
+            }
+        }
+        return graded(attempt, key, choices, answered);
+    }
+
+    public int maxScore(Long examId) {
+        return key(examId).maxScore;
+    }
+
+    public int questionCount(Long examId) {
+        return key(examId).questions;
+    }
+
+    public String answers(AnswerSheet sheet) {
+        return PackedAnswers.unpack(sheet.getChoices(), sheet.getAnswered(), sheet.getQuestionCount());
+    }
+
+    // Re-grades every sheet submitted for the exam and writes the results
+    // to the sheets and their attempts.
+    public CohortGradingResult gradeCohort(Long examId) {
+        PackedAnswers.Key key = key(examId);
+        int words = key.words();
+
+        long loadStart = System.nanoTime();
+        int capacity = (int) sheetRepository.countByExamId(examId);
+        long[] attemptIds = new long[capacity];
+        long[] choices = new long[capacity * words];
+        long[] answered = new long[capacity * words];
+        int[] counts = new int[2];
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<SheetRow> rows = sheetRepository.streamByExamId(examId)) {
+                rows.forEach(row -> {
+                    int n = counts[0];
+                    if (n == attemptIds.length || row.getQuestionCount() != key.questions) {
+                        // Submitted after the count, or against an older version of the exam
+                        counts[1]++;
+                        return;
+                    }
+                    attemptIds[n] = row.getAttemptId();
+                    PackedAnswers.choiceWords(row.getChoices(), choices, n * words);
+                    PackedAnswers.maskWords(row.getAnswered(), answered, n * words);
+                    counts[0]++;
+                });
+            }
+        });
+        int sheets = counts[0];
+        long loadMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        long gradeStart = System.nanoTime();
+        int[] given = new int[sheets];
+        int[] correct = new int[sheets];
+        int[] score = new int[sheets];
+        IntStream.range(0, (sheets + CHUNK - 1) / CHUNK).parallel().forEach(chunk ->
+                key.grade(choices, answered, chunk * CHUNK, Math.min(sheets, (chunk + 1) * CHUNK), given, correct, score));
+        double gradeMs = (System.nanoTime() - gradeStart) / 1e6;
+
+        long writeStart = System.nanoTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> indexes = IntStream.range(0, sheets).boxed().toList();
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "update answer_sheets set answered_count = ?, correct = ?, score = ?, graded_at = ? where attempt_id = ?",
+                    indexes, WRITE_BATCH, (ps, i) -> {
+                        ps.setInt(1, given[i]);
+                        ps.setInt(2, correct[i]);
+                        ps.setInt(3, score[i]);
+                        ps.setTimestamp(4, now);
+                        ps.setLong(5, attemptIds[i]);
+                    });
+            jdbcTemplate.batchUpdate(
+                    "update exam_attempts set answered = ?, correct = ?, score = ? where id = ?",
+                    indexes, WRITE_BATCH, (ps, i) -> {
+                        ps.setInt(1, given[i]);
+                        ps.setInt(2, correct[i]);
+                        ps.setInt(3, score[i]);
+                        ps.setLong(4, attemptIds[i]);
+                    });
+        });
+        long writeMs = (System.nanoTime() - writeStart) / 1_000_000;
+
+        long total = 0;
+        for (int i = 0; i < sheets; i++) {
+            total += score[i];
+        }
+        CohortGradingResult result = new CohortGradingResult();
+        result.setExamId(examId);
+        result.setQuestions(key.questions);
+        result.setMaxScore(key.maxScore);
+        result.setSheets(sheets);
+        result.setSkipped(counts[1]);
+        result.setMeanScore(sheets == 0 ? 0 : (double) total / sheets);
+        result.setBytesPerSheet(PackedAnswers.choiceBytes(key.questions) + PackedAnswers.maskBytes(key.questions));
+        result.setLoadMs(loadMs);
+        result.setGradeMs(gradeMs);
+        result.setWriteMs(writeMs);
+        return result;
+    }
+
+    // Exams are not edited in place today, but a deleted exam's key must go.
+    public void evict(Long examId) {
+        keys.remove(examId);
+    }
+
+    // Compiles the answer key ahead of a scheduled start
+    public void warm(Long examId) {
+        key(examId);
+    }
+
+    private AnswerSheet graded(ExamAttempt attempt, PackedAnswers.Key key, byte[] choices, byte[] answered) {
+        int words = key.words();
+        long[] choiceWords = new long[words];
+        long[] maskWords = new long[words];
+        PackedAnswers.choiceWords(choices, choiceWords, 0);
+        PackedAnswers.maskWords(answered, maskWords, 0);
+        int[] given = new int[1];
+        int[] correct = new int[1];
+        int[] score = new int[1];
+        key.grade(choiceWords, maskWords, 0, 1, given, correct, score);
+
+        AnswerSheet sheet = new AnswerSheet();
+        sheet.setAttemptId(attempt.getId());
+        sheet.setExamId(attempt.getExamId());
+        sheet.setUserId(attempt.getUserId());
+        sheet.setQuestionCount(key.questions);
+        sheet.setChoices(choices);
+        sheet.setAnswered(answered);
+        sheet.setAnsweredCount(given[0]);
+        sheet.setCorrect(correct[0]);
+        sheet.setScore(score[0]);
+        sheet.setGradedAt(LocalDateTime.now());
+        return sheet;
+    }
+
+    private PackedAnswers.Key key(Long examId) {
+        PackedAnswers.Key key = keys.get(examId);
+        if (key == null) {
+            key = compile(examId);
+            PackedAnswers.Key existing = keys.putIfAbsent(examId, key);
+            if (existing != null) {
+                key = existing;
+            }
+        }
+        return key;
+    }
+
+    // An exam without questions gets an empty key, which scores every sheet 0
+    private PackedAnswers.Key compile(Long examId) {
+        List<Question> questions = questionRepository.findByExamInOrder(examId);
+        int[] options = new int[questions.size()];
+        int[] marks = new int[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            options[i] = question.correctOptionIndex();
+            marks[i] = question.getMarks() != null ? question.getMarks() : 1;
+        }
+        return new PackedAnswers.Key(options, marks);
+    }
+}
@@ -0,0 +1,297 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.ExamView;
+import com.skillforge.model.ExamAttempt;
+import com.skillforge.model.OutboxEvent;
+import com.skillforge.model.User;
+import com.skillforge.repository.GuardianLinkRepository;
+import com.skillforge.repository.OutboxEventRepository;
+import com.skillforge.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Guardian notifications through a transactional outbox. A completed exam
+// writes one outbox row per guardian of the learner in the transaction
+// that completes the attempt, so a notification exists exactly when the
+// result does and the request never waits on delivery.
+//
+//   dispatcher:  picks guardians with a row that is due, loads all of their
+//                pending rows and hands each guardian one digest
+//   senders:     deliver digests through the NotificationChannel in
+//                parallel; delivered rows are deleted in one statement,
+//                failed ones are pushed back with exponential backoff
+//
+// New rows become due coalesce-ms after they are written, so a burst of
+// events for one guardian (several wards, or retakes) goes out as a single
+// digest. Rows that fail max-attempts times are marked FAILED and kept.
+@Service
+public class GuardianNotifier implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(GuardianNotifier.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final GuardianLinkRepository linkRepository;
+    private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationChannel channel;
+    private final long coalesceMs;
+    private final long pollMs;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final double behindBelow;
+    private final ExecutorService senders;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder digests = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long lastBatchMs;
+
+    public GuardianNotifier(OutboxEventRepository outboxRepository, GuardianLinkRepository linkRepository,
+                            UserRepository userRepository, CatalogCache catalogCache, JdbcTemplate jdbcTemplate,
+                            NotificationChannel channel,
+                            @Value("${skillforge.notifications.coalesce-ms:60000}") long coalesceMs,
+                            @Value("${skillforge.notifications.poll-ms:1000}") long pollMs,
+                            @Value("${skillforge.notifications.batch-size:100}") int batchSize,
+                            @Value("${skillforge.notifications.senders:4}") int senders,
+                            @Value("${skillforge.notifications.max-attempts:8}") int maxAttempts,
+                            @Value("${skillforge.notifications.backoff-ms:5000}") long backoffMs,
+                            @Value("${skillforge.notifications.max-backoff-ms:3600000}") long maxBackoffMs,
+                            @Value("${skillforge.notifications.behind-below:0.5}") double behindBelow) {
+        this.outboxRepository = outboxRepository;
+        this.linkRepository = linkRepository;
+        this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.coalesceMs = Math.max(0, coalesceMs);
+        this.pollMs = Math.max(50, pollMs);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(100, backoffMs);
+        this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+        this.behindBelow = behindBelow;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senders), runnable -> {
+            Thread thread = new Thread(runnable, "guardian-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "guardian-outbox");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // Part of the caller's transaction: the rows commit or roll back with
+    // the completed attempt. A score below behind-below of the exam's marks
+    // is reported as FELL_BEHIND.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void examCompleted(ExamAttempt attempt, int maxScore) {
+        List<Long> guardianIds = linkRepository.findGuardianIdsByWardId(attempt.getUserId());
+        if (guardianIds.isEmpty()) {
+            return;
+        }
+        int score = attempt.getScore() != null ? attempt.getScore() : 0;
+        OutboxEvent.Type type = maxScore > 0 && score < behindBelow * maxScore
+                ? OutboxEvent.Type.FELL_BEHIND : OutboxEvent.Type.EXAM_COMPLETED;
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(guardianIds.size());
+        for (Long guardianId : guardianIds) {
+            OutboxEvent event = new OutboxEvent();
+            event.setGuardianId(guardianId);
+            event.setWardId(attempt.getUserId());
+            event.setType(type);
+            event.setExamId(attempt.getExamId());
+            event.setAttemptId(attempt.getId());
+            event.setScore(score);
+            event.setMaxScore(maxScore);
+            event.setCreatedAt(now);
+            event.setNextAttemptAt(now.plusNanos(coalesceMs * 1_000_000));
+            events.add(event);
+        }
+        outboxRepository.saveAll(events);
+        written.add(events.size());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("channel", channel.name());
+        stats.put("pending", outboxRepository.countByStatus(OutboxEvent.Status.PENDING));
+        stats.put("failedRows", outboxRepository.countByStatus(OutboxEvent.Status.FAILED));
+        stats.put("written", written.sum());
+        stats.put("digests", digests.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("retries", retries.sum());
+        stats.put("failed", failed.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("coalesceMs", coalesceMs);
+        stats.put("lastBatchMs", lastBatchMs);
+        stats.put("channelStats", channel.stats());
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(5000);
+        }
+        senders.shutdownNow();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            int guardians;
+            try {
+                guardians = dispatch();
+            } catch (RuntimeException e) {
+                // Typically the database; the rows stay where they are
+                log.warn("Guardian outbox dispatch failed: {}", e.getMessage());
+                guardians = 0;
+            }
+            if (guardians < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollMs));
+                if (Thread.interrupted()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // One batch: returns how many guardians were due
+    int dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> guardianIds = outboxRepository.findDueGuardianIds(OutboxEvent.Status.PENDING, now,
+                Limit.of(batchSize));
+        if (guardianIds.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        // What is due for those guardians, plus new rows still inside their
+        // coalescing window, goes into one digest; rows backing off after a
+        // failed send are left until their next attempt
+        Map<Long, List<OutboxEvent>> byGuardian = new LinkedHashMap<>();
+        Set<Long> userIds = new HashSet<>(guardianIds);
+        for (OutboxEvent event : outboxRepository.findSendable(guardianIds, OutboxEvent.Status.PENDING, now)) {
+            byGuardian.computeIfAbsent(event.getGuardianId(), id -> new ArrayList<>()).add(event);
+            userIds.add(event.getWardId());
+        }
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+
+        List<Long> done = new ArrayList<>();
+        List<Send> sends = new ArrayList<>();
+        for (Map.Entry<Long, List<OutboxEvent>> entry : byGuardian.entrySet()) {
+            User guardian = users.get(entry.getKey());
+            if (guardian == null) {
+                // The guardian account is gone; nothing to deliver
+                entry.getValue().forEach(event -> done.add(event.getId()));
+                dropped.add(entry.getValue().size());
+                continue;
+            }
+            NotificationChannel.Digest digest = digest(guardian, entry.getValue(), users);
+            sends.add(new Send(entry.getValue(), senders.submit(() -> channel.send(digest))));
+        }
+
+        List<Object[]> failures = new ArrayList<>();
+        for (Send send : sends) {
+            try {
+                send.result().get();
+                send.events().forEach(event -> done.add(event.getId()));
+                digests.increment();
+                delivered.add(send.events().size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                for (OutboxEvent event : send.events()) {
+                    failures.add(failure(event, now, String.valueOf(cause.getMessage())));
+                }
+            }
+        }
+        if (!done.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(done);
+        }
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate("update guardian_outbox set attempts = ?, next_attempt_at = ?, status = ?, "
+                    + "last_error = ? where id = ?", failures);
+        }
+        lastBatchMs = (System.nanoTime() - start) / 1_000_000;
+        return guardianIds.size();
+    }
+
+    private NotificationChannel.Digest digest(User guardian, List<OutboxEvent> events, Map<Long, User> users) {
+        List<NotificationChannel.Item> items = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            User ward = users.get(event.getWardId());
+            String examTitle = event.getExamId() != null
+                    ? catalogCache.exam(event.getExamId()).map(ExamView::title).orElse(null) : null;
+            items.add(new NotificationChannel.Item(event.getWardId(), ward != null ? ward.getName() : null,
+                    event.getType().name(), event.getExamId(), examTitle, event.getScore(), event.getMaxScore(),
+                    event.getCreatedAt()));
+        }
+        return new NotificationChannel.Digest(guardian.getId(), guardian.getEmail(), guardian.getName(), items);
+    }
+
+    // Backoff doubles per attempt from backoff-ms up to max-backoff-ms, with
+    // +-20% jitter so rows that failed together do not retry together
+    private Object[] failure(OutboxEvent event, LocalDateTime now, String error) {
+        int attempts = event.getAttempts() + 1;
+        boolean giveUp = attempts >= maxAttempts;
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(attempts - 1, 30));
+        delay = (long) (delay * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+        if (giveUp) {
+            failed.increment();
+            log.error("Giving up on guardian notification {} after {} attempts: {}", event.getId(), attempts, error);
+        } else {
+            retries.increment();
+        }
+        return new Object[] {attempts, Timestamp.valueOf(now.plusNanos(delay * 1_000_000)),
+                (giveUp ? OutboxEvent.Status.FAILED : OutboxEvent.Status.PENDING).name(),
+                error.length() > 500 ? error.substring(0, 500) : error, event.getId()};
+    }
+
+    private record Send(List<OutboxEvent> events, Future<?> result) {
+    }
+}
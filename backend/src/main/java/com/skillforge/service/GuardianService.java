@@ -0,0 +1,82 @@
+package com.skillforge.service;
+
+import com.skillforge.model.GuardianLink;
+import com.skillforge.model.User;
+import com.skillforge.repository.GuardianLinkRepository;
+import com.skillforge.repository.UserRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Guardian links. A learner adds a guardian by email; the account must have
+// the GUARDIAN role. Either side can remove the link.
+@Service
+public class GuardianService {
+    private final GuardianLinkRepository linkRepository;
+    private final UserRepository userRepository;
+
+    public GuardianService(GuardianLinkRepository linkRepository, UserRepository userRepository) {
+        this.linkRepository = linkRepository;
+        this.userRepository = userRepository;
+    }
+
+    public Map<String, Object> addGuardian(Long wardId, String guardianEmail) {
+        if (guardianEmail == null || guardianEmail.isBlank()) {
+            throw new RuntimeException("guardianEmail is required");
+        }
+        User guardian = userRepository.findByEmail(guardianEmail.trim())
+            .filter(user -> user.getRole() == User.Role.GUARDIAN)
+            .orElseThrow(() -> new RuntimeException("No guardian account with that email"));
+        if (guardian.getId().equals(wardId)) {
+            throw new RuntimeException("You cannot be your own guardian");
+        }
+        if (linkRepository.existsByGuardianIdAndWardId(guardian.getId(), wardId)) {
+            throw new RuntimeException("Guardian is already linked");
+        }
+        GuardianLink link = new GuardianLink();
+        link.setGuardianId(guardian.getId());
+        link.setWardId(wardId);
+        link = linkRepository.save(link);
+        return view(link, guardian);
+    }
+
+    public void removeLink(Long userId, Long linkId) {
+        GuardianLink link = linkRepository.findById(linkId)
+            .filter(l -> l.getGuardianId().equals(userId) || l.getWardId().equals(userId))
+            .orElseThrow(() -> new RuntimeException("Link not found"));
+        linkRepository.delete(link);
+    }
+
+    // The caller's guardians, and their wards when they are a guardian
+    public Map<String, Object> links(Long userId) {
+        Map<String, Object> links = new LinkedHashMap<>();
+        links.put("guardians", views(linkRepository.findByWardId(userId), GuardianLink::getGuardianId));
+        links.put("wards", views(linkRepository.findByGuardianId(userId), GuardianLink::getWardId));
+        return links;
+    }
+
+    private List<Map<String, Object>> views(List<GuardianLink> links, Function<GuardianLink, Long> other) {
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(links.stream().map(other).toList()).forEach(user -> users.put(user.getId(), user));
+        List<Map<String, Object>> views = new ArrayList<>(links.size());
+        for (GuardianLink link : links) {
+            views.add(view(link, users.get(other.apply(link))));
+        }
+        return views;
+    }
+
+    private static Map<String, Object> view(GuardianLink link, User user) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("linkId", link.getId());
+        view.put("userId", user != null ? user.getId() : null);
+        view.put("name", user != null ? user.getName() : null);
+        view.put("email", user != null ? user.getEmail() : null);
+        view.put("since", link.getCreatedAt());
+        return view;
+    }
+}
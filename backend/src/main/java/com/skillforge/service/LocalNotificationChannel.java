@@ -0,0 +1,90 @@
+package com.skillforge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Stand-in channel for development and tests: logs each digest and keeps
+// the most recent ones for GET /api/admin/notifications. The optional
+// latency and failure rate imitate a remote provider, so batching and
+// retries can be exercised without one.
+@Component
+@ConditionalOnProperty(name = "skillforge.notifications.channel", havingValue = "local", matchIfMissing = true)
+public class LocalNotificationChannel implements NotificationChannel {
+    private static final Logger log = LoggerFactory.getLogger(LocalNotificationChannel.class);
+    private static final int RECENT = 50;
+
+    private final long latencyMs;
+    private final double failureRate;
+    private final ReentrantLock recentLock = new ReentrantLock();
+    private final Deque<Digest> recent = new ArrayDeque<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public LocalNotificationChannel(@Value("${skillforge.notifications.local.latency-ms:0}") long latencyMs,
+                                    @Value("${skillforge.notifications.local.failure-rate:0}") double failureRate) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public void send(Digest digest) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted");
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            failed.increment();
+            throw new RuntimeException("Simulated delivery failure");
+        }
+        log.info("Digest for guardian {} <{}>: {} event(s)", digest.guardianId(), digest.guardianEmail(),
+            digest.items().size());
+        recentLock.lock();
+        try {
+            if (recent.size() == RECENT) {
+                recent.removeFirst();
+            }
+            recent.addLast(digest);
+        } finally {
+            recentLock.unlock();
+        }
+        sent.increment();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        recentLock.lock();
+        try {
+            List<Digest> latest = new ArrayList<>(recent.size());
+            recent.descendingIterator().forEachRemaining(latest::add);
+            stats.put("recent", latest);
+        } finally {
+            recentLock.unlock();
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,136 @@
+package com.skillforge.service;
+
+import com.skillforge.model.Question;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Offline stand-in for a language model. Each question is assembled from
+// fixed templates and word lists with a random source seeded by the prompt
+// text, so a prompt always yields the same question and runs are
+// reproducible. The optional latency imitates a remote model (a fixed cost
+// per batch plus a cost per question) for load tests.
+@Component
+@ConditionalOnProperty(name = "skillforge.generation.generator", havingValue = "local", matchIfMissing = true)
+public class LocalQuestionGenerator implements QuestionGenerator {
+    private static final String[] TEMPLATES = {
+        "Which statement about %1$s in %2$s is correct?",
+        "What is the main purpose of %1$s when working with %2$s?",
+        "In %2$s, when is %1$s a better choice than %4$s?",
+        "How does %1$s affect %3$s in %2$s?",
+        "A reviewer finds %1$s in %2$s code. What should they check first regarding %3$s?",
+        "Why does %1$s matter for %3$s in %2$s?",
+        "Which trade-off comes with using %1$s for %3$s in %2$s?",
+        "What usually goes wrong when %1$s is misused in %2$s?",
+    };
+    private static final String[] CONCEPTS = {
+        "caching", "immutability", "indexing", "recursion", "encapsulation", "lazy evaluation",
+        "batching", "hashing", "memoization", "pagination", "locking", "input validation",
+        "normalization", "serialization", "dependency injection", "polymorphism", "backpressure",
+        "idempotency", "sharding", "replication", "garbage collection", "type inference",
+        "pattern matching", "exception handling",
+    };
+    private static final String[] ASPECTS = {
+        "performance", "correctness", "memory use", "readability", "testability", "scalability",
+        "latency", "maintainability",
+    };
+    private static final String[] EFFECTS = {
+        "It reduces", "It increases", "It guarantees", "It removes the need for", "It hides",
+        "It isolates", "It delays", "It duplicates",
+    };
+    private static final String[] OBJECTS = {
+        "repeated work", "shared mutable state", "the cost of each lookup", "coupling between modules",
+        "round trips to storage", "the size of the working set", "contention between threads",
+        "invalid input reaching the core logic",
+    };
+
+    private final long batchLatencyMs;
+    private final long questionLatencyMs;
+
+    public LocalQuestionGenerator(@Value("${skillforge.generation.local.batch-latency-ms:0}") long batchLatencyMs,
+                                  @Value("${skillforge.generation.local.question-latency-ms:0}") long questionLatencyMs) {
+        this.batchLatencyMs = batchLatencyMs;
+        this.questionLatencyMs = questionLatencyMs;
+    }
+
+    @Override
+    public String name() {
+        return "local-v1";
+    }
+
+    @Override
+    public List<Question> generate(List<Prompt> prompts) {
+        long latency = batchLatencyMs + questionLatencyMs * prompts.size();
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Generation interrupted");
+            }
+        }
+        List<Question> questions = new ArrayList<>(prompts.size());
+        for (Prompt prompt : prompts) {
+            questions.add(generate(prompt));
+        }
+        return questions;
+    }
+
+    private Question generate(Prompt prompt) {
+        SplittableRandom random = new SplittableRandom(seed(prompt.text()));
+        String concept = pick(random, CONCEPTS);
+        String other = pick(random, CONCEPTS);
+        while (other.equals(concept)) {
+            other = pick(random, CONCEPTS);
+        }
+        String text = String.format(Locale.ROOT, pick(random, TEMPLATES),
+                concept, prompt.topic(), pick(random, ASPECTS), other);
+
+        // Four distinct effect/object pairs
+        String[] options = new String[4];
+        boolean[] used = new boolean[EFFECTS.length * OBJECTS.length];
+        for (int i = 0; i < options.length; i++) {
+            int pair;
+            do {
+                pair = random.nextInt(used.length);
+            } while (used[pair]);
+            used[pair] = true;
+            options[i] = EFFECTS[pair / OBJECTS.length] + " " + OBJECTS[pair % OBJECTS.length] + ".";
+        }
+
+        Question question = new Question();
+        question.setQuestionText(text);
+        question.setOptionA(options[0]);
+        question.setOptionB(options[1]);
+        question.setOptionC(options[2]);
+        question.setOptionD(options[3]);
+        question.setCorrectAnswer(String.valueOf((char) ('A' + random.nextInt(4))));
+        question.setDifficulty(prompt.difficulty());
+        question.setTopic(prompt.topic());
+        question.setMarks(switch (prompt.difficulty()) {
+            case "HARD" -> 3;
+            case "MEDIUM" -> 2;
+            default -> 1;
+        });
+        return question;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // FNV-1a over the prompt, so the seed does not depend on String.hashCode
+    private static long seed(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
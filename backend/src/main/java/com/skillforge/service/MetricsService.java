@@ -0,0 +1,142 @@
+package com.skillforge.service;
+
+import com.skillforge.config.ServiceTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Reads the meters behind /actuator/prometheus into one summary for
+// /api/admin/metrics: the busiest endpoints, service and repository
+// methods by total time, Hibernate statistics, pool waits and GC.
+@Service
+public class MetricsService {
+    private static final int TOP = 20;
+
+    private final MeterRegistry registry;
+    private final Statistics hibernate;
+
+    public MetricsService(MeterRegistry registry, EntityManagerFactory entityManagerFactory) {
+        this.registry = registry;
+        this.hibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoints", top("http.server.requests", "method", "uri", "status"));
+        summary.put("services", top(ServiceTiming.METRIC, "class", "method", "outcome"));
+        summary.put("repositories", top("spring.data.repository.invocations", "repository", "method", "state"));
+        summary.put("hibernate", hibernate());
+        summary.put("connectionPool", connectionPool());
+        summary.put("jvm", jvm());
+        return summary;
+    }
+
+    private List<Map<String, Object>> top(String name, String... tags) {
+        return registry.find(name).timers().stream()
+            .filter(timer -> timer.count() > 0)
+            .sorted(Comparator.comparingDouble((Timer timer) -> timer.totalTime(TimeUnit.NANOSECONDS)).reversed())
+            .limit(TOP)
+            .map(timer -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (String tag : tags) {
+                    row.put(tag, timer.getId().getTag(tag));
+                }
+                row.putAll(timing(timer));
+                return row;
+            })
+            .toList();
+    }
+
+    private Map<String, Object> timing(Timer timer) {
+        Map<String, Object> timing = new LinkedHashMap<>();
+        timing.put("count", timer.count());
+        timing.put("totalMs", round(timer.totalTime(TimeUnit.MILLISECONDS)));
+        timing.put("meanMs", round(timer.mean(TimeUnit.MILLISECONDS)));
+        // Percentiles cover the last couple of minutes, max the last one
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            timing.put("p" + (int) Math.round(value.percentile() * 100) + "Ms", round(value.value(TimeUnit.MILLISECONDS)));
+        }
+        timing.put("maxMs", round(timer.max(TimeUnit.MILLISECONDS)));
+        return timing;
+    }
+
+    private Map<String, Object> hibernate() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", hibernate.isStatisticsEnabled());
+        stats.put("queries", hibernate.getQueryExecutionCount());
+        stats.put("queryMaxMs", hibernate.getQueryExecutionMaxTime());
+        stats.put("slowestQuery", hibernate.getQueryExecutionMaxTimeQueryString());
+        stats.put("statementsPrepared", hibernate.getPrepareStatementCount());
+        stats.put("entityLoads", hibernate.getEntityLoadCount());
+        stats.put("entityFetches", hibernate.getEntityFetchCount());
+        stats.put("entityInserts", hibernate.getEntityInsertCount());
+        stats.put("entityUpdates", hibernate.getEntityUpdateCount());
+        stats.put("collectionFetches", hibernate.getCollectionFetchCount());
+        stats.put("secondLevelCacheHits", hibernate.getSecondLevelCacheHitCount());
+        stats.put("secondLevelCacheMisses", hibernate.getSecondLevelCacheMissCount());
+        stats.put("queryCacheHits", hibernate.getQueryCacheHitCount());
+        stats.put("queryCacheMisses", hibernate.getQueryCacheMissCount());
+        stats.put("sessionsOpened", hibernate.getSessionOpenCount());
+        stats.put("transactions", hibernate.getTransactionCount());
+        return stats;
+    }
+
+    private Map<String, Object> connectionPool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        Timer acquire = registry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            pool.put("acquire", timing(acquire));
+        }
+        pool.put("active", gauge("hikaricp.connections.active"));
+        pool.put("idle", gauge("hikaricp.connections.idle"));
+        pool.put("pending", gauge("hikaricp.connections.pending"));
+        pool.put("timeouts", counter("hikaricp.connections.timeout"));
+        return pool;
+    }
+
+    private Map<String, Object> jvm() {
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        long pauses = 0;
+        double pauseMs = 0;
+        double pauseMaxMs = 0;
+        for (Timer timer : registry.find("jvm.gc.pause").timers()) {
+            pauses += timer.count();
+            pauseMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            pauseMaxMs = Math.max(pauseMaxMs, timer.max(TimeUnit.MILLISECONDS));
+        }
+        jvm.put("gcPauses", pauses);
+        jvm.put("gcPauseTotalMs", round(pauseMs));
+        jvm.put("gcPauseMaxMs", round(pauseMaxMs));
+        jvm.put("allocatedBytes", (long) counter("jvm.gc.memory.allocated"));
+        jvm.put("promotedBytes", (long) counter("jvm.gc.memory.promoted"));
+        double heap = registry.find("jvm.memory.used").tag("area", "heap").gauges().stream()
+            .mapToDouble(Gauge::value).sum();
+        jvm.put("heapUsedBytes", (long) heap);
+        jvm.put("liveThreads", (long) gauge("jvm.threads.live"));
+        return jvm;
+    }
+
+    private double gauge(String name) {
+        return registry.find(name).gauges().stream().mapToDouble(Gauge::value).sum();
+    }
+
+    private double counter(String name) {
+        return registry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
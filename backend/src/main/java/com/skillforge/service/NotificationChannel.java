@@ -0,0 +1,29 @@
+package com.skillforge.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Delivers guardian digests (email, push, ...). send() throws when the
+// digest was not delivered; GuardianNotifier then retries it later with
+// backoff. A digest may be sent again after a failure that happened
+// after delivery, so channels should tolerate duplicates.
+public interface NotificationChannel {
+
+    String name();
+
+    void send(Digest digest);
+
+    // Channel-specific counters for the admin endpoint
+    default Map<String, Object> stats() {
+        return Map.of();
+    }
+
+    // Everything one guardian is owed, oldest event first
+    record Digest(Long guardianId, String guardianEmail, String guardianName, List<Item> items) {
+    }
+
+    record Item(Long wardId, String wardName, String type, Long examId, String examTitle, Integer score,
+                Integer maxScore, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.skillforge.service;
+
+import java.util.Arrays;
+
+// Packed answer sheets. Choice i (A-D as 0-3) takes bits 2i..2i+1, so one
+// long holds 32 choices; a separate mask has one bit per question that was
+// answered at all. Stored as little-endian bytes: ceil(n/4) + ceil(n/8)
+// bytes per sheet, 38 bytes for a 100-question exam.
+//
+// Grading works a word at a time: x = sheet ^ key is zero in every 2-bit
+// lane that matches, and ~(x | x >>> 1) leaves a 1 in the low bit of those
+// lanes. Masking with the answered and gradable lanes and counting bits
+// gives 32 results per instruction sequence.
+final class PackedAnswers {
+    // SPREAD[b] has bit 2j set for each bit j of b
+    private static final long[] SPREAD = new long[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            long spread = 0;
+            for (int j = 0; j < 8; j++) {
+                if ((b & (1 << j)) != 0) {
+                    spread |= 1L << (2 * j);
+                }
+            }
+            SPREAD[b] = spread;
+        }
+    }
+
+    private PackedAnswers() {
+    }
+
+    static int words(int questions) {
+        return (questions + 31) >>> 5;
+    }
+
+    static int choiceBytes(int questions) {
+        return (questions + 3) >>> 2;
+    }
+
+    static int maskBytes(int questions) {
+        return (questions + 7) >>> 3;
+    }
+
+    // Parses one character per question: A-D (either case) or '-', '.', '_'
+    // or ' ' for no answer. Returns {choices, answeredMask}.
+    static byte[][] pack(String answers, int questions) {
+        if (answers.length() > questions) {
+            throw new RuntimeException("Sheet has " + answers.length() + " answers for " + questions + " questions");
+        }
+        byte[] choices = new byte[choiceBytes(questions)];
+        byte[] answered = new byte[maskBytes(questions)];
+        for (int i = 0; i < answers.length(); i++) {
+            char c = Character.toUpperCase(answers.charAt(i));
+            if (c == '-' || c == '.' || c == '_' || c == ' ') {
+                continue;
+            }
+            if (c < 'A' || c > 'D') {
+                throw new RuntimeException("Invalid answer '" + answers.charAt(i) + "' at position " + (i + 1));
+            }
+            set(choices, answered, i, c - 'A');
+        }
+        return new byte[][] {choices, answered};
+    }
+
+    static void set(byte[] choices, byte[] answered, int position, int option) {
+        choices[position >>> 2] |= (byte) (option << ((position & 3) * 2));
+        answered[position >>> 3] |= (byte) (1 << (position & 7));
+    }
+
+    static String unpack(byte[] choices, byte[] answered, int questions) {
+        StringBuilder out = new StringBuilder(questions);
+        for (int i = 0; i < questions; i++) {
+            int option = choice(choices, answered, i);
+            out.append(option < 0 ? '-' : (char) ('A' + option));
+        }
+        return out.toString();
+    }
+
+    // Option 0-3 chosen at a position, or -1 when it was not answered
+    static int choice(byte[] choices, byte[] answered, int position) {
+        if ((answered[position >>> 3] & (1 << (position & 7))) == 0) {
+            return -1;
+        }
+        return (choices[position >>> 2] >>> ((position & 3) * 2)) & 3;
+    }
+
+    // Copies packed choices into words[offset .. offset + words(n)).
+    static void choiceWords(byte[] choices, long[] words, int offset) {
+        for (int b = 0; b < choices.length; b++) {
+            words[offset + (b >>> 3)] |= (choices[b] & 0xFFL) << ((b & 7) * 8);
+        }
+    }
+
+    // Expands the answered mask to the low bit of each lane.
+    static void maskWords(byte[] answered, long[] words, int offset) {
+        for (int b = 0; b < answered.length; b++) {
+            words[offset + (b >>> 2)] |= SPREAD[answered[b] & 0xFF] << ((b & 3) * 16);
+        }
+    }
+
+    // Compiled answer key for one exam.
+    static final class Key {
+        final int questions;
+        final long[] key;
+        // Lanes whose question has an A-D answer; the rest never score
+        final long[] gradable;
+        // One lane mask per distinct marks value
+        final int[] marks;
+        final long[][] marksLanes;
+        final int maxScore;
+
+        Key(int[] correctOptions, int[] marksPerQuestion) {
+            this.questions = correctOptions.length;
+            int words = PackedAnswers.words(questions);
+            this.key = new long[words];
+            this.gradable = new long[words];
+            this.marks = Arrays.stream(marksPerQuestion).distinct().sorted().toArray();
+            this.marksLanes = new long[marks.length][words];
+            int max = 0;
+            for (int i = 0; i < questions; i++) {
+                if (correctOptions[i] < 0) {
+                    continue;
+                }
+                int word = i >>> 5;
+                int shift = (i & 31) * 2;
+                key[word] |= (long) correctOptions[i] << shift;
+                gradable[word] |= 1L << shift;
+                marksLanes[Arrays.binarySearch(marks, marksPerQuestion[i])][word] |= 1L << shift;
+                max += marksPerQuestion[i];
+            }
+            this.maxScore = max;
+        }
+
+        int words() {
+            return key.length;
+        }
+
+        // Grades sheets [from, to) of a cohort laid out row by row in
+        // choices/answered; writes answered, correct and score per sheet.
+        void grade(long[] choices, long[] answered, int from, int to, int[] answeredCount, int[] correct, int[] score) {
+            int words = key.length;
+            for (int s = from; s < to; s++) {
+                int base = s * words;
+                int given = 0;
+                int right = 0;
+                int total = 0;
+                for (int w = 0; w < words; w++) {
+                    given += Long.bitCount(answered[base + w]);
+                    long x = choices[base + w] ^ key[w];
+                    long hit = ~(x | (x >>> 1)) & answered[base + w] & gradable[w];
+                    if (hit == 0) {
+                        continue;
+                    }
+                    right += Long.bitCount(hit);
+                    for (int m = 0; m < marks.length; m++) {
+                        total += marks[m] * Long.bitCount(hit & marksLanes[m][w]);
+                    }
+                }
+                answeredCount[s] = given;
+                correct[s] = right;
+                score[s] = total;
+            }
+        }
+    }
+}
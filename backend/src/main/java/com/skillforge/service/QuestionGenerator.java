@@ -0,0 +1,34 @@
+package com.skillforge.service;
+
+import com.skillforge.model.Question;
+
+import java.util.List;
+
+// Source of generated questions for GenerationService. Workers call it with
+// a batch of prompts at a time and expect one question per prompt, in
+// order; a null entry means that prompt produced nothing usable. Returned
+// questions need text, options, answer, difficulty, topic and marks; the
+// course and id are set by the caller.
+//
+// The bean is chosen by skillforge.generation.generator; "local" is the
+// deterministic LocalQuestionGenerator, so the pipeline runs offline.
+public interface QuestionGenerator {
+
+    // Part of the prompt hash, so results cached for one generator are
+    // never served for another
+    String name();
+
+    List<Question> generate(List<Prompt> prompts);
+
+    // One question to generate. The same prompt always yields the same
+    // text, and so the same cache key; seed and index tell apart the
+    // questions of one request and of repeated requests that want new ones.
+    record Prompt(Long courseId, String course, String topic, String difficulty, long seed, int index) {
+        public String text() {
+            return "Write one multiple-choice question for the course \"" + course + "\" on the topic \""
+                    + topic + "\" at " + difficulty + " difficulty, with four options A-D and exactly one "
+                    + "correct answer. Reply as JSON with questionText, optionA, optionB, optionC, optionD "
+                    + "and correctAnswer. Question " + (index + 1) + " of set " + seed + ".";
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.skillforge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.skillforge.dto.QuestionImportResult;
+import com.skillforge.dto.QuestionImportRow;
+import com.skillforge.model.Course;
+import com.skillforge.model.Question;
+import com.skillforge.repository.CourseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams a CSV or JSONL question bank into the database. Rows are parsed
+// one at a time, validated, and persisted in chunks; each chunk is its own
+// transaction and goes out as JDBC batches, so a 100k-row file never sits in
+// memory and a bad chunk only loses its own rows.
+@Service
+public class QuestionImportService {
+    private static final Logger log = LoggerFactory.getLogger(QuestionImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CourseRepository courseRepository;
+    private final QuestionService questionService;
+    private final DuplicateDetector duplicateDetector;
+    private final ObjectReader rowReader;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    public QuestionImportService(CourseRepository courseRepository, QuestionService questionService,
+                                 DuplicateDetector duplicateDetector, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                 @Value("${skillforge.import.chunk-size:1000}") int chunkSize) {
+        this.courseRepository = courseRepository;
+        this.questionService = questionService;
+        this.duplicateDetector = duplicateDetector;
+        this.rowReader = objectMapper.readerFor(QuestionImportRow.class);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public QuestionImportResult importQuestions(InputStream body, String format, Long defaultCourseId) {
+        String kind = format == null ? "csv" : format.toLowerCase(Locale.ROOT);
+        if (!kind.equals("csv") && !kind.equals("jsonl")) {
+            throw new RuntimeException("Unsupported import format: " + format + " (use csv or jsonl)");
+        }
+        Import run = new Import(kind, defaultCourseId);
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            if (kind.equals("csv")) {
+                readCsv(reader, run);
+            } else {
+                readJsonLines(reader, run);
+            }
+            run.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import body", e);
+        }
+
+        QuestionImportResult result = run.result;
+        result.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        result.setRowsPerSecond(result.getTotalRows() * 1000 / Math.max(1, result.getElapsedMs()));
+        return result;
+    }
+
+    private void readJsonLines(BufferedReader reader, Import run) throws IOException {
+        long rowNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            QuestionImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                run.reject(rowNumber, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(rowNumber, row);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Import run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("questiontext") || !columns.containsKey("correctanswer")) {
+            throw new RuntimeException("CSV header must include questionText and correctAnswer");
+        }
+
+        long rowNumber = 0;
+        for (List<String> fields = csv.next(); fields != null; fields = csv.next()) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            QuestionImportRow row = new QuestionImportRow();
+            row.setQuestionText(field(fields, columns, "questiontext"));
+            row.setOptionA(field(fields, columns, "optiona"));
+            row.setOptionB(field(fields, columns, "optionb"));
+            row.setOptionC(field(fields, columns, "optionc"));
+            row.setOptionD(field(fields, columns, "optiond"));
+            row.setCorrectAnswer(field(fields, columns, "correctanswer"));
+            row.setDifficulty(field(fields, columns, "difficulty"));
+            row.setTopic(field(fields, columns, "topic"));
+            try {
+                String courseId = field(fields, columns, "courseid");
+                String marks = field(fields, columns, "marks");
+                row.setCourseId(courseId != null ? Long.valueOf(courseId) : null);
+                row.setMarks(marks != null ? Integer.valueOf(marks) : null);
+            } catch (NumberFormatException e) {
+                run.reject(rowNumber, "courseId and marks must be numbers");
+                continue;
+            }
+            run.accept(rowNumber, row);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // State of one import: the pending chunk plus the running report.
+    private final class Import {
+        final QuestionImportResult result = new QuestionImportResult();
+        final Long defaultCourseId;
+        final Map<Long, Boolean> knownCourses = new HashMap<>();
+        final List<Question> chunk = new ArrayList<>(chunkSize);
+        final List<Long> chunkRows = new ArrayList<>(chunkSize);
+        // Signatures of the pending chunk, which the detector has not seen yet
+        final List<short[]> chunkSignatures = new ArrayList<>(chunkSize);
+
+        Import(String format, Long defaultCourseId) {
+            this.defaultCourseId = defaultCourseId;
+            result.setFormat(format);
+        }
+
+        void accept(long rowNumber, QuestionImportRow row) {
+            result.setTotalRows(result.getTotalRows() + 1);
+            String problem = validate(row);
+            if (problem != null) {
+                error(rowNumber, problem);
+                return;
+            }
+            Course course = new Course();
+            course.setId(row.getCourseId() != null ? row.getCourseId() : defaultCourseId);
+
+            Question question = new Question();
+            question.setCourse(course);
+            question.setQuestionText(row.getQuestionText());
+            question.setOptionA(row.getOptionA());
+            question.setOptionB(row.getOptionB());
+            question.setOptionC(row.getOptionC());
+            question.setOptionD(row.getOptionD());
+            question.setCorrectAnswer(row.getCorrectAnswer());
+            question.setDifficulty(row.getDifficulty());
+            question.setTopic(row.getTopic());
+            question.setMarks(row.getMarks() != null ? row.getMarks() : 1);
+
+            short[] signature = duplicateDetector.signature(question);
+            String duplicate = duplicateOf(course.getId(), signature);
+            if (duplicate != null) {
+                if (duplicateDetector.mode() == DuplicateDetector.Mode.REJECT) {
+                    error(rowNumber, "Near-duplicate of " + duplicate);
+                    return;
+                }
+                result.setDuplicates(result.getDuplicates() + 1);
+                if (result.getDuplicateRows().size() < MAX_REPORTED_ERRORS) {
+                    result.getDuplicateRows().add(new QuestionImportResult.RowError(rowNumber, "Near-duplicate of " + duplicate));
+                }
+            }
+            chunk.add(question);
+            chunkRows.add(rowNumber);
+            chunkSignatures.add(signature);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        // The bank first, then the rows waiting in this chunk
+        String duplicateOf(Long courseId, short[] signature) {
+            List<Long> existing = duplicateDetector.find(courseId, signature, null);
+            if (!existing.isEmpty()) {
+                return "question " + existing.get(0);
+            }
+            if (duplicateDetector.mode() == DuplicateDetector.Mode.OFF) {
+                return null;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                if (courseId.equals(chunk.get(i).getCourse().getId())
+                        && duplicateDetector.similar(signature, chunkSignatures.get(i))) {
+                    return "row " + chunkRows.get(i);
+                }
+            }
+            return null;
+        }
+
+        void reject(long rowNumber, String message) {
+            result.setTotalRows(result.getTotalRows() + 1);
+            error(rowNumber, message);
+        }
+
+        String validate(QuestionImportRow row) {
+            if (row.getQuestionText() == null || row.getQuestionText().isBlank()) {
+                return "questionText is required";
+            }
+            if (row.getQuestionText().length() > 1000) {
+                return "questionText is longer than 1000 characters";
+            }
+            if (row.getCorrectAnswer() == null || row.getCorrectAnswer().isBlank()) {
+                return "correctAnswer is required";
+            }
+            if (row.getMarks() != null && row.getMarks() <= 0) {
+                return "marks must be positive";
+            }
+            Long courseId = row.getCourseId() != null ? row.getCourseId() : defaultCourseId;
+            if (courseId == null) {
+                return "courseId is required";
+            }
+            if (!knownCourses.computeIfAbsent(courseId, courseRepository::existsById)) {
+                return "Course " + courseId + " not found";
+            }
+            return null;
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                transaction.executeWithoutResult(status -> {
+                    for (Question question : chunk) {
+                        question.setCourse(entityManager.getReference(Course.class, question.getCourse().getId()));
+                        entityManager.persist(question);
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException e) {
+                String message = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for (Long rowNumber : chunkRows) {
+                    error(rowNumber, message);
+                }
+                clearChunk();
+                return;
+            }
+            // The rows are committed by now; failing to index them does not
+            // undo that, and a restart rebuilds the indexes from the table
+            try {
+                questionService.afterBulkInsert(chunk);
+            } catch (RuntimeException e) {
+                log.error("Imported questions {} to {} could not be indexed", chunk.get(0).getId(),
+                        chunk.get(chunk.size() - 1).getId(), e);
+                result.setIndexFailures(result.getIndexFailures() + chunk.size());
+            }
+            clearChunk();
+        }
+
+        void clearChunk() {
+            chunk.clear();
+            chunkRows.clear();
+            chunkSignatures.clear();
+        }
+
+        void error(long rowNumber, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new QuestionImportResult.RowError(rowNumber, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    // Minimal RFC 4180 reader: quoted fields, doubled quotes and line breaks
+    // inside quotes. Returns one record at a time, null at end of input.
+    private static final class CsvReader {
+        private final Reader in;
+        private int pushback = -2;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        List<String> next() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            for (int c = read(); c != -1; c = read()) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        int d = read();
+                        if (d == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            pushback = d;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int d = read();
+                        if (d != '\n') {
+                            pushback = d;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.QuestionIndexRow;
+import com.skillforge.model.Question;
+import com.skillforge.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-memory index of the question bank. Every question gets a dense int
+// ordinal and each course, topic and difficulty keeps a BitSet of ordinals,
+// so combined filters are a couple of word-wise ANDs instead of a query.
+// Loaded once before the web server starts accepting requests and kept in
+// sync by QuestionService.
+@Component
+public class QuestionIndex implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(QuestionIndex.class);
+
+    private final QuestionRepository questionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Codes only ever grow, so they stay stable across rebuilds.
+    // Both maps are guarded by the write lock.
+    private final Map<String, Integer> topicCodes = new HashMap<>();
+    private final Map<String, Integer> difficultyCodes = new HashMap<>();
+
+    private Postings postings = new Postings();
+    private volatile boolean loaded;
+
+    public QuestionIndex(QuestionRepository questionRepository, PlatformTransactionManager transactionManager) {
+        this.questionRepository = questionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Postings fresh = new Postings();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<QuestionIndexRow> rows = questionRepository.streamIndexRows()) {
+                    rows.forEach(row -> fresh.add(row.getId(), row.getCourseId(),
+                            code(topicCodes, row.getTopic()), code(difficultyCodes, row.getDifficulty()),
+                            marks(row.getMarks())));
+                }
+            });
+            postings = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Question index loaded {} questions in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(Question question) {
+        if (question.getId() == null) {
+            return;
+        }
+        Long courseId = question.getCourse() != null ? question.getCourse().getId() : null;
+        lock.writeLock().lock();
+        try {
+            postings.add(question.getId(), courseId,
+                    code(topicCodes, question.getTopic()), code(difficultyCodes, question.getDifficulty()),
+                    marks(question.getMarks()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long questionId) {
+        if (questionId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.remove(questionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of the questions matching every non-null filter, in insertion order.
+    public long[] find(Long courseId, String topic, String difficulty) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = select(courseId, topic, difficulty);
+            long[] ids = new long[matches.cardinality()];
+            int n = 0;
+            for (int o = matches.nextSetBit(0); o >= 0; o = matches.nextSetBit(o + 1)) {
+                ids[n++] = postings.ids[o];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(Long courseId, String topic, String difficulty) {
+        lock.readLock().lock();
+        try {
+            return select(courseId, topic, difficulty).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long questionId) {
+        lock.readLock().lock();
+        try {
+            return questionId != null && postings.ordinals.get(questionId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Compact copy of one course's questions for the exam generator. Topic and
+    // difficulty are codes; resolve names with topicCode/difficultyCode.
+    public Slice slice(Long courseId) {
+        lock.readLock().lock();
+        try {
+            BitSet members = select(courseId, null, null);
+            int n = members.cardinality();
+            Slice slice = new Slice(new long[n], new int[n], new int[n], new int[n]);
+            int i = 0;
+            for (int o = members.nextSetBit(0); o >= 0; o = members.nextSetBit(o + 1), i++) {
+                slice.ids[i] = postings.ids[o];
+                slice.marks[i] = postings.marks[o];
+                slice.topics[i] = postings.topics[o];
+                slice.difficulties[i] = postings.difficulties[o];
+            }
+            return slice;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int topicCode(String topic) {
+        return lookup(topicCodes, topic);
+    }
+
+    public int difficultyCode(String difficulty) {
+        return lookup(difficultyCodes, difficulty);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.ordinals.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private BitSet select(Long courseId, String topic, String difficulty) {
+        BitSet result = null;
+        if (courseId != null) {
+            result = intersect(result, postings.byCourse.get(courseId));
+        }
+        if (normalize(topic) != null) {
+            result = intersect(result, posting(postings.byTopic, topicCodes.get(normalize(topic))));
+        }
+        if (normalize(difficulty) != null) {
+            result = intersect(result, posting(postings.byDifficulty, difficultyCodes.get(normalize(difficulty))));
+        }
+        return result != null ? result : (BitSet) postings.live.clone();
+    }
+
+    private static BitSet intersect(BitSet acc, BitSet posting) {
+        if (posting == null) {
+            return new BitSet();
+        }
+        if (acc == null) {
+            return (BitSet) posting.clone();
+        }
+        acc.and(posting);
+        return acc;
+    }
+
+    private static BitSet posting(List<BitSet> postings, Integer code) {
+        return code != null && code < postings.size() ? postings.get(code) : null;
+    }
+
+    private int lookup(Map<String, Integer> codes, String value) {
+        String key = normalize(value);
+        if (key == null) {
+            return -1;
+        }
+        lock.readLock().lock();
+        try {
+            return codes.getOrDefault(key, -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int marks(Integer marks) {
+        return marks != null && marks > 0 ? marks : 1;
+    }
+
+    private static int code(Map<String, Integer> codes, String value) {
+        String key = normalize(value);
+        return key == null ? -1 : codes.computeIfAbsent(key, k -> codes.size());
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Postings {
+        long[] ids = new long[1024];
+        long[] courseIds = new long[1024];
+        int[] topics = new int[1024];
+        int[] difficulties = new int[1024];
+        int[] marks = new int[1024];
+        int next;
+
+        final LongIntMap ordinals = new LongIntMap();
+        final BitSet live = new BitSet();
+        final Map<Long, BitSet> byCourse = new HashMap<>();
+        final List<BitSet> byTopic = new ArrayList<>();
+        final List<BitSet> byDifficulty = new ArrayList<>();
+
+        void add(long id, Long courseId, int topic, int difficulty, int mark) {
+            remove(id);
+            if (next == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                courseIds = Arrays.copyOf(courseIds, capacity);
+                topics = Arrays.copyOf(topics, capacity);
+                difficulties = Arrays.copyOf(difficulties, capacity);
+                marks = Arrays.copyOf(marks, capacity);
+            }
+            int o = next++;
+            ids[o] = id;
+            courseIds[o] = courseId != null ? courseId : 0L;
+            topics[o] = topic;
+            difficulties[o] = difficulty;
+            marks[o] = mark;
+            ordinals.put(id, o);
+            live.set(o);
+            if (courseId != null) {
+                byCourse.computeIfAbsent(courseId, k -> new BitSet()).set(o);
+            }
+            slot(byTopic, topic).ifPresent(bits -> bits.set(o));
+            slot(byDifficulty, difficulty).ifPresent(bits -> bits.set(o));
+        }
+
+        void remove(long id) {
+            int o = ordinals.remove(id);
+            if (o < 0) {
+                return;
+            }
+            live.clear(o);
+            BitSet course = byCourse.get(courseIds[o]);
+            if (course != null) {
+                course.clear(o);
+            }
+            slot(byTopic, topics[o]).ifPresent(bits -> bits.clear(o));
+            slot(byDifficulty, difficulties[o]).ifPresent(bits -> bits.clear(o));
+        }
+
+        private static Optional<BitSet> slot(List<BitSet> postings, int code) {
+            if (code < 0) {
+                return Optional.empty();
+            }
+            while (postings.size() <= code) {
+                postings.add(new BitSet());
+            }
+            return Optional.of(postings.get(code));
+        }
+    }
+
+    public record Slice(long[] ids, int[] marks, int[] topics, int[] difficulties) {
+        public int size() {
+            return ids.length;
+        }
+    }
+}
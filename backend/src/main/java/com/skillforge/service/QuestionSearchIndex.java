@@ -0,0 +1,655 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.QuestionView;
+import com.skillforge.model.Question;
+import com.skillforge.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-memory inverted index over question text, options and topic, ranked
+// with BM25. Each question gets a dense ordinal; a term's postings are the
+// ordinals containing it in ascending order, packed with the term frequency
+// as ordinal << 8 | tf. A query walks its terms' postings together a
+// document at a time and keeps the best `limit` in a small heap; MaxScore
+// and per-block score bounds let it skip most of the postings of common
+// terms once the heap is full.
+//
+// Deletes only clear the live bit; once dead ordinals outnumber live ones
+// the postings are compacted in place. Loaded before the web server starts
+// and kept in sync by QuestionService, like QuestionIndex.
+@Component
+public class QuestionSearchIndex implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchIndex.class);
+
+    // Field boosts, applied as repeated occurrences
+    private static final int TEXT_WEIGHT = 2;
+    private static final int TOPIC_WEIGHT = 3;
+    private static final int OPTION_WEIGHT = 1;
+    private static final int MAX_TF = 255;
+    private static final int MAX_ORDINAL = (1 << 24) - 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "how", "in", "is",
+            "it", "its", "of", "on", "or", "that", "the", "this", "to", "was", "were", "what", "when", "where",
+            "which", "who", "why", "will", "with");
+
+    private final QuestionRepository questionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by the write lock; codes only grow
+    private final Map<String, Integer> difficultyCodes = new HashMap<>();
+
+    private Segment segment = new Segment();
+
+    public QuestionSearchIndex(QuestionRepository questionRepository, PlatformTransactionManager transactionManager) {
+        this.questionRepository = questionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Segment fresh = new Segment();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<QuestionView> rows = questionRepository.streamViews()) {
+                    rows.forEach(row -> fresh.add(row.id(), row.courseId(), difficultyCode(row.difficulty()),
+                            document(row.questionText(), row.topic(), row.optionA(), row.optionB(), row.optionC(), row.optionD())));
+                }
+            });
+            segment = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Question search index loaded {} questions, {} terms in {} ms",
+                size(), terms(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(Question question) {
+        if (question.getId() == null) {
+            return;
+        }
+        Long courseId = question.getCourse() != null ? question.getCourse().getId() : null;
+        Map<String, Integer> document = document(question.getQuestionText(), question.getTopic(),
+                question.getOptionA(), question.getOptionB(), question.getOptionC(), question.getOptionD());
+        lock.writeLock().lock();
+        try {
+            segment.add(question.getId(), courseId, difficultyCode(question.getDifficulty()), document);
+            segment.compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long questionId) {
+        if (questionId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            segment.remove(questionId);
+            segment.compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Best `limit` matches for any of the query terms, highest score first.
+    // courseId and difficulty are optional filters.
+    public Hits search(String query, Long courseId, String difficulty, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return Hits.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            int difficultyFilter = -1;
+            if (QuestionIndex.normalize(difficulty) != null) {
+                Integer code = difficultyCodes.get(QuestionIndex.normalize(difficulty));
+                if (code == null) {
+                    return Hits.EMPTY;
+                }
+                difficultyFilter = code;
+            }
+            return segment.search(terms, courseId, difficultyFilter, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return segment.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int difficultyCode(String difficulty) {
+        String key = QuestionIndex.normalize(difficulty);
+        return key == null ? -1 : difficultyCodes.computeIfAbsent(key, k -> difficultyCodes.size());
+    }
+
+    // Weighted term frequencies of one question
+    private static Map<String, Integer> document(String text, String topic, String... options) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : tokens(text)) {
+            tf.merge(term, TEXT_WEIGHT, Integer::sum);
+        }
+        for (String term : tokens(topic)) {
+            tf.merge(term, TOPIC_WEIGHT, Integer::sum);
+        }
+        for (String option : options) {
+            for (String term : tokens(option)) {
+                tf.merge(term, OPTION_WEIGHT, Integer::sum);
+            }
+        }
+        return tf;
+    }
+
+    // Lower-cased runs of letters and digits, stopwords dropped, stemmed.
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOPWORDS.contains(token)) {
+                    tokens.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Light English suffix stripping: plurals, -ing, -ed, -ly and a final e,
+    // so "sorting", "sorted", "sorts" and "sort" meet. Not a full Porter
+    // stemmer; it only has to be applied the same way to text and queries.
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+        String w = word;
+        if (w.endsWith("ies") && w.length() > 4) {
+            w = w.substring(0, w.length() - 3) + "y";
+        } else if (w.endsWith("sses")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us") && !w.endsWith("is")) {
+            w = w.substring(0, w.length() - 1);
+        }
+        if (w.endsWith("ing") && w.length() > 5) {
+            w = undouble(w.substring(0, w.length() - 3));
+        } else if (w.endsWith("ed") && w.length() > 4) {
+            w = undouble(w.substring(0, w.length() - 2));
+        } else if (w.endsWith("ly") && w.length() > 4) {
+            w = w.substring(0, w.length() - 2);
+        }
+        if (w.endsWith("e") && w.length() > 3) {
+            w = w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    private static String undouble(String w) {
+        int n = w.length();
+        if (n >= 3 && w.charAt(n - 1) == w.charAt(n - 2) && "lsz".indexOf(w.charAt(n - 1)) < 0) {
+            return w.substring(0, n - 1);
+        }
+        return w;
+    }
+
+    public record Hits(long[] ids, float[] scores) {
+        static final Hits EMPTY = new Hits(new long[0], new float[0]);
+    }
+
+    // Postings with per-block bounds: the largest tf and the shortest
+    // document in every BLOCK entries, from which a block's best possible
+    // score follows without looking at its entries
+    private static final class Postings {
+        int[] entries = new int[4];
+        int size;
+        byte[] blockMaxTf = new byte[1];
+        int[] blockMinLength = new int[1];
+        int maxTf;
+        int minLength = Integer.MAX_VALUE;
+
+        void add(int ordinal, int tf, int length) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            int clamped = Math.min(tf, MAX_TF);
+            entries[size] = ordinal << 8 | clamped;
+            bound(size, clamped, length);
+            size++;
+        }
+
+        void bound(int index, int tf, int length) {
+            int block = index >>> BLOCK_SHIFT;
+            if (block == blockMaxTf.length) {
+                blockMaxTf = Arrays.copyOf(blockMaxTf, block * 2);
+                blockMinLength = Arrays.copyOf(blockMinLength, block * 2);
+            }
+            if ((index & (BLOCK - 1)) == 0) {
+                blockMaxTf[block] = (byte) tf;
+                blockMinLength[block] = length;
+            } else {
+                blockMaxTf[block] = (byte) Math.max(blockMaxTf[block] & 0xFF, tf);
+                blockMinLength[block] = Math.min(blockMinLength[block], length);
+            }
+            maxTf = Math.max(maxTf, tf);
+            minLength = Math.min(minLength, length);
+        }
+
+        int ordinal(int index) {
+            return entries[index] >>> 8;
+        }
+
+        // First index at or after `from` whose ordinal is >= target
+        int advance(int from, int target) {
+            if (from >= size || ordinal(from) >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && ordinal(high) < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            // ordinal(low) < target <= ordinal(high), or high == size
+            while (low + 1 < high) {
+                int mid = (low + high) >>> 1;
+                if (ordinal(mid) < target) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            return high;
+        }
+    }
+
+    private static final class Segment {
+        final Map<String, Postings> postings = new HashMap<>();
+        final LongIntMap ordinals = new LongIntMap();
+        long[] ids = new long[1024];
+        long[] courseIds = new long[1024];
+        int[] difficulties = new int[1024];
+        int[] lengths = new int[1024];
+        final BitSet live = new BitSet();
+        int next;
+        int liveCount;
+        long liveLength;
+
+        void add(long id, Long courseId, int difficulty, Map<String, Integer> document) {
+            remove(id);
+            if (next > MAX_ORDINAL) {
+                compact();
+                if (next > MAX_ORDINAL) {
+                    throw new RuntimeException("Question search index is full");
+                }
+            }
+            if (next == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                courseIds = Arrays.copyOf(courseIds, capacity);
+                difficulties = Arrays.copyOf(difficulties, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            int o = next++;
+            int length = 0;
+            for (Map.Entry<String, Integer> term : document.entrySet()) {
+                length += term.getValue();
+            }
+            for (Map.Entry<String, Integer> term : document.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new Postings()).add(o, term.getValue(), length);
+            }
+            ids[o] = id;
+            courseIds[o] = courseId != null ? courseId : 0L;
+            difficulties[o] = difficulty;
+            lengths[o] = length;
+            ordinals.put(id, o);
+            live.set(o);
+            liveCount++;
+            liveLength += length;
+        }
+
+        void remove(long id) {
+            int o = ordinals.remove(id);
+            if (o < 0) {
+                return;
+            }
+            live.clear(o);
+            liveCount--;
+            liveLength -= lengths[o];
+        }
+
+        void compactIfSparse() {
+            int dead = next - liveCount;
+            if (dead > 4096 && dead > liveCount) {
+                compact();
+            }
+        }
+
+        // Renumbers live ordinals densely and drops dead postings. Order is
+        // kept, so every postings list stays sorted.
+        void compact() {
+            int[] remap = new int[next];
+            int n = 0;
+            for (int o = 0; o < next; o++) {
+                if (live.get(o)) {
+                    remap[o] = n;
+                    ids[n] = ids[o];
+                    courseIds[n] = courseIds[o];
+                    difficulties[n] = difficulties[o];
+                    lengths[n] = lengths[o];
+                    ordinals.put(ids[n], n);
+                    n++;
+                } else {
+                    remap[o] = -1;
+                }
+            }
+            Iterator<Postings> it = postings.values().iterator();
+            while (it.hasNext()) {
+                Postings list = it.next();
+                int kept = 0;
+                list.maxTf = 0;
+                list.minLength = Integer.MAX_VALUE;
+                for (int i = 0; i < list.size; i++) {
+                    int mapped = remap[list.entries[i] >>> 8];
+                    if (mapped >= 0) {
+                        int tf = list.entries[i] & 0xFF;
+                        list.entries[kept] = mapped << 8 | tf;
+                        list.bound(kept, tf, lengths[mapped]);
+                        kept++;
+                    }
+                }
+                if (kept == 0) {
+                    it.remove();
+                } else {
+                    list.size = kept;
+                    list.entries = Arrays.copyOf(list.entries, Math.max(4, kept));
+                }
+            }
+            live.clear();
+            live.set(0, n);
+            next = n;
+        }
+
+        // MaxScore with block-max skipping. Terms are ordered by their best
+        // possible contribution; once the heap is full, the low terms whose
+        // bounds together cannot beat its minimum are "non-essential": only
+        // documents from the other terms are candidates, and the low terms
+        // are merely probed. Blocks of an essential term that cannot lift a
+        // document over the minimum, whatever the other terms add, are
+        // skipped whole.
+        Hits search(List<String> terms, Long courseId, int difficulty, int limit) {
+            if (liveCount == 0) {
+                return Hits.EMPTY;
+            }
+            List<Postings> found = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    found.add(list);
+                }
+            }
+            int k = found.size();
+            if (k == 0) {
+                return Hits.EMPTY;
+            }
+            float avgLength = Math.max(1f, (float) liveLength / liveCount);
+            // Document frequency counts dead postings too until the next
+            // compaction; the effect on idf is small and bounded
+            float[] termIdf = new float[k];
+            float[] termBound = new float[k];
+            for (int t = 0; t < k; t++) {
+                Postings list = found.get(t);
+                int df = Math.min(list.size, liveCount);
+                termIdf[t] = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+                termBound[t] = score(termIdf[t], list.maxTf, list.minLength, avgLength);
+            }
+            Integer[] order = new Integer[k];
+            for (int t = 0; t < k; t++) {
+                order[t] = t;
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(termBound[a], termBound[b]));
+            Postings[] lists = new Postings[k];
+            float[] idf = new float[k];
+            float[] bound = new float[k];
+            // below[t]: sum of the bounds of terms 0..t-1
+            float[] below = new float[k + 1];
+            for (int t = 0; t < k; t++) {
+                lists[t] = found.get(order[t]);
+                idf[t] = termIdf[order[t]];
+                bound[t] = termBound[order[t]];
+                below[t + 1] = below[t] + bound[t];
+            }
+
+            long course = courseId != null ? courseId : 0L;
+            int[] cursor = new int[k];
+            int[] block = new int[k];
+            TopK top = new TopK(limit);
+            int essential = 0;
+            while (true) {
+                float threshold = top.threshold();
+                while (essential < k && below[essential + 1] <= threshold) {
+                    essential++;
+                }
+                if (essential == k) {
+                    break;
+                }
+                int o = Integer.MAX_VALUE;
+                for (int t = essential; t < k; t++) {
+                    Postings list = lists[t];
+                    int c = cursor[t];
+                    if (c < list.size) {
+                        // Skip blocks that cannot reach the threshold even
+                        // with every other term at its best
+                        float others = below[k] - bound[t];
+                        while (c < list.size && others + blockBound(list, c >>> BLOCK_SHIFT, idf[t], avgLength) <= threshold) {
+                            c = (c | (BLOCK - 1)) + 1;
+                        }
+                        cursor[t] = c;
+                        if (c < list.size) {
+                            o = Math.min(o, list.ordinal(c));
+                        }
+                    }
+                }
+                if (o == Integer.MAX_VALUE) {
+                    break;
+                }
+                boolean wanted = live.get(o)
+                        && (courseId == null || courseIds[o] == course)
+                        && (difficulty < 0 || difficulties[o] == difficulty);
+                float score = 0;
+                for (int t = essential; t < k; t++) {
+                    Postings list = lists[t];
+                    if (cursor[t] < list.size && list.ordinal(cursor[t]) == o) {
+                        if (wanted) {
+                            score += score(idf[t], list.entries[cursor[t]] & 0xFF, lengths[o], avgLength);
+                        }
+                        cursor[t]++;
+                    }
+                }
+                if (!wanted) {
+                    continue;
+                }
+                if (essential > 0) {
+                    // Cheaper bound first: the non-essential terms' blocks
+                    // that would hold this document
+                    float estimate = score;
+                    for (int t = 0; t < essential; t++) {
+                        Postings list = lists[t];
+                        int b = block[t];
+                        int blocks = (list.size + BLOCK - 1) >>> BLOCK_SHIFT;
+                        while (b < blocks && list.ordinal(Math.min(list.size, (b + 1) << BLOCK_SHIFT) - 1) < o) {
+                            b++;
+                        }
+                        block[t] = b;
+                        if (b < blocks) {
+                            estimate += blockBound(list, b, idf[t], avgLength);
+                        }
+                    }
+                    if (estimate <= threshold) {
+                        continue;
+                    }
+                }
+                for (int t = essential - 1; t >= 0; t--) {
+                    if (score + below[t + 1] <= threshold) {
+                        break;
+                    }
+                    Postings list = lists[t];
+                    cursor[t] = list.advance(cursor[t], o);
+                    if (cursor[t] < list.size && list.ordinal(cursor[t]) == o) {
+                        score += score(idf[t], list.entries[cursor[t]] & 0xFF, lengths[o], avgLength);
+                    }
+                }
+                top.offer(o, score);
+            }
+            return top.hits(ids);
+        }
+
+        private static float blockBound(Postings list, int block, float idf, float avgLength) {
+            return score(idf, list.blockMaxTf[block] & 0xFF, list.blockMinLength[block], avgLength);
+        }
+
+        private static float score(float idf, int tf, int length, float avgLength) {
+            return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+        }
+    }
+
+    // Fixed-size min-heap on score; ties go to the older question
+    private static final class TopK {
+        final int[] ordinals;
+        final float[] scores;
+        int size;
+
+        TopK(int limit) {
+            ordinals = new int[limit];
+            scores = new float[limit];
+        }
+
+        // Score a document must beat to enter
+        float threshold() {
+            return size < ordinals.length ? 0f : scores[0];
+        }
+
+        void offer(int ordinal, float score) {
+            if (size < ordinals.length) {
+                int i = size++;
+                ordinals[i] = ordinal;
+                scores[i] = score;
+                up(i);
+            } else if (score > scores[0]) {
+                ordinals[0] = ordinal;
+                scores[0] = score;
+                down(0);
+            }
+        }
+
+        Hits hits(long[] ids) {
+            long[] resultIds = new long[size];
+            float[] resultScores = new float[size];
+            for (int i = size - 1; i >= 0; i--) {
+                resultIds[i] = ids[ordinals[0]];
+                resultScores[i] = scores[0];
+                ordinals[0] = ordinals[size - 1];
+                scores[0] = scores[size - 1];
+                size--;
+                down(0);
+            }
+            return new Hits(resultIds, resultScores);
+        }
+
+        private boolean less(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && ordinals[a] > ordinals[b]);
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int o = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = o;
+            float s = scores[a];
+            scores[a] = scores[b];
+            scores[b] = s;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.skillforge.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// question_seq hands out ids in blocks of ALLOCATION (see Question): the
+// value it returns is the top of the next block. Questions inserted before
+// the sequence existed, or around it, would make it hand out ids that are
+// taken, so at startup it is moved past the highest id. It only ever moves
+// forward, and blocks handed out earlier all lie below its old value, so
+// nodes already running are not affected. Startup fails when it cannot be
+// checked or moved.
+@Component
+public class QuestionSequence implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(QuestionSequence.class);
+
+    static final String NAME = "question_seq";
+    static final int ALLOCATION = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public QuestionSequence(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long max = jdbcTemplate.queryForObject("select max(id) from questions", Long.class);
+        if (max == null) {
+            return;
+        }
+        // The next block is (required - ALLOCATION, required]
+        long required = max + ALLOCATION;
+        try {
+            if (dialect.getSequenceSupport().supportsSequences()) {
+                // Reading a native sequence uses up one block, which is harmless
+                Long current = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(NAME), Long.class);
+                if (current == null || current + ALLOCATION < required) {
+                    jdbcTemplate.execute("alter sequence " + NAME + " restart with " + required);
+                    log.warn("Moved {} past the highest question id {}", NAME, max);
+                }
+            } else if (jdbcTemplate.update("update " + NAME + " set next_val = ? where next_val < ?",
+                    required, required) > 0) {
+                // Table-backed on databases without sequences (MySQL)
+                log.warn("Moved {} past the highest question id {}", NAME, max);
+            }
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not move " + NAME + " past the highest question id " + max
+                + "; set its next value to at least " + required + " by hand", e);
+        }
+    }
+}
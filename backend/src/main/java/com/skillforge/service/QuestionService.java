@@ -1,26 +1,189 @@
 package com.skillforge.service;
 
+import com.skillforge.dto.CursorPage;
+import com.skillforge.dto.QuestionSearchResult;
+import com.skillforge.dto.QuestionView;
+import com.skillforge.exception.DuplicateQuestionException;
+import com.skillforge.exception.QuestionInUseException;
 import com.skillforge.model.Question;
+import com.skillforge.repository.ExamRepository;
 import com.skillforge.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class QuestionService {
+    // Ids per IN list, so no statement carries an unbounded parameter list
+    private static final int IN_CHUNK = 1000;
+
     @Autowired
     private QuestionRepository questionRepository;
 
-    public Question createQuestion(Question question) {
-        return questionRepository.save(question);
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private QuestionIndex questionIndex;
+
+    @Autowired
+    private QuestionSearchIndex searchIndex;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private AdaptiveEngine adaptiveEngine;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void registerDifficultyFeedback() {
+        analyticsService.onDifficultyMeasured(this::difficultiesMeasured);
+    }
+
+    // Near-duplicates of an existing question in the course are rejected or
+    // returned alongside the saved question, per skillforge.duplicates.mode.
+    public Created createQuestion(Question question) {
+        List<Long> duplicates = duplicateDetector.find(courseId(question), duplicateDetector.signature(question), null);
+        if (!duplicates.isEmpty() && duplicateDetector.mode() == DuplicateDetector.Mode.REJECT) {
+            throw new DuplicateQuestionException(duplicates);
+        }
+        Question saved = questionRepository.save(question);
+        questionIndex.put(saved);
+        searchIndex.put(saved);
+        duplicateDetector.put(saved);
+        adaptiveEngine.questionSaved(saved);
+        statisticsService.questionsCreated(courseId(saved), 1);
+        catalogVersions.questionsChanged();
+        return new Created(QuestionView.of(saved), duplicates);
+    }
+
+    // Called by bulk paths once a chunk of new questions has been committed.
+    public void afterBulkInsert(List<Question> questions) {
+        questions.forEach(questionIndex::put);
+        questions.forEach(searchIndex::put);
+        questions.forEach(duplicateDetector::put);
+        questions.forEach(adaptiveEngine::questionSaved);
+        Map<Long, Integer> perCourse = new HashMap<>();
+        for (Question question : questions) {
+            perCourse.merge(courseId(question), 1, Integer::sum);
+        }
+        perCourse.forEach(statisticsService::questionsCreated);
+        catalogVersions.questionsChanged();
+    }
+
+    public CursorPage<QuestionView> getQuestionsPage(Long after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<QuestionView> rows = questionRepository.findViewsAfter(CursorPage.startAfter(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, QuestionView::id);
+    }
+
+    // Any of the filters may be null; matching ids come from the index so
+    // only the selected rows are loaded, IN_CHUNK ids per query, in id order.
+    public List<QuestionView> findQuestions(Long courseId, String topic, String difficulty) {
+        long[] ids = questionIndex.find(courseId, topic, difficulty);
+        Arrays.sort(ids);
+        List<QuestionView> views = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += IN_CHUNK) {
+            int to = Math.min(ids.length, from + IN_CHUNK);
+            views.addAll(questionRepository.findViewsByIdIn(Arrays.stream(ids, from, to).boxed().toList()));
+        }
+        return views;
+    }
+
+    // Ranked full-text search; only the hits are loaded, in one query.
+    public QuestionSearchResult search(String query, Long courseId, String difficulty, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("q is required");
+        }
+        long start = System.nanoTime();
+        int size = Math.max(1, Math.min(limit != null ? limit : 20, 100));
+        QuestionSearchIndex.Hits hits = searchIndex.search(query, courseId, difficulty, size);
+        QuestionSearchResult result = new QuestionSearchResult();
+        result.setQuery(query);
+        if (hits.ids().length > 0) {
+            Map<Long, QuestionView> views = new HashMap<>();
+            for (QuestionView view : questionRepository.findViewsByIdIn(Arrays.stream(hits.ids()).boxed().toList())) {
+                views.put(view.id(), view);
+            }
+            for (int i = 0; i < hits.ids().length; i++) {
+                QuestionView view = views.get(hits.ids()[i]);
+                if (view != null) {
+                    result.getHits().add(new QuestionSearchResult.Hit(hits.scores()[i], view));
+                }
+            }
+        }
+        result.setElapsedMs((System.nanoTime() - start) / 1e6);
+        return result;
     }
 
-    public List<Question> getAllQuestions() {
-        return questionRepository.findAll();
+    public int countQuestions(Long courseId, String topic, String difficulty) {
+        return questionIndex.count(courseId, topic, difficulty);
     }
 
+    // Questions still in an exam are refused with the exams' ids
     public void deleteQuestion(Long id) {
-        questionRepository.deleteById(id);
+        List<Long> examIds = examRepository.findIdsByQuestionId(id);
+        if (!examIds.isEmpty()) {
+            throw new QuestionInUseException(id, examIds);
+        }
+        questionRepository.findById(id).ifPresent(question -> {
+            questionRepository.delete(question);
+            questionIndex.remove(id);
+            searchIndex.remove(id);
+            duplicateDetector.remove(id);
+            adaptiveEngine.questionRemoved(id);
+            analyticsService.questionDeleted(id);
+            statisticsService.questionDeleted(courseId(question));
+            catalogCache.questionsChanged();
+            catalogVersions.questionsChanged();
+        });
+    }
+
+    // Difficulty labels measured from graded exam sheets replace the
+    // authored ones, so filters, search and exam generation use them. Only
+    // the label is written; ratings are AdaptiveEngine's and flushed by it.
+    void difficultiesMeasured(Map<Long, String> labels) {
+        List<Object[]> rows = new ArrayList<>(labels.size());
+        labels.forEach((id, label) -> rows.add(new Object[] {label, id}));
+        jdbcTemplate.batchUpdate("update questions set difficulty = ? where id = ?", rows);
+        List<Long> ids = new ArrayList<>(labels.keySet());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            for (Question question : questionRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + IN_CHUNK)))) {
+                questionIndex.put(question);
+                searchIndex.put(question);
+            }
+        }
+        catalogCache.questionsChanged();
+        catalogVersions.questionsChanged();
+    }
+
+    public record Created(QuestionView question, List<Long> duplicateOf) {
+    }
+
+    private static Long courseId(Question question) {
+        return question.getCourse() != null ? question.getCourse().getId() : null;
     }
 }
@@ -0,0 +1,319 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.CourseCountRow;
+import com.skillforge.dto.RoleCountRow;
+import com.skillforge.model.User;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.repository.ExamAttemptRepository;
+import com.skillforge.repository.ExamRepository;
+import com.skillforge.repository.QuestionRepository;
+import com.skillforge.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Entity counts for the dashboards, kept in memory. The services that write
+// users, courses, exams, questions and attempts bump the counters as they go, so a
+// read is a few LongAdder sums. A scheduled pass compares them against
+// GROUP BY counts and applies the difference, which repairs drift from
+// cascades, bulk deletes or writes made outside the application.
+@Service
+public class StatisticsService implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(StatisticsService.class);
+
+    // Per-course counter slots, named as they appear in courseSnapshot
+    private static final String[] COURSE_COUNTERS = {"questions", "exams", "attempts", "completions"};
+    private static final int QUESTIONS = 0;
+    private static final int EXAMS = 1;
+    private static final int ATTEMPTS = 2;
+    private static final int COMPLETIONS = 3;
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final ExamRepository examRepository;
+    private final QuestionRepository questionRepository;
+    private final ExamAttemptRepository attemptRepository;
+
+    private final Map<User.Role, LongAdder> usersByRole = new EnumMap<>(User.Role.class);
+    private final LongAdder courses = new LongAdder();
+    private final LongAdder exams = new LongAdder();
+    private final LongAdder questions = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder completions = new LongAdder();
+    private final ConcurrentHashMap<Long, CourseCounters> byCourse = new ConcurrentHashMap<>();
+
+    private volatile long lastReconciledAt;
+    private volatile long lastDrift;
+
+    public StatisticsService(UserRepository userRepository, CourseRepository courseRepository,
+                             ExamRepository examRepository, QuestionRepository questionRepository,
+                             ExamAttemptRepository attemptRepository) {
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.examRepository = examRepository;
+        this.questionRepository = questionRepository;
+        this.attemptRepository = attemptRepository;
+        for (User.Role role : User.Role.values()) {
+            usersByRole.put(role, new LongAdder());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+
+    public void userCreated(User.Role role) {
+        usersByRole.get(role).increment();
+    }
+
+    public void userRoleChanged(User.Role from, User.Role to) {
+        if (from != to) {
+            usersByRole.get(from).decrement();
+            usersByRole.get(to).increment();
+        }
+    }
+
+    public void usersCleared() {
+        usersByRole.values().forEach(LongAdder::reset);
+    }
+
+    public void courseCreated(Long courseId) {
+        courses.increment();
+        if (courseId != null) {
+            byCourse.computeIfAbsent(courseId, id -> new CourseCounters());
+        }
+    }
+
+    public void courseDeleted(Long courseId) {
+        courses.decrement();
+        // Its questions and exams go with it or the delete fails; either way
+        // the next reconcile settles the totals.
+        byCourse.remove(courseId);
+    }
+
+    public void examCreated(Long courseId) {
+        exams.increment();
+        course(courseId).ifPresent(c -> c.counts[EXAMS].increment());
+    }
+
+    public void examDeleted(Long courseId) {
+        exams.decrement();
+        course(courseId).ifPresent(c -> c.counts[EXAMS].decrement());
+    }
+
+    public void questionsCreated(Long courseId, int count) {
+        questions.add(count);
+        course(courseId).ifPresent(c -> c.counts[QUESTIONS].add(count));
+    }
+
+    public void questionDeleted(Long courseId) {
+        questions.decrement();
+        course(courseId).ifPresent(c -> c.counts[QUESTIONS].decrement());
+    }
+
+    public void attemptStarted(Long courseId) {
+        attempts.increment();
+        course(courseId).ifPresent(c -> c.counts[ATTEMPTS].increment());
+    }
+
+    public void attemptCompleted(Long courseId) {
+        completions.increment();
+        course(courseId).ifPresent(c -> c.counts[COMPLETIONS].increment());
+    }
+
+    public long totalUsers() {
+        long total = 0;
+        for (LongAdder count : usersByRole.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public long users(User.Role role) {
+        return usersByRole.get(role).sum();
+    }
+
+    public long totalCourses() {
+        return courses.sum();
+    }
+
+    public long totalExams() {
+        return exams.sum();
+    }
+
+    public long totalQuestions() {
+        return questions.sum();
+    }
+
+    public long totalAttempts() {
+        return attempts.sum();
+    }
+
+    public long totalCompletions() {
+        return completions.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Long> roles = new LinkedHashMap<>();
+        for (Map.Entry<User.Role, LongAdder> entry : usersByRole.entrySet()) {
+            roles.put(entry.getKey().name(), entry.getValue().sum());
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalUsers", totalUsers());
+        stats.put("usersByRole", roles);
+        stats.put("totalCourses", totalCourses());
+        stats.put("totalExams", totalExams());
+        stats.put("totalQuestions", totalQuestions());
+        stats.put("totalAttempts", totalAttempts());
+        stats.put("totalCompletions", totalCompletions());
+        stats.put("lastReconciledAt", lastReconciledAt);
+        stats.put("lastDrift", lastDrift);
+        return stats;
+    }
+
+    public Map<String, Object> courseSnapshot(Long courseId) {
+        CourseCounters counters = byCourse.get(courseId);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("courseId", courseId);
+        for (int i = 0; i < COURSE_COUNTERS.length; i++) {
+            stats.put(COURSE_COUNTERS[i], counters != null ? counters.counts[i].sum() : 0L);
+        }
+        return stats;
+    }
+
+    // Reads every counter before querying and adds (database - before)
+    // afterwards, so increments that land while the queries run are kept
+    // rather than overwritten. Anything counted twice in that window is
+    // corrected on the next pass.
+    @Scheduled(fixedDelayString = "${skillforge.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${skillforge.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        Map<User.Role, Long> rolesBefore = new EnumMap<>(User.Role.class);
+        usersByRole.forEach((role, count) -> rolesBefore.put(role, count.sum()));
+        long coursesBefore = courses.sum();
+        long examsBefore = exams.sum();
+        long questionsBefore = questions.sum();
+        long attemptsBefore = attempts.sum();
+        long completionsBefore = completions.sum();
+        Map<Long, long[]> courseBefore = new HashMap<>();
+        byCourse.forEach((id, c) -> courseBefore.put(id, c.sums()));
+
+        Map<User.Role, Long> roleCounts = new EnumMap<>(User.Role.class);
+        for (RoleCountRow row : userRepository.countByRole()) {
+            if (row.getRole() != null) {
+                roleCounts.put(row.getRole(), row.getTotal());
+            }
+        }
+        long courseCount = courseRepository.count();
+        Map<Long, long[]> courseCounts = new HashMap<>();
+        long questionCount = sum(questionRepository.countByCourse(), courseCounts, QUESTIONS);
+        long examCount = sum(examRepository.countByCourse(), courseCounts, EXAMS);
+        long attemptCount = sum(attemptRepository.countByCourse(), courseCounts, ATTEMPTS);
+        long completionCount = sum(attemptRepository.countCompletedByCourse(), courseCounts, COMPLETIONS);
+
+        long drift = 0;
+        for (User.Role role : User.Role.values()) {
+            drift += adjust(usersByRole.get(role), rolesBefore.get(role), roleCounts.getOrDefault(role, 0L));
+        }
+        drift += adjust(courses, coursesBefore, courseCount);
+        drift += adjust(exams, examsBefore, examCount);
+        drift += adjust(questions, questionsBefore, questionCount);
+        drift += adjust(attempts, attemptsBefore, attemptCount);
+        drift += adjust(completions, completionsBefore, completionCount);
+
+        for (Map.Entry<Long, long[]> entry : courseCounts.entrySet()) {
+            long[] before = courseBefore.getOrDefault(entry.getKey(), new long[COURSE_COUNTERS.length]);
+            CourseCounters counters = byCourse.computeIfAbsent(entry.getKey(), id -> new CourseCounters());
+            for (int i = 0; i < COURSE_COUNTERS.length; i++) {
+                drift += adjust(counters.counts[i], before[i], entry.getValue()[i]);
+            }
+        }
+        // Courses with nothing left in the database; zero them out and drop
+        // them, keeping anything written since the snapshot.
+        for (Map.Entry<Long, long[]> entry : courseBefore.entrySet()) {
+            if (!courseCounts.containsKey(entry.getKey())) {
+                CourseCounters counters = byCourse.get(entry.getKey());
+                if (counters != null) {
+                    for (int i = 0; i < COURSE_COUNTERS.length; i++) {
+                        drift += adjust(counters.counts[i], entry.getValue()[i], 0);
+                    }
+                    if (counters.isEmpty()) {
+                        byCourse.remove(entry.getKey(), counters);
+                    }
+                }
+            }
+        }
+
+        lastDrift = drift;
+        lastReconciledAt = System.currentTimeMillis();
+        if (drift != 0) {
+            log.info("Statistics reconciled with drift {} in {} ms", drift, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private Optional<CourseCounters> course(Long courseId) {
+        if (courseId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(byCourse.computeIfAbsent(courseId, id -> new CourseCounters()));
+    }
+
+    private static long sum(List<CourseCountRow> rows, Map<Long, long[]> byCourse, int slot) {
+        long total = 0;
+        for (CourseCountRow row : rows) {
+            total += row.getTotal();
+            if (row.getCourseId() != null) {
+                byCourse.computeIfAbsent(row.getCourseId(), id -> new long[COURSE_COUNTERS.length])[slot] = row.getTotal();
+            }
+        }
+        return total;
+    }
+
+    private static long adjust(LongAdder counter, long before, long actual) {
+        long delta = actual - before;
+        if (delta != 0) {
+            counter.add(delta);
+        }
+        return Math.abs(delta);
+    }
+
+    private static final class CourseCounters {
+        final LongAdder[] counts = new LongAdder[COURSE_COUNTERS.length];
+
+        CourseCounters() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        long[] sums() {
+            long[] sums = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                sums[i] = counts[i].sum();
+            }
+            return sums;
+        }
+
+        boolean isEmpty() {
+            for (LongAdder count : counts) {
+                if (count.sum() != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
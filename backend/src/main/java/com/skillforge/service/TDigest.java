@@ -0,0 +1,194 @@
+package com.skillforge.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Merging t-digest (Dunning): a quantile sketch that keeps values as a
+// sorted list of weighted centroids, small ones near the tails and large
+// ones in the middle, so p1 and p99 stay accurate in a few KB however many
+// values were added. Adds go to a buffer that is sorted and merged into
+// the centroids when full. Two digests merge into one, so per-node or
+// per-period digests can be combined.
+//
+// The k1 scale function bounds each centroid: k(q) = d / 2pi * asin(2q - 1)
+// may grow by at most 1 across a centroid. Not thread-safe.
+final class TDigest {
+    private static final int BUFFER = 512;
+
+    private final double compression;
+    private double[] means = new double[16];
+    private double[] weights = new double[16];
+    private int centroids;
+    private final double[] buffer = new double[BUFFER];
+    private int buffered;
+    private double total;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    TDigest(double compression) {
+        this.compression = compression;
+    }
+
+    void add(double value) {
+        if (buffered == BUFFER) {
+            compress();
+        }
+        buffer[buffered++] = value;
+        total++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(TDigest other) {
+        other.compress();
+        compress();
+        if (other.centroids == 0) {
+            return;
+        }
+        double[] m = new double[centroids + other.centroids];
+        double[] w = new double[m.length];
+        int n = mergeSorted(means, weights, centroids, other.means, other.weights, other.centroids, m, w);
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        rebuild(m, w, n);
+    }
+
+    long count() {
+        return (long) total;
+    }
+
+    double min() {
+        return min;
+    }
+
+    double max() {
+        return max;
+    }
+
+    // Interpolates between centroid centres; the ends interpolate to the
+    // exact min and max. NaN when empty.
+    double quantile(double q) {
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double target = Math.max(0, Math.min(1, q)) * total;
+        if (target < weights[0] / 2) {
+            return min + (means[0] - min) * target / (weights[0] / 2);
+        }
+        double seen = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (seen + step > target) {
+                return means[i] + (means[i + 1] - means[i]) * (target - seen) / step;
+            }
+            seen += step;
+        }
+        double last = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (target - seen) / last);
+    }
+
+    byte[] toBytes() {
+        compress();
+        ByteBuffer out = ByteBuffer.allocate(4 + 8 * 4 + 16 * centroids);
+        out.putInt(centroids).putDouble(compression).putDouble(total).putDouble(min).putDouble(max);
+        for (int i = 0; i < centroids; i++) {
+            out.putDouble(means[i]).putDouble(weights[i]);
+        }
+        return out.array();
+    }
+
+    static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        int n = in.getInt();
+        TDigest digest = new TDigest(in.getDouble());
+        digest.total = in.getDouble();
+        digest.min = in.getDouble();
+        digest.max = in.getDouble();
+        digest.means = new double[Math.max(16, n)];
+        digest.weights = new double[digest.means.length];
+        for (int i = 0; i < n; i++) {
+            digest.means[i] = in.getDouble();
+            digest.weights[i] = in.getDouble();
+        }
+        digest.centroids = n;
+        return digest;
+    }
+
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        double[] ones = new double[buffered];
+        Arrays.fill(ones, 1);
+        double[] m = new double[centroids + buffered];
+        double[] w = new double[m.length];
+        int n = mergeSorted(means, weights, centroids, buffer, ones, buffered, m, w);
+        buffered = 0;
+        rebuild(m, w, n);
+    }
+
+    // Greedy pass over centroids sorted by mean, folding each into the
+    // current one while the k-size of the result stays within 1. The limit
+    // is the cumulative weight at k(left) + 1, so there is one sin per
+    // centroid written rather than an asin per centroid read.
+    private void rebuild(double[] m, double[] w, int n) {
+        double[] newMeans = new double[Math.max(16, n)];
+        double[] newWeights = new double[newMeans.length];
+        int count = 0;
+        double before = 0;
+        double limit = total * q(k(0) + 1);
+        double mean = m[0];
+        double weight = w[0];
+        for (int i = 1; i < n; i++) {
+            double proposed = weight + w[i];
+            if (before + proposed <= limit) {
+                mean += (m[i] - mean) * w[i] / proposed;
+                weight = proposed;
+            } else {
+                newMeans[count] = mean;
+                newWeights[count++] = weight;
+                before += weight;
+                limit = total * q(k(before / total) + 1);
+                mean = m[i];
+                weight = w[i];
+            }
+        }
+        newMeans[count] = mean;
+        newWeights[count++] = weight;
+        means = newMeans;
+        weights = newWeights;
+        centroids = count;
+    }
+
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+
+    // Inverse of k
+    private double q(double k) {
+        return k >= compression / 4 ? 1 : (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private static int mergeSorted(double[] am, double[] aw, int an, double[] bm, double[] bw, int bn,
+                                   double[] m, double[] w) {
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < an || j < bn) {
+            if (j == bn || (i < an && am[i] <= bm[j])) {
+                m[n] = am[i];
+                w[n++] = aw[i++];
+            } else {
+                m[n] = bm[j];
+                w[n++] = bw[j++];
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,141 @@
+package com.skillforge.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hashed timer wheel (Varghese and Lauck): a deadline is rounded up to a
+// tick and hashed into one of a ring of buckets, and advancing the clock
+// by one tick visits one bucket, expiring the entries that are due and
+// leaving those a rotation or more away. Entries are intrusive list nodes,
+// so scheduling and cancelling are O(1) and allocate nothing, and a tick
+// costs about size / buckets comparisons however long the deadlines are.
+//
+// Each bucket has its own lock. The clock (the last tick processed) is
+// moved under the lock of that tick's bucket, so schedule() can tell when
+// it has to pick a later tick rather than land behind the visit.
+final class TimerWheel<E extends TimerWheel.Entry> {
+
+    static class Entry {
+        Entry prev;
+        Entry next;
+        volatile Bucket bucket;
+        long tick;
+    }
+
+    private static final class Bucket {
+        final ReentrantLock lock = new ReentrantLock();
+        Entry head;
+    }
+
+    private final Bucket[] buckets;
+    private final int mask;
+    private final long tickMs;
+    private final long origin;
+    private volatile long processed;
+
+    TimerWheel(int buckets, long tickMs, long nowMs) {
+        int size = Integer.highestOneBit((Math.max(16, buckets) - 1) << 1);
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickMs = Math.max(1, tickMs);
+        this.origin = nowMs;
+        this.processed = 0;
+    }
+
+    // Fires on the first tick at or after the deadline, or on the next tick
+    // when that has already passed
+    void schedule(E entry, long deadlineMs) {
+        long target = Math.max(0, (deadlineMs - origin + tickMs - 1) / tickMs);
+        while (true) {
+            long tick = Math.max(target, processed + 1);
+            Bucket bucket = buckets[(int) (tick & mask)];
+            bucket.lock.lock();
+            try {
+                if (tick > processed) {
+                    entry.tick = tick;
+                    entry.prev = null;
+                    entry.next = bucket.head;
+                    if (bucket.head != null) {
+                        bucket.head.prev = entry;
+                    }
+                    bucket.head = entry;
+                    entry.bucket = bucket;
+                    return;
+                }
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+    }
+
+    // False when the entry was not scheduled or has already fired
+    boolean cancel(E entry) {
+        Bucket bucket = entry.bucket;
+        if (bucket == null) {
+            return false;
+        }
+        bucket.lock.lock();
+        try {
+            if (entry.bucket != bucket) {
+                return false;
+            }
+            unlink(bucket, entry);
+            return true;
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    // Processes every tick up to now and returns the entries that expired
+    @SuppressWarnings("unchecked")
+    List<E> advance(long nowMs) {
+        List<E> expired = new ArrayList<>();
+        long now = (nowMs - origin) / tickMs;
+        for (long tick = processed + 1; tick <= now; tick++) {
+            Bucket bucket = buckets[(int) (tick & mask)];
+            bucket.lock.lock();
+            try {
+                processed = tick;
+                Entry entry = bucket.head;
+                while (entry != null) {
+                    Entry next = entry.next;
+                    if (entry.tick <= tick) {
+                        unlink(bucket, entry);
+                        expired.add((E) entry);
+                    }
+                    entry = next;
+                }
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        return expired;
+    }
+
+    // Wall-clock time of the next tick to process
+    long nextTickAt() {
+        return origin + (processed + 1) * tickMs;
+    }
+
+    int buckets() {
+        return buckets.length;
+    }
+
+    private static void unlink(Bucket bucket, Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            bucket.head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = null;
+    }
+}
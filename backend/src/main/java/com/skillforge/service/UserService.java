@@ -1,34 +1,65 @@
 package com.skillforge.service;
 
+import com.skillforge.dto.CursorPage;
 import com.skillforge.model.User;
 import com.skillforge.repository.UserRepository;
+import com.skillforge.security.PasswordHasher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserService {
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private StatisticsService statisticsService;
     
-    public User register(User user) {
+    // Hashing runs on the PasswordHasher pool; the returned future completes
+    // once the user is saved. Throws ServiceUnavailableException when the pool is saturated.
+    public CompletableFuture<User> register(User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
-        return userRepository.save(user);
+        return passwordHasher.encode(user.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            User saved = userRepository.save(user);
+            statisticsService.userCreated(saved.getRole());
+            return saved;
+        });
     }
     
-    public User login(String email, String password) {
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!user.getPassword().equals(password)) {
-            throw new RuntimeException("Invalid password");
+    public CompletableFuture<User> login(String email, String password) {
+        User user = email == null ? null : userRepository.findByEmail(email).orElse(null);
+        if (user == null || password == null) {
+            throw new BadCredentialsException("Invalid email or password");
         }
-        return user;
+        return passwordHasher.matches(password, user.getPassword()).thenCompose(matches -> {
+            if (!matches) {
+                throw new BadCredentialsException("Invalid email or password");
+            }
+            if (PasswordHasher.isHashed(user.getPassword())) {
+                return CompletableFuture.completedFuture(user);
+            }
+            // Upgrade a legacy plaintext password on first successful login
+            return passwordHasher.encode(password).thenApply(hash -> {
+                user.setPassword(hash);
+                return userRepository.save(user);
+            });
+        });
     }
     
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public CursorPage<User> getUsersPage(Long after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.startAfter(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, User::getId);
     }
     
     public User getUserById(Long id) {
@@ -39,8 +70,11 @@ public class UserService {
     public User updateUserRole(Long id, String role) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found"));
+        User.Role previous = user.getRole();
         user.setRole(User.Role.valueOf(role.toUpperCase()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        statisticsService.userRoleChanged(previous, saved.getRole());
+        return saved;
     }
     
     public User getUserByEmail(String email) {
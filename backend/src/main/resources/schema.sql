@@ -8,4 +8,8 @@ USE skillforge;
 -- Questions table will be auto-created by Hibernate
 
 -- Insert sample data (optional)
--- This will be executed after tables are created by Hibernate
\ No newline at end of file
+-- This will be executed after tables are created by Hibernate
+
+-- Migration: questions moved from IDENTITY to a pooled sequence (question_seq)
+-- so inserts can be batched. QuestionSequence moves the sequence past the
+-- current ids at every startup, and startup fails if it cannot.
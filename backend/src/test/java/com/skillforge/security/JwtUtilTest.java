@@ -0,0 +1,56 @@
+package com.skillforge.security;
+
+import com.skillforge.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+    private static final String SECRET = "test-secret-of-at-least-32-bytes!";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 16);
+
+    private static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("learner@example.com");
+        user.setRole(User.Role.STUDENT);
+        return user;
+    }
+
+    // Cache hits share the claims but never the mutable token
+    @Test
+    void eachCallGetsItsOwnAuthentication() {
+        String header = "Bearer " + jwtUtil.generateToken(user());
+
+        UsernamePasswordAuthenticationToken first = jwtUtil.authenticate(header, 7);
+        first.setDetails("request one");
+        UsernamePasswordAuthenticationToken second = jwtUtil.authenticate(header, 7);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getDetails()).isNull();
+        assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+        assertThat(second.getName()).isEqualTo("learner@example.com");
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_STUDENT");
+        assertThat(jwtUtil.cacheMisses()).isEqualTo(1);
+        assertThat(jwtUtil.cacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken(user());
+        String tampered = (token.charAt(0) == 'A' ? 'B' : 'A') + token.substring(1);
+
+        assertThat(jwtUtil.isTokenValid(token)).isTrue();
+        assertThat(jwtUtil.isTokenValid(tampered)).isFalse();
+        assertThat(new JwtUtil("other-secret-of-at-least-32-bytes", 60_000, 16).isTokenValid(token)).isFalse();
+    }
+
+    @Test
+    void shortOrMissingSecretIsRefused() {
+        assertThatThrownBy(() -> new JwtUtil("test-secret", 60_000, 16)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new JwtUtil(null, 60_000, 16)).isInstanceOf(IllegalStateException.class);
+    }
+}
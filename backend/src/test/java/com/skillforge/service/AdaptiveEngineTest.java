@@ -0,0 +1,111 @@
+package com.skillforge.service;
+
+import com.skillforge.model.Course;
+import com.skillforge.model.LearnerAbility;
+import com.skillforge.model.Question;
+import com.skillforge.repository.AnswerRepository;
+import com.skillforge.repository.LearnerAbilityRepository;
+import com.skillforge.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Learners are dropped from memory as soon as they are idle here (idle
+// time 0), so every lookup exercises the eviction path.
+class AdaptiveEngineTest {
+    private static final long USER = 7L;
+    private static final long COURSE = 1L;
+
+    private final QuestionRepository questionRepository = mock(QuestionRepository.class);
+    private final LearnerAbilityRepository abilityRepository = mock(LearnerAbilityRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private AdaptiveEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        Course course = new Course();
+        course.setId(COURSE);
+        Question first = new Question();
+        first.setId(100L);
+        first.setCourse(course);
+        first.setCorrectAnswer("A");
+        Question second = new Question();
+        second.setId(101L);
+        second.setCourse(course);
+        second.setCorrectAnswer("B");
+        when(questionRepository.findByCourseId(COURSE)).thenReturn(List.of(first, second));
+        when(abilityRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        engine = new AdaptiveEngine(questionRepository, mock(AnswerRepository.class), abilityRepository,
+            jdbcTemplate, mock(CatalogVersions.class), 0.7, 1000, 0);
+        engine.preloadCourse(COURSE);
+    }
+
+    // A learner dropped with an unwritten rating comes back with it, and
+    // with what they have seen, rather than being read stale from the database
+    @Test
+    void droppedLearnerKeepsUnwrittenChanges() {
+        AdaptiveEngine.Outcome outcome = engine.record(USER, 100L, true);
+
+        assertThat(outcome.rated()).isTrue();
+        assertThat(engine.ability(USER)).isEqualTo(outcome.ability());
+        assertThat(engine.record(USER, 100L, true).rated()).isFalse();
+        assertThat(engine.nextQuestion(USER, COURSE)).isEqualTo(101L);
+        verify(abilityRepository, times(1)).findById(USER);
+    }
+
+    @Test
+    void flushWritesDroppedLearnersAndReleasesThem() {
+        AdaptiveEngine.Outcome outcome = engine.record(USER, 100L, true);
+        assertThat(engine.pendingWrites()).isEqualTo(2);
+
+        engine.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("update learner_abilities"), rows.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("update questions"), anyList());
+        assertThat(rows.getValue()).hasSize(1);
+        assertThat(rows.getValue().get(0)[0]).isEqualTo(outcome.ability());
+        assertThat(rows.getValue().get(0)[3]).isEqualTo(USER);
+        assertThat(engine.pendingWrites()).isZero();
+
+        // Written back and idle, so the next use reads the database again
+        LearnerAbility stored = new LearnerAbility();
+        stored.setUserId(USER);
+        stored.setRating(outcome.ability());
+        when(abilityRepository.findById(eq(USER))).thenReturn(Optional.of(stored));
+        assertThat(engine.ability(USER)).isEqualTo(outcome.ability());
+        verify(abilityRepository, times(2)).findById(USER);
+    }
+
+    // A write that fails leaves the changes pending, and a dropped learner
+    // still comes back with them
+    @Test
+    void failedFlushKeepsChangesPending() {
+        AdaptiveEngine.Outcome outcome = engine.record(USER, 100L, true);
+        when(jdbcTemplate.batchUpdate(startsWith("update learner_abilities"), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("database down"));
+
+        assertThatThrownBy(engine::flush).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(engine.pendingWrites()).isEqualTo(2);
+        assertThat(engine.ability(USER)).isEqualTo(outcome.ability());
+        verify(abilityRepository, times(1)).findById(USER);
+    }
+}
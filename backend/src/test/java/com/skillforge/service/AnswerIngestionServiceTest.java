@@ -0,0 +1,80 @@
+package com.skillforge.service;
+
+import com.skillforge.model.Answer;
+import com.skillforge.model.QuarantinedAnswer;
+import com.skillforge.repository.AnswerRepository;
+import com.skillforge.repository.QuarantinedAnswerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A row the database refuses is quarantined and the rows around it are
+// stored; the refusal comes from a check constraint added for the test.
+@SpringBootTest(properties = {
+    "skillforge.adaptive.flush-interval-ms=3600000",
+    "skillforge.analytics.flush-interval-ms=3600000",
+    "skillforge.notifications.poll-ms=3600000",
+    "skillforge.exams.admission.scan-interval-ms=3600000",
+    "skillforge.generation.purge-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+class AnswerIngestionServiceTest {
+    private static final long ATTEMPT = 9_000_001L;
+
+    @Autowired
+    private AnswerIngestionService ingestion;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private QuarantinedAnswerRepository quarantineRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void refusePoison() {
+        jdbcTemplate.execute("alter table answers add constraint no_poison check (selected_answer <> 'POISON')");
+    }
+
+    @AfterEach
+    void allowPoison() {
+        jdbcTemplate.execute("alter table answers drop constraint no_poison");
+    }
+
+    @Test
+    void refusedRowIsQuarantinedAndTheRestStored() {
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sequences.add(ingestion.submit(answer(i == 7 ? "POISON" : "A", i)).join());
+        }
+        ingestion.awaitPersisted(ATTEMPT, 30_000);
+
+        assertThat(answerRepository.countByAttemptId(ATTEMPT)).isEqualTo(19);
+        QuarantinedAnswer held = quarantineRepository.findById(sequences.get(7)).orElseThrow();
+        assertThat(held.getAttemptId()).isEqualTo(ATTEMPT);
+        assertThat(held.getQuestionId()).isEqualTo(7L);
+        assertThat(held.getSelectedAnswer()).isEqualTo("POISON");
+        assertThat(held.getError()).containsIgnoringCase("no_poison");
+    }
+
+    private static Answer answer(String selected, long questionId) {
+        Answer answer = new Answer();
+        answer.setAttemptId(ATTEMPT);
+        answer.setUserId(1L);
+        answer.setQuestionId(questionId);
+        answer.setSelectedAnswer(selected);
+        answer.setCorrect(false);
+        return answer;
+    }
+}
@@ -0,0 +1,160 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.QuestionView;
+import com.skillforge.model.Course;
+import com.skillforge.model.Exam;
+import com.skillforge.model.Question;
+import com.skillforge.repository.CourseRepository;
+import com.skillforge.repository.ExamRepository;
+import com.skillforge.repository.QuestionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every catalog list and detail read is served by the read-model queries, so
+// the number of statements it issues must not depend on how many rows
+// there are. Each test counts one cold read, grows the data tenfold and
+// counts again. Background work is slowed down so its statements don't
+// land in the counts.
+@SpringBootTest(properties = {
+    "skillforge.adaptive.flush-interval-ms=3600000",
+    "skillforge.analytics.flush-interval-ms=3600000",
+    "skillforge.notifications.poll-ms=3600000",
+    "skillforge.exams.admission.scan-interval-ms=3600000",
+    "skillforge.generation.purge-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+class CatalogStatementCountTest {
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Course course;
+    private Exam exam;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Course created = new Course();
+        created.setTitle("Statements");
+        course = courseRepository.save(created);
+    }
+
+    @Test
+    void examPage() {
+        assertConstant(() -> examService.getExamsPage(null, 1000));
+    }
+
+    @Test
+    void examDetail() {
+        assertConstant(() -> examService.getExamDetail(exam.getId()));
+    }
+
+    @Test
+    void examsByCourse() {
+        assertConstant(() -> examService.getExamsByCourse(course.getId()));
+    }
+
+    @Test
+    void examQuestions() {
+        assertConstant(() -> examService.getExamQuestions(exam.getId()));
+    }
+
+    @Test
+    void questionPage() {
+        assertConstant(() -> questionService.getQuestionsPage(null, 1000));
+    }
+
+    @Test
+    void questionFilter() {
+        assertConstant(() -> questionService.findQuestions(course.getId(), null, null));
+    }
+
+    // Large matches are loaded a thousand ids per statement, still in id order
+    @Test
+    void questionFilterChunksLargeMatches() {
+        grow(1, 2500);
+        List<QuestionView> views = new ArrayList<>();
+        long statements = statements(() -> views.addAll(questionService.findQuestions(course.getId(), null, null)));
+
+        assertThat(views).hasSize(2500);
+        assertThat(views).extracting(QuestionView::id).isSorted();
+        assertThat(statements).isEqualTo(3);
+    }
+
+    private void assertConstant(Runnable read) {
+        grow(2, 3);
+        long small = statements(read);
+        grow(20, 30);
+        long large = statements(read);
+        assertThat(small).isPositive();
+        assertThat(large).isEqualTo(small);
+    }
+
+    // Counts the statements of one read with the catalog cache cold
+    private long statements(Runnable read) {
+        catalogCache.invalidateAll();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Adds exams to the course, each with its own questions; the last exam
+    // is the one the detail reads look at.
+    private void grow(int exams, int questionsPerExam) {
+        for (int e = 0; e < exams; e++) {
+            List<Question> questions = new ArrayList<>();
+            for (int q = 0; q < questionsPerExam; q++) {
+                Question question = new Question();
+                question.setCourse(course);
+                question.setQuestionText("Question " + e + "." + q + " of course " + course.getId());
+                question.setOptionA("a");
+                question.setOptionB("b");
+                question.setOptionC("c");
+                question.setOptionD("d");
+                question.setCorrectAnswer("A");
+                question.setDifficulty("MEDIUM");
+                question.setTopic("statements");
+                questions.add(question);
+            }
+            questions = questionRepository.saveAll(questions);
+            questionService.afterBulkInsert(questions);
+
+            Exam created = new Exam();
+            created.setTitle("Exam " + e);
+            created.setCourse(course);
+            created.setDuration(30);
+            created.setTotalMarks(questionsPerExam);
+            created.setQuestions(questions);
+            exam = examRepository.save(created);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.DuplicateReport;
+import com.skillforge.model.Course;
+import com.skillforge.model.Question;
+import com.skillforge.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DuplicateDetectorTest {
+    private final Random random = new Random(5);
+
+    private static DuplicateDetector detector(String mode) {
+        return new DuplicateDetector(mock(QuestionRepository.class), mock(PlatformTransactionManager.class), mode, 0.7, 2);
+    }
+
+    private static Question question(Long id, long courseId, String text, String... options) {
+        Course course = new Course();
+        course.setId(courseId);
+        Question question = new Question();
+        question.setId(id);
+        question.setCourse(course);
+        question.setQuestionText(text);
+        question.setOptionA(options.length > 0 ? options[0] : null);
+        question.setOptionB(options.length > 1 ? options[1] : null);
+        question.setOptionC(options.length > 2 ? options[2] : null);
+        question.setOptionD(options.length > 3 ? options[3] : null);
+        return question;
+    }
+
+    private List<String> words(int count) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            words.add("v" + random.nextInt(100_000));
+        }
+        return words;
+    }
+
+    // One word in thirty replaced
+    private String reworded(List<String> words) {
+        List<String> copy = new ArrayList<>(words);
+        copy.set(random.nextInt(copy.size()), "v" + random.nextInt(100_000));
+        return String.join(" ", copy);
+    }
+
+    @Test
+    void shuffledOptionsAndCaseDoNotMatter() {
+        short[] a = DuplicateDetector.signature("Which sorting algorithm is stable?", "Merge sort", "Heap sort", "Quick sort", "Shell sort");
+        short[] b = DuplicateDetector.signature("which SORTING algorithm is stable", "Quick sort", "Shell sort", "Merge sort", "Heap sort");
+
+        assertThat(a).hasSize(DuplicateDetector.HASHES);
+        assertThat(DuplicateDetector.similarity(a, b)).isEqualTo(1.0);
+    }
+
+    @Test
+    void noWordsNoSignature() {
+        assertThat(DuplicateDetector.signature("the of?", "", null)).isNull();
+    }
+
+    @Test
+    void similarityTracksOverlap() {
+        List<String> words = words(30);
+        short[] original = DuplicateDetector.signature(String.join(" ", words));
+
+        assertThat(DuplicateDetector.similarity(original, DuplicateDetector.signature(reworded(words))))
+            .isGreaterThanOrEqualTo(0.7);
+        assertThat(DuplicateDetector.similarity(original, DuplicateDetector.signature(String.join(" ", words(30)))))
+            .isLessThan(0.2);
+    }
+
+    @Test
+    void findStaysInCourseAndSkipsSelf() {
+        DuplicateDetector detector = detector("flag");
+        List<String> words = words(30);
+        detector.put(question(1L, 10, String.join(" ", words)));
+        detector.put(question(2L, 10, reworded(words)));
+        detector.put(question(3L, 20, String.join(" ", words)));
+        detector.put(question(4L, 10, String.join(" ", words(30))));
+
+        Question probe = question(null, 10, String.join(" ", words));
+        assertThat(detector.find(10L, detector.signature(probe), null)).containsExactly(1L, 2L);
+        assertThat(detector.find(10L, detector.signature(probe), 1L)).containsExactly(2L);
+        assertThat(detector.find(20L, detector.signature(probe), null)).containsExactly(3L);
+
+        detector.remove(2L);
+        assertThat(detector.find(10L, detector.signature(probe), null)).containsExactly(1L);
+        assertThat(detector.size()).isEqualTo(3);
+    }
+
+    @Test
+    void offModeFindsNothing() {
+        DuplicateDetector detector = detector("off");
+        String text = String.join(" ", words(30));
+        detector.put(question(1L, 10, text));
+
+        assertThat(detector.find(10L, detector.signature(question(null, 10, text)), null)).isEmpty();
+        assertThat(detector.size()).isZero();
+    }
+
+    @Test
+    void scanGroupsClusters() {
+        DuplicateDetector detector = detector("flag");
+        List<String> first = words(30);
+        List<String> second = words(30);
+        detector.put(question(1L, 10, String.join(" ", first)));
+        detector.put(question(2L, 10, reworded(first)));
+        detector.put(question(3L, 10, reworded(first)));
+        detector.put(question(4L, 10, String.join(" ", second)));
+        detector.put(question(5L, 10, reworded(second)));
+        detector.put(question(6L, 10, String.join(" ", words(30))));
+        detector.put(question(7L, 20, String.join(" ", first)));
+
+        DuplicateReport report = detector.scanCourse(10L, null);
+
+        assertThat(report.getQuestions()).isEqualTo(6);
+        assertThat(report.getDuplicateQuestions()).isEqualTo(5);
+        assertThat(report.getClusters()).extracting(DuplicateReport.Cluster::questionIds)
+            .containsExactly(List.of(1L, 2L, 3L), List.of(4L, 5L));
+    }
+
+    // Enough deletes rebuild the buckets; lookups still find the survivors
+    @Test
+    void compactionKeepsLookups() {
+        DuplicateDetector detector = detector("flag");
+        List<List<String>> texts = new ArrayList<>();
+        for (int id = 1; id <= 10_000; id++) {
+            List<String> words = words(12);
+            texts.add(words);
+            detector.put(question((long) id, 10, String.join(" ", words)));
+        }
+        for (long id = 1; id <= 5001; id++) {
+            detector.remove(id);
+        }
+
+        assertThat(detector.size()).isEqualTo(4999);
+        for (int id = 5002; id <= 10_000; id += 97) {
+            short[] signature = detector.signature(question(null, 10, String.join(" ", texts.get(id - 1))));
+            assertThat(detector.find(10L, signature, null)).containsExactly((long) id);
+        }
+        short[] removed = detector.signature(question(null, 10, String.join(" ", texts.get(0))));
+        assertThat(detector.find(10L, removed, null)).isEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package com.skillforge.service;
+
+import com.skillforge.dto.ExamView;
+import com.skillforge.exception.AdmissionQueuedException;
+import com.skillforge.repository.ExamAttemptRepository;
+import com.skillforge.repository.ExamRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.mock;
+
+// The admission frontier: burst at the start, then rate-per-second, with
+// unused capacity not saved up. Collaborators are mocks, so pre-warming
+// does nothing.
+class ExamAdmissionServiceTest {
+    private static final long EXAM = 7L;
+    private static final long COURSE = 3L;
+
+    private ExamAdmissionService service;
+
+    private ExamAdmissionService service(double ratePerSecond, int burst) {
+        service = new ExamAdmissionService(mock(ExamRepository.class), mock(ExamAttemptRepository.class),
+            mock(CatalogCache.class), mock(CatalogVersions.class), mock(ExamSnapshots.class),
+            mock(GradingService.class), mock(AdaptiveEngine.class), new SimpleMeterRegistry(),
+            300_000, 600_000, ratePerSecond, burst, 0, false);
+        return service;
+    }
+
+    private static ExamView exam(LocalDateTime startTime) {
+        return new ExamView(EXAM, "Scheduled", COURSE, "Course", 30, 10, LocalDateTime.now().minusDays(1), startTime);
+    }
+
+    @AfterEach
+    void shutDown() throws Exception {
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    @Test
+    void burstIsAdmittedThenLearnersQueue() {
+        ExamAdmissionService admission = service(0.1, 3);
+        admission.scheduleChanged(exam(LocalDateTime.now().minusSeconds(1)));
+
+        assertThat(admission.admit(1L, EXAM)).isEqualTo(COURSE);
+        assertThat(admission.admit(2L, EXAM)).isEqualTo(COURSE);
+        assertThat(admission.admit(3L, EXAM)).isEqualTo(COURSE);
+        Map<String, Object> fourth = queued(admission, 4L);
+        assertThat(fourth).containsEntry("ticket", 4L).containsEntry("position", 1L).containsEntry("waiting", 1L);
+
+        // Asking again keeps the ticket
+        assertThat(queued(admission, 4L)).containsEntry("ticket", 4L);
+        assertThat(admission.stats()).containsEntry("waiting", 1L);
+    }
+
+    // A learner who was let in and starts again goes to the back
+    @Test
+    void admittedTicketIsUsedUp() {
+        ExamAdmissionService admission = service(0.1, 1);
+        admission.scheduleChanged(exam(LocalDateTime.now().minusSeconds(1)));
+
+        assertThat(admission.admit(1L, EXAM)).isEqualTo(COURSE);
+        assertThat(queued(admission, 1L)).containsEntry("ticket", 2L).containsEntry("position", 1L);
+    }
+
+    // Nobody came for the first minute; that minute's capacity is not
+    // saved up, so the crowd still gets only the burst at once
+    @Test
+    void idleCapacityIsNotSavedUp() {
+        ExamAdmissionService admission = service(0.1, 2);
+        admission.scheduleChanged(exam(LocalDateTime.now().minusSeconds(60)));
+
+        assertThat(admission.admit(1L, EXAM)).isEqualTo(COURSE);
+        assertThat(admission.admit(2L, EXAM)).isEqualTo(COURSE);
+        queued(admission, 3L);
+    }
+
+    @Test
+    void frontierAdvancesAtRate() throws InterruptedException {
+        ExamAdmissionService admission = service(20, 1);
+        admission.scheduleChanged(exam(LocalDateTime.now().minusSeconds(1)));
+
+        assertThat(admission.admit(1L, EXAM)).isEqualTo(COURSE);
+        queued(admission, 2L);
+        Thread.sleep(150);
+        assertThat(admission.admit(2L, EXAM)).isEqualTo(COURSE);
+    }
+
+    @Test
+    void everyoneQueuesBeforeTheStart() {
+        ExamAdmissionService admission = service(50, 100);
+        admission.scheduleChanged(exam(LocalDateTime.now().plusSeconds(10)));
+
+        AdmissionQueuedException first = catchThrowableOfType(() -> admission.admit(1L, EXAM), AdmissionQueuedException.class);
+        AdmissionQueuedException second = catchThrowableOfType(() -> admission.admit(2L, EXAM), AdmissionQueuedException.class);
+
+        assertThat(first).hasMessage("Exam has not started yet");
+        assertThat(first.getPosition()).containsEntry("ticket", 1L);
+        assertThat(second.getPosition()).containsEntry("ticket", 2L).containsEntry("position", 2L);
+        assertThat(first.getRetryAfterMs()).isBetween(8_000L, 10_000L);
+    }
+
+    @Test
+    void noWindowNoMetering() {
+        ExamAdmissionService admission = service(0.1, 0);
+
+        assertThat(admission.admit(1L, EXAM)).isNull();
+        admission.scheduleChanged(exam(LocalDateTime.now().minusMinutes(11)));
+        assertThat(admission.admit(1L, EXAM)).isNull();
+        admission.scheduleChanged(exam(LocalDateTime.now().minusSeconds(1)));
+        queued(admission, 1L);
+        admission.forget(EXAM);
+        assertThat(admission.admit(1L, EXAM)).isNull();
+    }
+
+    private static Map<String, Object> queued(ExamAdmissionService admission, long userId) {
+        AdmissionQueuedException queued = catchThrowableOfType(() -> admission.admit(userId, EXAM),
+            AdmissionQueuedException.class);
+        assertThat(queued).as("learner %d queued", userId).isNotNull();
+        return queued.getPosition();
+    }
+}
@@ -0,0 +1,91 @@
+package com.skillforge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedAnswersTest {
+
+    @Test
+    void packAndUnpackRoundTrip() {
+        byte[][] sheet = PackedAnswers.pack("abCD-._ a", 11);
+
+        assertThat(sheet[0]).hasSize(PackedAnswers.choiceBytes(11));
+        assertThat(sheet[1]).hasSize(PackedAnswers.maskBytes(11));
+        assertThat(PackedAnswers.unpack(sheet[0], sheet[1], 11)).isEqualTo("ABCD----A--");
+        assertThat(PackedAnswers.choice(sheet[0], sheet[1], 3)).isEqualTo(3);
+        assertThat(PackedAnswers.choice(sheet[0], sheet[1], 4)).isEqualTo(-1);
+    }
+
+    @Test
+    void packRejectsBadSheets() {
+        assertThatThrownBy(() -> PackedAnswers.pack("ABCDE", 5))
+            .hasMessage("Invalid answer 'E' at position 5");
+        assertThatThrownBy(() -> PackedAnswers.pack("ABC", 2))
+            .hasMessage("Sheet has 3 answers for 2 questions");
+    }
+
+    // Word-at-a-time grading agrees with grading one question at a time,
+    // across word boundaries, unanswered questions, ungradable questions and
+    // mixed marks.
+    @Test
+    void gradeMatchesQuestionByQuestion() {
+        Random random = new Random(42);
+        int questions = 100;
+        int sheets = 50;
+        int[] correct = new int[questions];
+        int[] marks = new int[questions];
+        for (int i = 0; i < questions; i++) {
+            correct[i] = random.nextInt(10) == 0 ? -1 : random.nextInt(4);
+            marks[i] = 1 + random.nextInt(3);
+        }
+        PackedAnswers.Key key = new PackedAnswers.Key(correct, marks);
+
+        int words = key.words();
+        long[] choiceWords = new long[sheets * words];
+        long[] maskWords = new long[sheets * words];
+        int[][] expected = new int[sheets][3];
+        for (int s = 0; s < sheets; s++) {
+            StringBuilder answers = new StringBuilder();
+            for (int i = 0; i < questions; i++) {
+                int option = random.nextInt(5) - 1;
+                answers.append(option < 0 ? '-' : (char) ('A' + option));
+                if (option >= 0) {
+                    expected[s][0]++;
+                    if (option == correct[i]) {
+                        expected[s][1]++;
+                        expected[s][2] += marks[i];
+                    }
+                }
+            }
+            byte[][] sheet = PackedAnswers.pack(answers.toString(), questions);
+            PackedAnswers.choiceWords(sheet[0], choiceWords, s * words);
+            PackedAnswers.maskWords(sheet[1], maskWords, s * words);
+        }
+
+        int[] answered = new int[sheets];
+        int[] right = new int[sheets];
+        int[] score = new int[sheets];
+        key.grade(choiceWords, maskWords, 0, sheets, answered, right, score);
+
+        for (int s = 0; s < sheets; s++) {
+            assertThat(new int[] {answered[s], right[s], score[s]}).as("sheet %d", s).containsExactly(expected[s]);
+        }
+        int max = 0;
+        for (int i = 0; i < questions; i++) {
+            max += correct[i] < 0 ? 0 : marks[i];
+        }
+        assertThat(key.maxScore).isEqualTo(max);
+    }
+
+    @Test
+    void emptyKeyScoresNothing() {
+        PackedAnswers.Key key = new PackedAnswers.Key(new int[0], new int[0]);
+
+        assertThat(key.words()).isZero();
+        assertThat(key.maxScore).isZero();
+    }
+}
@@ -0,0 +1,163 @@
+package com.skillforge.service;
+
+import com.skillforge.model.Course;
+import com.skillforge.model.Question;
+import com.skillforge.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class QuestionSearchIndexTest {
+
+    private static QuestionSearchIndex index() {
+        return new QuestionSearchIndex(mock(QuestionRepository.class), mock(PlatformTransactionManager.class));
+    }
+
+    private static Question question(long id, long courseId, String difficulty, String text) {
+        Course course = new Course();
+        course.setId(courseId);
+        Question question = new Question();
+        question.setId(id);
+        question.setCourse(course);
+        question.setDifficulty(difficulty);
+        question.setQuestionText(text);
+        return question;
+    }
+
+    @Test
+    void tokensDropStopwordsAndStem() {
+        assertThat(QuestionSearchIndex.tokens("What is the Sorting of queues?")).containsExactly("sort", "queu");
+        assertThat(QuestionSearchIndex.stem("sorted")).isEqualTo("sort");
+        assertThat(QuestionSearchIndex.stem("sorts")).isEqualTo("sort");
+        assertThat(QuestionSearchIndex.stem("stopping")).isEqualTo("stop");
+        assertThat(QuestionSearchIndex.stem("queries")).isEqualTo("query");
+        assertThat(QuestionSearchIndex.stem("class")).isEqualTo("class");
+    }
+
+    @Test
+    void filtersAndRemoval() {
+        QuestionSearchIndex index = index();
+        index.put(question(1, 10, "EASY", "Binary search on a sorted array"));
+        index.put(question(2, 10, "HARD", "Searching a binary tree"));
+        index.put(question(3, 20, "EASY", "Linear search"));
+        index.put(question(4, 10, "EASY", "Hash maps"));
+
+        assertThat(index.search("search", null, null, 10).ids()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.search("search", 10L, null, 10).ids()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("search", 10L, "easy", 10).ids()).containsExactly(1L);
+        assertThat(index.search("search", null, "MEDIUM", 10).ids()).isEmpty();
+        assertThat(index.search("the of", null, null, 10).ids()).isEmpty();
+
+        index.remove(1L);
+        assertThat(index.search("search", null, null, 10).ids()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    // The pruned top-k agrees with scoring every document by the BM25
+    // formula: no better document is skipped and the scores are the same.
+    @Test
+    void topHitsMatchExhaustiveBm25() {
+        Random random = new Random(11);
+        QuestionSearchIndex index = index();
+        List<List<String>> documents = new ArrayList<>();
+        for (int id = 1; id <= 3000; id++) {
+            List<String> words = new ArrayList<>();
+            int length = 3 + random.nextInt(15);
+            for (int w = 0; w < length; w++) {
+                words.add(word(random));
+            }
+            documents.add(words);
+            index.put(question(id, 1, "MEDIUM", String.join(" ", words)));
+        }
+
+        for (int q = 0; q < 200; q++) {
+            List<String> terms = new ArrayList<>(new LinkedHashSet<>(List.of(word(random), word(random), word(random))));
+            int limit = 1 + random.nextInt(20);
+            QuestionSearchIndex.Hits hits = index.search(String.join(" ", terms), null, null, limit);
+
+            double[] expected = bm25(documents, terms);
+            double[] best = Arrays.stream(expected).filter(s -> s > 0).map(s -> -s).sorted().map(s -> -s).toArray();
+            assertThat(hits.ids()).hasSize(Math.min(limit, best.length));
+            for (int i = 0; i < hits.ids().length; i++) {
+                assertThat((double) hits.scores()[i]).isCloseTo(expected[(int) hits.ids()[i] - 1], within(1e-3));
+                assertThat((double) hits.scores()[i]).isCloseTo(best[i], within(1e-3));
+            }
+        }
+    }
+
+    // Enough deletes compact the postings; the result is the same index as
+    // one built from the surviving questions
+    @Test
+    void compactionKeepsResults() {
+        Random random = new Random(12);
+        QuestionSearchIndex compacted = index();
+        QuestionSearchIndex fresh = index();
+        String[] texts = new String[10_001];
+        for (int id = 1; id < texts.length; id++) {
+            texts[id] = word(random) + " " + word(random) + " " + word(random);
+            compacted.put(question(id, 1, "EASY", texts[id]));
+        }
+        // The 5001st delete leaves more dead than live, which compacts
+        for (int id = 1; id <= 5001; id++) {
+            compacted.remove((long) id);
+        }
+        for (int id = 5002; id < texts.length; id++) {
+            fresh.put(question(id, 1, "EASY", texts[id]));
+        }
+
+        assertThat(compacted.size()).isEqualTo(fresh.size());
+        assertThat(compacted.terms()).isEqualTo(fresh.terms());
+        for (int q = 0; q < 50; q++) {
+            String query = word(random) + " " + word(random);
+            QuestionSearchIndex.Hits a = compacted.search(query, null, null, 10);
+            QuestionSearchIndex.Hits b = fresh.search(query, null, null, 10);
+            assertThat(a.ids()).containsExactly(b.ids());
+            assertThat(a.scores()).containsExactly(b.scores());
+        }
+    }
+
+    // Skewed vocabulary, so queries mix common and rare terms
+    private static String word(Random random) {
+        return "w" + (int) Math.floor(Math.pow(random.nextDouble(), 3) * 400);
+    }
+
+    // Text terms count twice, as in the index
+    private static double[] bm25(List<List<String>> documents, List<String> terms) {
+        int n = documents.size();
+        List<Map<String, Integer>> tfs = new ArrayList<>();
+        long total = 0;
+        for (List<String> words : documents) {
+            Map<String, Integer> tf = new HashMap<>();
+            for (String word : words) {
+                tf.merge(word, 2, Integer::sum);
+            }
+            tfs.add(tf);
+            total += 2L * words.size();
+        }
+        double avg = (double) total / n;
+        double[] scores = new double[n];
+        for (String term : terms) {
+            long df = tfs.stream().filter(tf -> tf.containsKey(term)).count();
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            for (int d = 0; d < n; d++) {
+                Integer tf = tfs.get(d).get(term);
+                if (tf != null) {
+                    double length = 2.0 * documents.get(d).size();
+                    scores[d] += idf * tf * 2.2 / (tf + 1.2 * (0.25 + 0.75 * length / avg));
+                }
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,43 @@
+package com.skillforge.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A row written around the sequence, as an IDENTITY-era row would be, is
+// stepped over by the next block once the sequence has been moved. The
+// context is shared, so the generator may still hold an older block; the
+// test reads the sequence itself.
+@SpringBootTest(properties = {
+    "skillforge.adaptive.flush-interval-ms=3600000",
+    "skillforge.analytics.flush-interval-ms=3600000",
+    "skillforge.notifications.poll-ms=3600000",
+    "skillforge.exams.admission.scan-interval-ms=3600000",
+    "skillforge.generation.purge-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+class QuestionSequenceTest {
+    @Autowired
+    private QuestionSequence questionSequence;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sequenceMovesPastExistingIds() {
+        long taken = 1_000_000;
+        jdbcTemplate.update("insert into questions (id, question_text, correct_answer) values (?, ?, ?)",
+            taken, "Inserted without the sequence", "A");
+
+        questionSequence.afterSingletonsInstantiated();
+        // Run again it leaves the sequence where it is
+        questionSequence.afterSingletonsInstantiated();
+
+        Long top = jdbcTemplate.queryForObject("select next value for " + QuestionSequence.NAME, Long.class);
+        assertThat(top - QuestionSequence.ALLOCATION + 1).isGreaterThan(taken);
+    }
+}
@@ -0,0 +1,118 @@
+package com.skillforge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TDigestTest {
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    @Test
+    void emptyDigest() {
+        TDigest digest = new TDigest(100);
+
+        assertThat(digest.count()).isZero();
+        assertThat(digest.quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void singleValue() {
+        TDigest digest = new TDigest(100);
+        digest.add(42);
+
+        assertThat(digest.quantile(0)).isEqualTo(42);
+        assertThat(digest.quantile(0.5)).isEqualTo(42);
+        assertThat(digest.quantile(1)).isEqualTo(42);
+    }
+
+    // Rank error stays small everywhere and smallest at the tails, and the
+    // ends are the exact min and max
+    @Test
+    void quantilesTrackExactRanks() {
+        Random random = new Random(1);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 15 + 60;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(digest.count()).isEqualTo(values.length);
+        assertThat(digest.quantile(0)).isEqualTo(values[0]);
+        assertThat(digest.quantile(1)).isEqualTo(values[values.length - 1]);
+        for (double q : QUANTILES) {
+            double rank = rank(values, digest.quantile(q));
+            double tolerance = q < 0.01 || q > 0.99 ? 0.0005 : 0.005;
+            assertThat(rank).as("rank of p%s", q * 100).isCloseTo(q, within(tolerance));
+        }
+    }
+
+    @Test
+    void sizeIsBoundedByCompression() {
+        TDigest digest = new TDigest(100);
+        Random random = new Random(2);
+        for (int i = 0; i < 1_000_000; i++) {
+            digest.add(random.nextDouble());
+        }
+
+        int centroids = (digest.toBytes().length - 36) / 16;
+        assertThat(centroids).isBetween(10, 100);
+    }
+
+    // Digests built separately and merged answer like one digest of all
+    // the values
+    @Test
+    void mergeCombinesDigests() {
+        Random random = new Random(3);
+        double[] values = new double[40_000];
+        TDigest merged = new TDigest(100);
+        for (int part = 0; part < 4; part++) {
+            TDigest digest = new TDigest(100);
+            for (int i = 0; i < 10_000; i++) {
+                double value = random.nextDouble() * 100 * (part + 1);
+                values[part * 10_000 + i] = value;
+                digest.add(value);
+            }
+            merged.merge(digest);
+        }
+        Arrays.sort(values);
+
+        assertThat(merged.count()).isEqualTo(values.length);
+        assertThat(merged.min()).isEqualTo(values[0]);
+        assertThat(merged.max()).isEqualTo(values[values.length - 1]);
+        for (double q : QUANTILES) {
+            assertThat(rank(values, merged.quantile(q))).as("rank of p%s", q * 100).isCloseTo(q, within(0.01));
+        }
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        TDigest digest = new TDigest(50);
+        Random random = new Random(4);
+        for (int i = 0; i < 5000; i++) {
+            digest.add(random.nextInt(100));
+        }
+
+        TDigest copy = TDigest.fromBytes(digest.toBytes());
+
+        assertThat(copy.count()).isEqualTo(digest.count());
+        assertThat(copy.min()).isEqualTo(digest.min());
+        assertThat(copy.max()).isEqualTo(digest.max());
+        for (double q : QUANTILES) {
+            assertThat(copy.quantile(q)).isEqualTo(digest.quantile(q));
+        }
+        copy.add(1000);
+        assertThat(copy.max()).isEqualTo(1000);
+    }
+
+    // Fraction of the sorted values below x
+    private static double rank(double[] sorted, double x) {
+        int i = Arrays.binarySearch(sorted, x);
+        return (i >= 0 ? i : -i - 1) / (double) sorted.length;
+    }
+}
@@ -0,0 +1,103 @@
+package com.skillforge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+    private static final long ORIGIN = 1_000_000L;
+
+    static final class Timer extends TimerWheel.Entry {
+        final long deadline;
+
+        Timer(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    @Test
+    void bucketCountRoundsUpToPowerOfTwo() {
+        assertThat(new TimerWheel<Timer>(1, 100, ORIGIN).buckets()).isEqualTo(16);
+        assertThat(new TimerWheel<Timer>(16, 100, ORIGIN).buckets()).isEqualTo(16);
+        assertThat(new TimerWheel<Timer>(100, 100, ORIGIN).buckets()).isEqualTo(128);
+    }
+
+    @Test
+    void firesOnFirstTickAtOrAfterDeadline() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(16, 100, ORIGIN);
+        Timer timer = new Timer(ORIGIN + 250);
+        wheel.schedule(timer, timer.deadline);
+
+        assertThat(wheel.advance(ORIGIN + 299)).isEmpty();
+        assertThat(wheel.advance(ORIGIN + 300)).containsExactly(timer);
+        assertThat(wheel.advance(ORIGIN + 10_000)).isEmpty();
+        assertThat(wheel.cancel(timer)).isFalse();
+    }
+
+    // A deadline several rotations away shares a bucket with nearer ones but
+    // only fires on its own rotation
+    @Test
+    void leavesLaterRotationsInTheBucket() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(16, 10, ORIGIN);
+        Timer near = new Timer(ORIGIN + 50);
+        Timer far = new Timer(ORIGIN + 50 + 3 * 16 * 10);
+        wheel.schedule(near, near.deadline);
+        wheel.schedule(far, far.deadline);
+
+        assertThat(wheel.advance(ORIGIN + 50)).containsExactly(near);
+        assertThat(wheel.advance(far.deadline - 1)).isEmpty();
+        assertThat(wheel.advance(far.deadline)).containsExactly(far);
+    }
+
+    @Test
+    void cancelledEntryNeverFires() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(16, 10, ORIGIN);
+        Timer kept = new Timer(ORIGIN + 40);
+        Timer cancelled = new Timer(ORIGIN + 40);
+        wheel.schedule(kept, kept.deadline);
+        wheel.schedule(cancelled, cancelled.deadline);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.advance(ORIGIN + 1000)).containsExactly(kept);
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(16, 10, ORIGIN);
+        wheel.advance(ORIGIN + 500);
+        Timer late = new Timer(ORIGIN + 100);
+        wheel.schedule(late, late.deadline);
+
+        assertThat(wheel.nextTickAt()).isEqualTo(ORIGIN + 510);
+        assertThat(wheel.advance(ORIGIN + 509)).isEmpty();
+        assertThat(wheel.advance(ORIGIN + 510)).containsExactly(late);
+    }
+
+    // Every timer fires exactly once, on the tick its deadline rounds up to
+    @Test
+    void randomDeadlinesFireOnTime() {
+        Random random = new Random(7);
+        TimerWheel<Timer> wheel = new TimerWheel<>(32, 10, ORIGIN);
+        List<Timer> timers = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Timer timer = new Timer(ORIGIN + random.nextInt(20_000));
+            timers.add(timer);
+            wheel.schedule(timer, timer.deadline);
+        }
+
+        List<Timer> fired = new ArrayList<>();
+        for (long now = ORIGIN; now <= ORIGIN + 20_010; now += 7) {
+            for (Timer timer : wheel.advance(now)) {
+                assertThat(timer.deadline).isLessThanOrEqualTo(now);
+                assertThat(now - timer.deadline).isLessThan(10 + 7);
+                fired.add(timer);
+            }
+        }
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(timers);
+    }
+}